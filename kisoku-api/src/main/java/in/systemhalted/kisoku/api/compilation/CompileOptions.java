@@ -11,42 +11,62 @@ public final class CompileOptions {
   private final RuleSelectionPolicy ruleSelectionPolicy;
   private final String priorityColumn;
   private final Schema schema;
+  private final boolean persistIndexes;
 
   private CompileOptions(
       ArtifactKind artifactKind,
       RuleSelectionPolicy ruleSelectionPolicy,
       String priorityColumn,
-      Schema schema) {
+      Schema schema,
+      boolean persistIndexes) {
     this.artifactKind = Objects.requireNonNull(artifactKind, "artifactKind");
     this.ruleSelectionPolicy = Objects.requireNonNull(ruleSelectionPolicy, "ruleSelectionPolicy");
     this.priorityColumn = Objects.requireNonNull(priorityColumn, "priorityColumn");
     this.schema = Objects.requireNonNull(schema, "schema");
+    this.persistIndexes = persistIndexes;
   }
 
   public static CompileOptions production(Schema schema) {
     return new CompileOptions(
-        ArtifactKind.PRODUCTION, RuleSelectionPolicy.AUTO, "PRIORITY", schema);
+        ArtifactKind.PRODUCTION, RuleSelectionPolicy.AUTO, "PRIORITY", schema, false);
   }
 
   public static CompileOptions testInclusive(Schema schema) {
     return new CompileOptions(
-        ArtifactKind.TEST_INCLUSIVE, RuleSelectionPolicy.AUTO, "PRIORITY", schema);
+        ArtifactKind.TEST_INCLUSIVE, RuleSelectionPolicy.AUTO, "PRIORITY", schema, false);
   }
 
   public CompileOptions withArtifactKind(ArtifactKind artifactKind) {
-    return new CompileOptions(artifactKind, ruleSelectionPolicy, priorityColumn, schema);
+    return new CompileOptions(
+        artifactKind, ruleSelectionPolicy, priorityColumn, schema, persistIndexes);
   }
 
   public CompileOptions withRuleSelection(RuleSelectionPolicy ruleSelectionPolicy) {
-    return new CompileOptions(artifactKind, ruleSelectionPolicy, priorityColumn, schema);
+    return new CompileOptions(
+        artifactKind, ruleSelectionPolicy, priorityColumn, schema, persistIndexes);
   }
 
   public CompileOptions withPriorityColumn(String priorityColumn) {
-    return new CompileOptions(artifactKind, ruleSelectionPolicy, priorityColumn, schema);
+    return new CompileOptions(
+        artifactKind, ruleSelectionPolicy, priorityColumn, schema, persistIndexes);
   }
 
   public CompileOptions withSchema(Schema schema) {
-    return new CompileOptions(artifactKind, ruleSelectionPolicy, priorityColumn, schema);
+    return new CompileOptions(
+        artifactKind, ruleSelectionPolicy, priorityColumn, schema, persistIndexes);
+  }
+
+  /**
+   * Builds the column indexes at compile time and stores them in the artifact, so loaders map them
+   * instead of rebuilding on every load. Trades a larger artifact and longer compile for fast cold
+   * starts. Disabled by default.
+   *
+   * @param persistIndexes whether to persist column indexes in the artifact
+   * @return options with the given index persistence
+   */
+  public CompileOptions withPersistedIndexes(boolean persistIndexes) {
+    return new CompileOptions(
+        artifactKind, ruleSelectionPolicy, priorityColumn, schema, persistIndexes);
   }
 
   public ArtifactKind artifactKind() {
@@ -64,4 +84,8 @@ public final class CompileOptions {
   public Schema schema() {
     return schema;
   }
+
+  public boolean persistIndexes() {
+    return persistIndexes;
+  }
 }
@@ -0,0 +1,9 @@
+package in.systemhalted.kisoku.api.evaluation;
+
+/** Aggregates over an output column of all matching rules. */
+public enum Aggregation {
+  SUM,
+  MIN,
+  MAX,
+  COUNT
+}
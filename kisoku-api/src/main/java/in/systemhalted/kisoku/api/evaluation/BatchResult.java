@@ -0,0 +1,75 @@
+package in.systemhalted.kisoku.api.evaluation;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Columnar result of {@code LoadedRuleset.evaluateBatch}: the winning rule of each input row of a
+ * {@link RecordBatch}, in row order.
+ *
+ * <p>The result stores only which rule won each row. Outputs are decoded on demand, either per row
+ * as a {@link DecisionOutput} with {@link #output(int)}, or per column for the whole batch with
+ * {@link #outputColumn(String)}, which fills one primitive array and builds no per-row maps; only
+ * the columns actually requested are decoded. Unmatched rows do not abort the batch. Instances are
+ * immutable and thread-safe.
+ */
+public interface BatchResult {
+
+  /** Returns the number of input rows. */
+  int size();
+
+  /** Returns the number of input rows matched by some rule. */
+  int matchCount();
+
+  /**
+   * Returns whether some rule matched an input row.
+   *
+   * @param row the input row number
+   * @return true if the row has an output
+   */
+  boolean isMatched(int row);
+
+  /**
+   * Decodes the winning rule's output for an input row; same value as {@code
+   * LoadedRuleset.tryEvaluate} for the row's input.
+   *
+   * @param row the input row number
+   * @return the output, or empty if no rule matched
+   */
+  Optional<DecisionOutput> output(int row);
+
+  /**
+   * Like {@link #output(int)}, decoding only the projected output columns.
+   *
+   * @param row the input row number
+   * @param projection a projection from the evaluating ruleset
+   * @return the projected output, or empty if no rule matched
+   * @throws IllegalArgumentException if the projection was prepared by another ruleset
+   */
+  Optional<DecisionOutput> output(int row, OutputProjection projection);
+
+  /**
+   * Returns the input rows matched by some rule, in ascending order.
+   *
+   * @return the matched input row numbers
+   */
+  int[] matchedRows();
+
+  /**
+   * Names readable with {@link #outputColumn(String)}: {@code RULE_ID}, then the ruleset's output
+   * columns (excluding TEST_ columns) in table order.
+   *
+   * @return the output column names
+   */
+  List<String> outputColumnNames();
+
+  /**
+   * Decodes one output column (or {@code RULE_ID}) for every input row. The column is decoded on
+   * the first request and cached.
+   *
+   * @param name the output column name
+   * @return the column's values by input row
+   * @throws EvaluationException if the ruleset has no such output column
+   */
+  OutputColumn outputColumn(String name);
+}
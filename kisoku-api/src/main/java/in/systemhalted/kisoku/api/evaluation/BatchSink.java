@@ -0,0 +1,20 @@
+package in.systemhalted.kisoku.api.evaluation;
+
+import java.util.List;
+
+/**
+ * Receives the results of streaming bulk evaluation one fixed-size batch at a time, so the caller
+ * can write them out (file, queue, database) before the next batch is evaluated.
+ */
+@FunctionalInterface
+public interface BatchSink {
+
+  /**
+   * Accepts one evaluated batch. Both arguments are only valid during the call: the engine reuses
+   * the input list for the next batch, so copy anything that must outlive it.
+   *
+   * @param inputs the batch's inputs, in stream order
+   * @param results the winning rule per input, aligned with {@code inputs}
+   */
+  void accept(List<DecisionInput> inputs, BatchResult results);
+}
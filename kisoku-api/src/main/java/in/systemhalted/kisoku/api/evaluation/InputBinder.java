@@ -0,0 +1,34 @@
+package in.systemhalted.kisoku.api.evaluation;
+
+import java.util.List;
+
+/**
+ * Resolves a loaded ruleset's input columns to slot numbers once, so callers can fill {@link
+ * PreparedInput} holders by slot instead of building a {@link DecisionInput} map per evaluation.
+ * Obtained from {@code LoadedRuleset.inputBinder()}; immutable and thread-safe.
+ */
+public interface InputBinder {
+
+  /**
+   * Returns the slot of an input column.
+   *
+   * @param column the input column name
+   * @return the column's slot
+   * @throws IllegalArgumentException if the ruleset has no such input column
+   */
+  int slot(String column);
+
+  /**
+   * Input column names in slot order.
+   *
+   * @return the input columns, indexed by slot
+   */
+  List<String> columns();
+
+  /**
+   * Creates an empty holder bound to this ruleset, with every slot unset (null).
+   *
+   * @return a new prepared input
+   */
+  PreparedInput newInput();
+}
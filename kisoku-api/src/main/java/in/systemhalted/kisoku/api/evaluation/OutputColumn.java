@@ -0,0 +1,49 @@
+package in.systemhalted.kisoku.api.evaluation;
+
+import in.systemhalted.kisoku.api.ColumnType;
+
+/**
+ * One output column of a {@link BatchResult}, decoded for every input row of the batch at once: the
+ * winning rule's cell per row, held as one primitive {@code int} per row.
+ *
+ * <p>{@link #code(int)} is the stored form - the value itself for INTEGER, DATE (days since the
+ * epoch) and BOOLEAN (1 or 0), and a dictionary id for STRING, DECIMAL and TIMESTAMP, so equal ids
+ * mean equal text. {@link #value(int)} resolves it to the same object {@link DecisionOutput} would
+ * hold. Rows that no rule matched, and blank cells, are {@linkplain #isNull(int) null}. Instances
+ * are immutable and thread-safe.
+ */
+public interface OutputColumn {
+
+  /** Returns the column name. */
+  String name();
+
+  /** Returns the column type. */
+  ColumnType type();
+
+  /** Returns the number of input rows. */
+  int size();
+
+  /**
+   * Returns whether a row has no value: unmatched, or the winning rule's cell is blank.
+   *
+   * @param row the input row number
+   * @return true if the row has no value
+   */
+  boolean isNull(int row);
+
+  /**
+   * Returns a row's stored code (0 when null).
+   *
+   * @param row the input row number
+   * @return the value or dictionary id
+   */
+  int code(int row);
+
+  /**
+   * Returns a row's decoded value, as it would appear in {@link DecisionOutput#outputs()}.
+   *
+   * @param row the input row number
+   * @return the value, or null
+   */
+  Object value(int row);
+}
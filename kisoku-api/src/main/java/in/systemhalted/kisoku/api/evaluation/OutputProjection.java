@@ -0,0 +1,18 @@
+package in.systemhalted.kisoku.api.evaluation;
+
+import java.util.List;
+
+/**
+ * A prepared subset of a loaded ruleset's output columns, created once by {@code
+ * LoadedRuleset.outputProjection} and passed to evaluation so that only these columns are decoded
+ * into each {@link DecisionOutput}. The rule id is always returned. Immutable and thread-safe.
+ */
+public interface OutputProjection {
+
+  /**
+   * Output columns included by this projection, in the order they were requested.
+   *
+   * @return the projected column names
+   */
+  List<String> columns();
+}
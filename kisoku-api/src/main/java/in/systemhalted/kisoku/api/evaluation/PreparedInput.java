@@ -0,0 +1,88 @@
+package in.systemhalted.kisoku.api.evaluation;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * A reusable input holder for one loaded ruleset, created by {@link InputBinder#newInput()}.
+ *
+ * <p>Each setter converts its value to the ruleset's internal comparable form immediately, so
+ * evaluation reads pre-coerced values by slot with no map lookups or boxing. Setters throw {@link
+ * EvaluationException} if the value's type does not fit the column. An unset or {@linkplain
+ * #setNull null} slot behaves like a missing {@link DecisionInput} key.
+ *
+ * <p>Instances are mutable and not thread-safe: reuse one per thread, calling {@link #clear()} (or
+ * overwriting every slot) between evaluations.
+ */
+public interface PreparedInput {
+
+  /**
+   * Sets an INTEGER column (or a DATE column, as days since the epoch).
+   *
+   * @param slot the column's slot
+   * @param value the value
+   * @return this input
+   */
+  PreparedInput setInt(int slot, int value);
+
+  /**
+   * Sets a BOOLEAN column.
+   *
+   * @param slot the column's slot
+   * @param value the value
+   * @return this input
+   */
+  PreparedInput setBoolean(int slot, boolean value);
+
+  /**
+   * Sets a STRING column, or a DECIMAL or TIMESTAMP column from its text form.
+   *
+   * @param slot the column's slot
+   * @param value the value, or null for none
+   * @return this input
+   */
+  PreparedInput setString(int slot, String value);
+
+  /**
+   * Sets a DECIMAL column.
+   *
+   * @param slot the column's slot
+   * @param value the value, or null for none
+   * @return this input
+   */
+  PreparedInput setDecimal(int slot, BigDecimal value);
+
+  /**
+   * Sets a DATE column.
+   *
+   * @param slot the column's slot
+   * @param value the value, or null for none
+   * @return this input
+   */
+  PreparedInput setDate(int slot, LocalDate value);
+
+  /**
+   * Sets a column from a value of any supported type, with the same conversions as {@link
+   * DecisionInput}.
+   *
+   * @param slot the column's slot
+   * @param value the value, or null for none
+   * @return this input
+   */
+  PreparedInput set(int slot, Object value);
+
+  /**
+   * Clears a column, as if its key were missing from a {@link DecisionInput}.
+   *
+   * @param slot the column's slot
+   * @return this input
+   */
+  PreparedInput setNull(int slot);
+
+  /**
+   * Clears every column.
+   *
+   * @return this input
+   */
+  PreparedInput clear();
+}
@@ -0,0 +1,165 @@
+package in.systemhalted.kisoku.api.evaluation;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A columnar batch of inputs for {@code LoadedRuleset.evaluateBatch}: one array per input column,
+ * all of length {@link #rowCount()}, where element {@code i} of every column forms input row {@code
+ * i}.
+ *
+ * <p>Primitive columns ({@code int[]}, {@code boolean[]}) take an optional null mask whose set bits
+ * mark null rows; object columns treat {@code null} elements as null. A null cell, or a column not
+ * supplied at all, behaves like a missing {@link DecisionInput} key. Columns the ruleset does not
+ * read are ignored.
+ *
+ * <p>The builder keeps references to the caller's arrays rather than copying them, so a batch of
+ * millions of rows costs no extra memory; do not modify the arrays while the batch is in use.
+ */
+public final class RecordBatch {
+  private final int rowCount;
+  private final Map<String, Object> values; // int[], boolean[] or Object[] per column
+  private final Map<String, BitSet> nulls; // Null masks of primitive columns
+
+  private RecordBatch(int rowCount, Map<String, Object> values, Map<String, BitSet> nulls) {
+    this.rowCount = rowCount;
+    this.values = Collections.unmodifiableMap(new LinkedHashMap<>(values));
+    this.nulls = Map.copyOf(nulls);
+  }
+
+  /**
+   * Starts a batch of {@code rowCount} input rows.
+   *
+   * @param rowCount the number of rows; every column must have exactly this length
+   * @return a new builder
+   */
+  public static Builder builder(int rowCount) {
+    if (rowCount < 0) {
+      throw new IllegalArgumentException("rowCount must be >= 0: " + rowCount);
+    }
+    return new Builder(rowCount);
+  }
+
+  /** Returns the number of input rows. */
+  public int rowCount() {
+    return rowCount;
+  }
+
+  /** Returns the supplied column names in the order they were added. */
+  public Set<String> columnNames() {
+    return values.keySet();
+  }
+
+  /**
+   * Returns a column's values as supplied to the builder: an {@code int[]}, {@code boolean[]} or
+   * {@code Object[]} (strings, decimals or dates), or null if the column was not supplied.
+   *
+   * @param column the column name
+   * @return the column's value array, or null
+   */
+  public Object values(String column) {
+    return values.get(column);
+  }
+
+  /**
+   * Returns whether a row of a column is null: its null-mask bit is set (primitive columns), its
+   * element is null (object columns), or the column was not supplied.
+   *
+   * @param column the column name
+   * @param row the row number
+   * @return true if the cell is null
+   */
+  public boolean isNull(String column, int row) {
+    Object array = values.get(column);
+    if (array == null) {
+      return true;
+    }
+    if (array instanceof Object[] objects) {
+      return objects[row] == null;
+    }
+    BitSet mask = nulls.get(column);
+    return mask != null && mask.get(row);
+  }
+
+  /**
+   * Returns a copy of a primitive column's null mask (set bits are null rows); empty for object
+   * columns, columns without a mask and columns not supplied.
+   *
+   * @param column the column name
+   * @return the column's null mask
+   */
+  public BitSet nullMask(String column) {
+    BitSet mask = nulls.get(column);
+    return mask == null ? new BitSet() : (BitSet) mask.clone();
+  }
+
+  public static final class Builder {
+    private final int rowCount;
+    private final Map<String, Object> values = new LinkedHashMap<>();
+    private final Map<String, BitSet> nulls = new LinkedHashMap<>();
+
+    private Builder(int rowCount) {
+      this.rowCount = rowCount;
+    }
+
+    /** Adds an INTEGER column, or a DATE column as days since the epoch, with no nulls. */
+    public Builder intColumn(String name, int[] columnValues) {
+      return intColumn(name, columnValues, null);
+    }
+
+    /** Adds an INTEGER column, or a DATE column as days since the epoch; set mask bits are null. */
+    public Builder intColumn(String name, int[] columnValues, BitSet nullMask) {
+      return put(name, columnValues, columnValues.length, nullMask);
+    }
+
+    /** Adds a BOOLEAN column with no nulls. */
+    public Builder booleanColumn(String name, boolean[] columnValues) {
+      return booleanColumn(name, columnValues, null);
+    }
+
+    /** Adds a BOOLEAN column; set mask bits are null. */
+    public Builder booleanColumn(String name, boolean[] columnValues, BitSet nullMask) {
+      return put(name, columnValues, columnValues.length, nullMask);
+    }
+
+    /** Adds a STRING column, or a DECIMAL or TIMESTAMP column from its text form. */
+    public Builder stringColumn(String name, String[] columnValues) {
+      return put(name, columnValues, columnValues.length, null);
+    }
+
+    /** Adds a DECIMAL column. */
+    public Builder decimalColumn(String name, BigDecimal[] columnValues) {
+      return put(name, columnValues, columnValues.length, null);
+    }
+
+    /** Adds a DATE column. */
+    public Builder dateColumn(String name, LocalDate[] columnValues) {
+      return put(name, columnValues, columnValues.length, null);
+    }
+
+    public RecordBatch build() {
+      return new RecordBatch(rowCount, values, nulls);
+    }
+
+    private Builder put(String name, Object columnValues, int length, BitSet nullMask) {
+      Objects.requireNonNull(name, "name");
+      if (length != rowCount) {
+        throw new IllegalArgumentException(
+            "Column " + name + " has " + length + " rows, expected " + rowCount);
+      }
+      values.put(name, columnValues);
+      if (nullMask != null) {
+        nulls.put(name, (BitSet) nullMask.clone());
+      } else {
+        nulls.remove(name);
+      }
+      return this;
+    }
+  }
+}
@@ -1,25 +1,120 @@
 package in.systemhalted.kisoku.api.loading;
 
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
 /** Options that control how compiled artifacts are loaded. */
 public final class LoadOptions {
   private final boolean memoryMap;
   private final boolean prewarmIndexes;
+  private final int comparisonIndexStride;
+  private final boolean offHeapIndexes;
+  private final Executor indexBuildExecutor;
+  private final boolean lazyIndexes;
 
-  private LoadOptions(boolean memoryMap, boolean prewarmIndexes) {
+  private LoadOptions(
+      boolean memoryMap,
+      boolean prewarmIndexes,
+      int comparisonIndexStride,
+      boolean offHeapIndexes,
+      Executor indexBuildExecutor,
+      boolean lazyIndexes) {
     this.memoryMap = memoryMap;
     this.prewarmIndexes = prewarmIndexes;
+    this.comparisonIndexStride = comparisonIndexStride;
+    this.offHeapIndexes = offHeapIndexes;
+    this.indexBuildExecutor = indexBuildExecutor;
+    this.lazyIndexes = lazyIndexes;
   }
 
   public static LoadOptions memoryMap() {
-    return new LoadOptions(true, true);
+    return new LoadOptions(true, true, 0, false, null, false);
   }
 
   public static LoadOptions onHeap() {
-    return new LoadOptions(false, true);
+    return new LoadOptions(false, true, 0, false, null, false);
   }
 
   public LoadOptions withPrewarmIndexes(boolean prewarmIndexes) {
-    return new LoadOptions(memoryMap, prewarmIndexes);
+    return new LoadOptions(
+        memoryMap,
+        prewarmIndexes,
+        comparisonIndexStride,
+        offHeapIndexes,
+        indexBuildExecutor,
+        lazyIndexes);
+  }
+
+  /**
+   * Enables cumulative bitmaps for GT/GTE/LT/LTE column indexes, precomputed every {@code stride}
+   * sorted thresholds. A comparison lookup then does at most {@code stride - 1} bitmap ORs instead
+   * of one per matching threshold, at the cost of extra index memory: 1 is fastest and largest,
+   * larger strides use proportionally less memory. 0 (the default) disables cumulative bitmaps.
+   *
+   * @param stride thresholds between cumulative bitmaps, or 0 to disable
+   * @return options with the given stride
+   */
+  public LoadOptions withComparisonIndexStride(int stride) {
+    if (stride < 0) {
+      throw new IllegalArgumentException("Comparison index stride must be >= 0: " + stride);
+    }
+    return new LoadOptions(
+        memoryMap, prewarmIndexes, stride, offHeapIndexes, indexBuildExecutor, lazyIndexes);
+  }
+
+  /**
+   * Stores built column indexes off-heap: their row bitmaps are moved into direct buffers after
+   * construction and read with absolute gets, like column data from a mapped artifact. Heap usage
+   * after load then stays independent of the row count (only per-value keys and headers remain);
+   * indexes are still built on the heap, so peak load-time heap is unchanged. Disabled by default.
+   *
+   * @param offHeapIndexes whether to keep index bitmaps in direct buffers
+   * @return options with the given index storage
+   */
+  public LoadOptions withOffHeapIndexes(boolean offHeapIndexes) {
+    return new LoadOptions(
+        memoryMap,
+        prewarmIndexes,
+        comparisonIndexStride,
+        offHeapIndexes,
+        indexBuildExecutor,
+        lazyIndexes);
+  }
+
+  /**
+   * Builds column indexes in parallel on a caller-supplied executor, one task per indexed column.
+   * Columns are independent and decoders read with absolute gets, so load-time index construction
+   * scales with the executor's threads. The loader never creates threads of its own; the load call
+   * still blocks until every index is built. By default (or with {@code null}) indexes are built
+   * sequentially on the loading thread.
+   *
+   * @param executor executor to run per-column index builds on, or null to build sequentially
+   * @return options with the given index build executor
+   */
+  public LoadOptions withIndexBuildExecutor(Executor executor) {
+    return new LoadOptions(
+        memoryMap, prewarmIndexes, comparisonIndexStride, offHeapIndexes, executor, lazyIndexes);
+  }
+
+  /**
+   * Returns the loaded ruleset before its indexes are built. Evaluation starts immediately,
+   * verifying conditions row by row for columns whose index is not ready, and each column switches
+   * to its index as soon as it is published - results are identical either way, only latency
+   * improves. With an {@link #withIndexBuildExecutor index build executor}, indexes are built in
+   * the background on it; otherwise each column is built by the first evaluation that needs it. Has
+   * no effect when {@link #withPrewarmIndexes prewarming} is disabled. Disabled by default.
+   *
+   * @param lazyIndexes whether to build indexes after the load returns
+   * @return options with the given index build timing
+   */
+  public LoadOptions withLazyIndexes(boolean lazyIndexes) {
+    return new LoadOptions(
+        memoryMap,
+        prewarmIndexes,
+        comparisonIndexStride,
+        offHeapIndexes,
+        indexBuildExecutor,
+        lazyIndexes);
   }
 
   public boolean isMemoryMap() {
@@ -29,4 +124,20 @@ public final class LoadOptions {
   public boolean isPrewarmIndexes() {
     return prewarmIndexes;
   }
+
+  public int comparisonIndexStride() {
+    return comparisonIndexStride;
+  }
+
+  public boolean isOffHeapIndexes() {
+    return offHeapIndexes;
+  }
+
+  public Optional<Executor> indexBuildExecutor() {
+    return Optional.ofNullable(indexBuildExecutor);
+  }
+
+  public boolean isLazyIndexes() {
+    return lazyIndexes;
+  }
 }
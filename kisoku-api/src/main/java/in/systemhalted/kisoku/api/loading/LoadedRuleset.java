@@ -1,19 +1,225 @@
 package in.systemhalted.kisoku.api.loading;
 
 import in.systemhalted.kisoku.api.RulesetMetadata;
+import in.systemhalted.kisoku.api.evaluation.Aggregation;
+import in.systemhalted.kisoku.api.evaluation.BatchResult;
+import in.systemhalted.kisoku.api.evaluation.BatchSink;
 import in.systemhalted.kisoku.api.evaluation.BulkResult;
 import in.systemhalted.kisoku.api.evaluation.DecisionInput;
 import in.systemhalted.kisoku.api.evaluation.DecisionOutput;
+import in.systemhalted.kisoku.api.evaluation.InputBinder;
+import in.systemhalted.kisoku.api.evaluation.OutputProjection;
+import in.systemhalted.kisoku.api.evaluation.PreparedInput;
+import in.systemhalted.kisoku.api.evaluation.RecordBatch;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
 
 /** Immutable ruleset instance ready for evaluation. */
 public interface LoadedRuleset extends AutoCloseable {
   DecisionOutput evaluate(DecisionInput input);
 
+  /**
+   * Evaluates like {@link #evaluate} but reports "no matching rule" as an empty result instead of
+   * throwing {@link in.systemhalted.kisoku.api.evaluation.EvaluationException}, so inputs that
+   * legitimately match nothing pay no exception cost.
+   *
+   * @param input the input to evaluate
+   * @return the winning rule's output, or empty if no rule matches
+   */
+  Optional<DecisionOutput> tryEvaluate(DecisionInput input);
+
+  /**
+   * Returns this ruleset's input binder, which maps input column names to {@link PreparedInput}
+   * slots. Resolve slots once and reuse one prepared input per thread to evaluate without per-call
+   * maps, boxing or string lookups.
+   *
+   * @return the input binder
+   */
+  InputBinder inputBinder();
+
+  /**
+   * Evaluates a prepared input; same semantics as {@link #evaluate(DecisionInput)}.
+   *
+   * @param input an input created by this ruleset's {@link #inputBinder()}
+   * @return the winning rule's output
+   * @throws IllegalArgumentException if the input was created by another ruleset
+   */
+  DecisionOutput evaluate(PreparedInput input);
+
+  /**
+   * Evaluates a prepared input; same semantics as {@link #tryEvaluate(DecisionInput)}.
+   *
+   * @param input an input created by this ruleset's {@link #inputBinder()}
+   * @return the winning rule's output, or empty if no rule matches
+   * @throws IllegalArgumentException if the input was created by another ruleset
+   */
+  Optional<DecisionOutput> tryEvaluate(PreparedInput input);
+
+  /**
+   * Prepares an output projection: evaluation methods that take it decode only these output
+   * columns, skipping the dictionary lookups of the rest. Prepare once and reuse.
+   *
+   * @param columns non-TEST_ output column names
+   * @return the projection
+   * @throws in.systemhalted.kisoku.api.evaluation.EvaluationException if a name is not an output
+   *     column
+   */
+  OutputProjection outputProjection(String... columns);
+
+  /**
+   * Like {@link #evaluate(DecisionInput)}, with only the projected output columns in the result.
+   *
+   * @param input the input to evaluate
+   * @param projection a projection from this ruleset's {@link #outputProjection}
+   * @return the winning rule's projected output
+   * @throws IllegalArgumentException if the projection was prepared by another ruleset
+   */
+  DecisionOutput evaluate(DecisionInput input, OutputProjection projection);
+
+  /**
+   * Like {@link #tryEvaluate(DecisionInput)}, with only the projected output columns in the result.
+   *
+   * @param input the input to evaluate
+   * @param projection a projection from this ruleset's {@link #outputProjection}
+   * @return the winning rule's projected output, or empty if no rule matches
+   * @throws IllegalArgumentException if the projection was prepared by another ruleset
+   */
+  Optional<DecisionOutput> tryEvaluate(DecisionInput input, OutputProjection projection);
+
+  /**
+   * Like {@link #evaluate(PreparedInput)}, with only the projected output columns in the result.
+   *
+   * @param input an input created by this ruleset's {@link #inputBinder()}
+   * @param projection a projection from this ruleset's {@link #outputProjection}
+   * @return the winning rule's projected output
+   * @throws IllegalArgumentException if the input or projection belongs to another ruleset
+   */
+  DecisionOutput evaluate(PreparedInput input, OutputProjection projection);
+
+  /**
+   * Like {@link #tryEvaluate(PreparedInput)}, with only the projected output columns in the result.
+   *
+   * @param input an input created by this ruleset's {@link #inputBinder()}
+   * @param projection a projection from this ruleset's {@link #outputProjection}
+   * @return the winning rule's projected output, or empty if no rule matches
+   * @throws IllegalArgumentException if the input or projection belongs to another ruleset
+   */
+  Optional<DecisionOutput> tryEvaluate(PreparedInput input, OutputProjection projection);
+
+  /**
+   * Returns the first {@code k} matching rules in evaluation order (the selection policy's order),
+   * found in a single pass over the candidate rows. Unlike {@link #evaluate}, no match is not an
+   * error.
+   *
+   * @param input the input to evaluate
+   * @param k maximum number of matches to return (at least 1)
+   * @return up to {@code k} matches, highest-ranked first; empty if no rule matches
+   */
+  List<DecisionOutput> evaluateTopK(DecisionInput input, int k);
+
+  /**
+   * Returns every matching rule in evaluation order (a COLLECT hit policy).
+   *
+   * @param input the input to evaluate
+   * @return all matches, highest-ranked first; empty if no rule matches
+   */
+  List<DecisionOutput> evaluateAll(DecisionInput input);
+
+  /**
+   * Aggregates a numeric output column over every matching rule in one pass, without building the
+   * individual outputs. Blank output cells are skipped.
+   *
+   * @param input the input to evaluate
+   * @param outputColumn an INTEGER or DECIMAL output column
+   * @param aggregation the aggregate to compute
+   * @return the aggregate; empty if no match has a value (COUNT is always present)
+   */
+  Optional<BigDecimal> aggregate(DecisionInput input, String outputColumn, Aggregation aggregation);
+
   BulkResult evaluateBulk(DecisionInput base, List<DecisionInput> variants);
 
+  /**
+   * Like {@link #evaluateBulk(DecisionInput, List)}, with only the projected output columns in each
+   * result.
+   *
+   * @param base the input shared by every variant
+   * @param variants per-variant overrides of the base
+   * @param projection a projection from this ruleset's {@link #outputProjection}
+   * @return one projected output per variant, in order
+   * @throws IllegalArgumentException if the projection was prepared by another ruleset
+   */
+  BulkResult evaluateBulk(
+      DecisionInput base, List<DecisionInput> variants, OutputProjection projection);
+
+  /**
+   * Evaluates every row of a columnar batch on the calling thread. Inputs are coerced column by
+   * column once, then each row is scored with the bulk kernel (most selective index first,
+   * exhaustive verification), giving the same winner as {@link #tryEvaluate(DecisionInput)} per
+   * row.
+   *
+   * @param batch the input rows
+   * @return the winning rule per row
+   * @throws in.systemhalted.kisoku.api.evaluation.EvaluationException if a column's array type does
+   *     not fit its input column
+   */
+  BatchResult evaluateBatch(RecordBatch batch);
+
+  /**
+   * Evaluates a columnar batch split into {@code parallelism} disjoint row ranges, one task each on
+   * a caller-owned executor, and waits for all of them. Results are identical to {@link
+   * #evaluateBatch(RecordBatch)}.
+   *
+   * @param batch the input rows
+   * @param executor executor that runs the row-range tasks
+   * @param parallelism number of row ranges (1 evaluates on the calling thread)
+   * @return the winning rule per row
+   * @throws IllegalArgumentException if {@code parallelism} is less than 1
+   * @throws in.systemhalted.kisoku.api.evaluation.EvaluationException if a column's array type does
+   *     not fit its input column
+   */
+  BatchResult evaluateBatch(RecordBatch batch, Executor executor, int parallelism);
+
+  /**
+   * Evaluates an unbounded sequence of inputs in fixed-size batches through the columnar bulk
+   * kernel, handing each batch's results to {@code sink} before pulling the next one. Peak memory
+   * is bounded by {@code batchSize}, not by the number of inputs.
+   *
+   * @param inputs the inputs, consumed in order
+   * @param batchSize number of inputs evaluated per batch
+   * @param sink receives each batch's inputs and results
+   * @throws IllegalArgumentException if {@code batchSize} is less than 1
+   */
+  void evaluateStream(Iterator<DecisionInput> inputs, int batchSize, BatchSink sink);
+
+  /**
+   * Lazily evaluates a stream of inputs: each time the returned stream needs a result past the
+   * current batch, the next {@code batchSize} inputs are pulled and evaluated together through the
+   * columnar bulk kernel. Closing the returned stream closes {@code inputs}.
+   *
+   * @param inputs the inputs
+   * @param batchSize number of inputs evaluated per batch
+   * @return one result per input, in order; empty where no rule matches
+   * @throws IllegalArgumentException if {@code batchSize} is less than 1
+   */
+  Stream<Optional<DecisionOutput>> evaluateStream(Stream<DecisionInput> inputs, int batchSize);
+
   RulesetMetadata metadata();
 
+  /**
+   * Time spent building each column index at load, keyed by indexed column name in column order.
+   * Indexes read from a persisted artifact section report only their (small) relocation cost. Empty
+   * when indexes were not built at load.
+   *
+   * @return per-column index build times
+   */
+  Map<String, Duration> indexBuildTimes();
+
   @Override
   void close();
 }
@@ -5,6 +5,7 @@ import in.systemhalted.kisoku.api.evaluation.RuleSelectionPolicy;
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -18,6 +19,7 @@ import java.util.List;
  * Column Definitions
  * Rule Data (columnar)
  * Rule Order Index
+ * Index Section (optional)
  * </pre>
  */
 final class BinaryArtifactWriter {
@@ -28,12 +30,23 @@ final class BinaryArtifactWriter {
 
   /**
    * Minor version 1 populates real per-column {@code data_offset} values in column definitions (1.0
-   * wrote 0 for every column). Backward compatible: 1.0 readers re-derive offsets by decoding
-   * columns sequentially and never read the field.
+   * wrote 0 for every column). Minor version 2 turns the reserved header short into flags and may
+   * append a persisted index section. Both are backward compatible: older readers never read the
+   * field or the trailing section.
    */
-  static final short VERSION_MINOR = 1;
+  static final short VERSION_MINOR = 2;
+
+  /** Header flag: a persisted index section follows the rule order index. */
+  static final int FLAG_PERSISTED_INDEXES = 0x0001;
+
+  /**
+   * Header flag: rows are physically stored in evaluation order, so the rule order index is the
+   * identity and the first matching row is the winner.
+   */
+  static final int FLAG_ROWS_IN_EVALUATION_ORDER = 0x0002;
 
   private static final int HEADER_SIZE = 32;
+  private static final int FLAGS_OFFSET = 10;
 
   /**
    * Writes the complete binary artifact.
@@ -46,11 +59,13 @@ final class BinaryArtifactWriter {
    * @param columnDefinitionsBytes serialized column definitions
    * @param ruleDataBytes columnar encoded rule data
    * @param ruleOrderBytes rule order index
+   * @param flags header flags
    * @return the complete binary artifact
    */
   byte[] write(
       ArtifactKind artifactKind,
       RuleSelectionPolicy ruleSelectionPolicy,
+      int flags,
       int columnCount,
       int rowCount,
       byte[] dictionaryBytes,
@@ -73,7 +88,7 @@ final class BinaryArtifactWriter {
       dos.writeShort(VERSION_MINOR); // 6-7: version_minor
       dos.writeByte(artifactKindOrdinal(artifactKind)); // 8: artifact_kind
       dos.writeByte(ruleSelectionOrdinal(ruleSelectionPolicy)); // 9: rule_selection
-      dos.writeShort(0); // 10-11: reserved
+      dos.writeShort(flags); // 10-11: flags
       dos.writeInt(columnCount); // 12-15: column_count
       dos.writeInt(rowCount); // 16-19: row_count
       dos.writeInt(dictionaryOffset); // 20-23: dictionary_offset
@@ -99,6 +114,23 @@ final class BinaryArtifactWriter {
     }
   }
 
+  /**
+   * Appends a persisted index section to a written artifact and sets its header flag.
+   *
+   * @param artifact the artifact produced by {@link #write}
+   * @param indexSection the encoded index section
+   * @return the artifact with the index section
+   */
+  static byte[] appendIndexSection(byte[] artifact, byte[] indexSection) {
+    byte[] result = Arrays.copyOf(artifact, artifact.length + indexSection.length);
+    System.arraycopy(indexSection, 0, result, artifact.length, indexSection.length);
+    int flags = ((result[FLAGS_OFFSET] & 0xFF) << 8 | (result[FLAGS_OFFSET + 1] & 0xFF));
+    flags |= FLAG_PERSISTED_INDEXES;
+    result[FLAGS_OFFSET] = (byte) (flags >>> 8);
+    result[FLAGS_OFFSET + 1] = (byte) flags;
+    return result;
+  }
+
   /**
    * Writes a single column definition.
    *
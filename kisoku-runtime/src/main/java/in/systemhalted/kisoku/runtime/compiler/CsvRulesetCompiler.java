@@ -14,6 +14,7 @@ import in.systemhalted.kisoku.api.compilation.RulesetCompiler;
 import in.systemhalted.kisoku.api.evaluation.RuleSelectionPolicy;
 import in.systemhalted.kisoku.runtime.csv.Operator;
 import in.systemhalted.kisoku.runtime.csv.StreamingCsvRowReader;
+import in.systemhalted.kisoku.runtime.loader.PersistedIndexes;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -88,7 +89,8 @@ public final class CsvRulesetCompiler implements RulesetCompiler {
     // Sort rows if using priority
     List<Integer> ruleOrder = buildRuleOrder(allRows, priorityIndex, hasPriority, ruleSelection);
 
-    // Reorder rows according to rule order
+    // Reorder rows according to rule order. Physical row i is then the i-th rule evaluated, so the
+    // stored rule order is the identity (the sorted source indices are not valid row numbers).
     List<String[]> orderedRows = new ArrayList<>();
     for (int idx : ruleOrder) {
       orderedRows.add(allRows.get(idx));
@@ -100,7 +102,7 @@ public final class CsvRulesetCompiler implements RulesetCompiler {
     byte[] columnDefinitionsBytes =
         encodeColumnDefinitions(columns, dictionary, ruleData.columnOffsets());
     byte[] ruleDataBytes = ruleData.bytes();
-    byte[] ruleOrderBytes = encodeRuleOrder(ruleOrder, hasPriority, ruleSelection);
+    byte[] ruleOrderBytes = encodeRuleOrder(orderedRows.size(), hasPriority, ruleSelection);
     byte[] dictionaryBytes = dictionary.serialize();
 
     // Build artifact
@@ -109,6 +111,7 @@ public final class CsvRulesetCompiler implements RulesetCompiler {
         writer.write(
             artifactKind,
             ruleSelection,
+            BinaryArtifactWriter.FLAG_ROWS_IN_EVALUATION_ORDER,
             columns.size(),
             orderedRows.size(),
             dictionaryBytes,
@@ -116,6 +119,13 @@ public final class CsvRulesetCompiler implements RulesetCompiler {
             ruleDataBytes,
             ruleOrderBytes);
 
+    // Optionally persist column indexes so loaders map them instead of rebuilding
+    if (options.persistIndexes()) {
+      artifactBytes =
+          BinaryArtifactWriter.appendIndexSection(
+              artifactBytes, PersistedIndexes.buildSection(artifactBytes));
+    }
+
     // Build metadata
     List<String> inputColumns = new ArrayList<>();
     List<String> outputColumns = new ArrayList<>();
@@ -363,14 +373,17 @@ public final class CsvRulesetCompiler implements RulesetCompiler {
     };
   }
 
-  private byte[] encodeRuleOrder(
-      List<Integer> ruleOrder, boolean hasPriority, RuleSelectionPolicy policy) {
+  private byte[] encodeRuleOrder(int rowCount, boolean hasPriority, RuleSelectionPolicy policy) {
     int orderType =
         (hasPriority
                 && (policy == RuleSelectionPolicy.PRIORITY || policy == RuleSelectionPolicy.AUTO))
             ? 1
             : 0;
-    return BinaryArtifactWriter.writeRuleOrderIndex(orderType, ruleOrder);
+    List<Integer> identity = new ArrayList<>(rowCount);
+    for (int row = 0; row < rowCount; row++) {
+      identity.add(row);
+    }
+    return BinaryArtifactWriter.writeRuleOrderIndex(orderType, identity);
   }
 
   /** Internal column metadata during compilation. */
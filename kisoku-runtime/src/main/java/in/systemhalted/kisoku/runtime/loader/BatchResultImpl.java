@@ -0,0 +1,94 @@
+package in.systemhalted.kisoku.runtime.loader;
+
+import in.systemhalted.kisoku.api.evaluation.BatchResult;
+import in.systemhalted.kisoku.api.evaluation.DecisionOutput;
+import in.systemhalted.kisoku.api.evaluation.OutputColumn;
+import in.systemhalted.kisoku.api.evaluation.OutputProjection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link BatchResult} over the bulk kernel's winning row per input ({@code -1} when unmatched).
+ * Outputs are decoded from the ruleset's columns on demand: per row, or per column for the whole
+ * batch (cached, so each requested column is read once).
+ */
+final class BatchResultImpl implements BatchResult {
+  private final int[] matchedRows; // Winning rule row per input row, -1 if none
+  private final LoadedRulesetImpl ruleset; // Decodes outputs from the ruleset's columns
+  private final Map<String, OutputColumn> decodedColumns = new ConcurrentHashMap<>();
+  private final int matchCount;
+
+  BatchResultImpl(int[] matchedRows, LoadedRulesetImpl ruleset) {
+    this.matchedRows = matchedRows;
+    this.ruleset = ruleset;
+    int matches = 0;
+    for (int rowIndex : matchedRows) {
+      if (rowIndex >= 0) {
+        matches++;
+      }
+    }
+    this.matchCount = matches;
+  }
+
+  @Override
+  public int size() {
+    return matchedRows.length;
+  }
+
+  @Override
+  public int matchCount() {
+    return matchCount;
+  }
+
+  @Override
+  public boolean isMatched(int row) {
+    return matchedRows[row] >= 0;
+  }
+
+  @Override
+  public Optional<DecisionOutput> output(int row) {
+    int rowIndex = matchedRows[row];
+    return rowIndex < 0 ? Optional.empty() : Optional.of(ruleset.buildOutput(rowIndex));
+  }
+
+  @Override
+  public Optional<DecisionOutput> output(int row, OutputProjection projection) {
+    int[] outputColumns = ruleset.projectedColumns(projection);
+    int rowIndex = matchedRows[row];
+    return rowIndex < 0
+        ? Optional.empty()
+        : Optional.of(ruleset.buildOutput(rowIndex, outputColumns));
+  }
+
+  @Override
+  public int[] matchedRows() {
+    int[] rows = new int[matchCount];
+    int next = 0;
+    for (int row = 0; row < matchedRows.length; row++) {
+      if (matchedRows[row] >= 0) {
+        rows[next++] = row;
+      }
+    }
+    return rows;
+  }
+
+  @Override
+  public List<String> outputColumnNames() {
+    return ruleset.outputColumnNames();
+  }
+
+  @Override
+  public OutputColumn outputColumn(String name) {
+    OutputColumn column = decodedColumns.get(name);
+    if (column == null) {
+      column = ruleset.decodeOutputColumn(name, matchedRows); // Throws for unknown columns
+      OutputColumn raced = decodedColumns.putIfAbsent(name, column);
+      if (raced != null) {
+        column = raced;
+      }
+    }
+    return column;
+  }
+}
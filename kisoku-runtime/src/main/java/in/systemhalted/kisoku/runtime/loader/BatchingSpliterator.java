@@ -0,0 +1,69 @@
+package in.systemhalted.kisoku.runtime.loader;
+
+import in.systemhalted.kisoku.api.evaluation.DecisionInput;
+import in.systemhalted.kisoku.api.evaluation.DecisionOutput;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Lazily pulls inputs in fixed-size batches, evaluates each batch with the bulk kernel, and hands
+ * the results out one at a time. Only the current batch's inputs and winning rows are held, so
+ * memory stays bounded by the batch size however long the source is. Sequential only.
+ *
+ * <p>A fresh kernel is taken for every batch, so a long stream starts using indexes that lazy
+ * loading publishes after it began.
+ */
+final class BatchingSpliterator extends Spliterators.AbstractSpliterator<Optional<DecisionOutput>> {
+  private final Iterator<DecisionInput> source;
+  private final Supplier<ColumnarBulkKernel> kernels;
+  private final IntFunction<DecisionOutput> outputBuilder;
+  private final List<DecisionInput> batch;
+  private final int batchSize;
+
+  private int[] matches = new int[0]; // Winning rows of the current batch, -1 if unmatched
+  private int next; // Next position in matches to hand out
+
+  BatchingSpliterator(
+      Iterator<DecisionInput> source,
+      Supplier<ColumnarBulkKernel> kernels,
+      IntFunction<DecisionOutput> outputBuilder,
+      int batchSize) {
+    super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+    this.source = source;
+    this.kernels = kernels;
+    this.outputBuilder = outputBuilder;
+    this.batch = new ArrayList<>(batchSize);
+    this.batchSize = batchSize;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super Optional<DecisionOutput>> action) {
+    if (next == matches.length && !evaluateNextBatch()) {
+      return false;
+    }
+    int rowIndex = matches[next++];
+    action.accept(rowIndex < 0 ? Optional.empty() : Optional.of(outputBuilder.apply(rowIndex)));
+    return true;
+  }
+
+  private boolean evaluateNextBatch() {
+    batch.clear();
+    while (batch.size() < batchSize && source.hasNext()) {
+      batch.add(source.next());
+    }
+    if (batch.isEmpty()) {
+      return false;
+    }
+    ColumnarBulkKernel kernel = kernels.get();
+    matches = kernel.match(kernel.encode(batch));
+    next = 0;
+    return true;
+  }
+}
@@ -5,6 +5,7 @@ import in.systemhalted.kisoku.api.ColumnType;
 import in.systemhalted.kisoku.api.evaluation.RuleSelectionPolicy;
 import in.systemhalted.kisoku.api.loading.LoadException;
 import in.systemhalted.kisoku.runtime.csv.Operator;
+import in.systemhalted.kisoku.runtime.loader.index.ColumnIndex;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.ArrayList;
@@ -22,7 +23,7 @@ import java.util.List;
  *   version_minor: 2 bytes
  *   artifact_kind: 1 byte
  *   rule_selection: 1 byte
- *   reserved: 2 bytes
+ *   flags: 2 bytes (0x0001 = persisted index section present, 0x0002 = rows in evaluation order)
  *   column_count: 4 bytes
  *   row_count: 4 bytes
  *   dictionary_offset: 4 bytes
@@ -33,6 +34,7 @@ import java.util.List;
  * Column Definitions (12 bytes each)
  * Rule Data (columnar)
  * Rule Order Index
+ * Index Section (optional, see PersistedIndexes)
  * </pre>
  */
 final class BinaryArtifactReader {
@@ -43,9 +45,17 @@ final class BinaryArtifactReader {
 
   /**
    * Highest minor version this reader understands. The reader accepts any minor version with a
-   * matching major (it only rejects on major mismatch), so 1.0 and 1.1 artifacts both load.
+   * matching major (it only rejects on major mismatch), so 1.0, 1.1 and 1.2 artifacts all load.
    */
-  static final short VERSION_MINOR = 1;
+  static final short VERSION_MINOR = 2;
+
+  /** Header flag: a persisted index section follows the rule order index (since 1.2). */
+  static final int FLAG_PERSISTED_INDEXES = 0x0001;
+
+  /**
+   * Header flag: physical row order is evaluation order, rule order is the identity (since 1.2).
+   */
+  static final int FLAG_ROWS_IN_EVALUATION_ORDER = 0x0002;
 
   static final int HEADER_SIZE = 32;
   static final int COLUMN_DEF_SIZE = 12;
@@ -62,6 +72,8 @@ final class BinaryArtifactReader {
   private final List<ColumnDefinition> columns;
   private final List<ColumnDecoder> decoders;
   private final int[] ruleOrder;
+  private final boolean rowsInEvaluationOrder;
+  private final int indexSectionOffset; // -1 when the artifact has no persisted indexes
 
   private BinaryArtifactReader(
       ByteBuffer buffer,
@@ -75,7 +87,9 @@ final class BinaryArtifactReader {
       StringDictionaryReader dictionary,
       List<ColumnDefinition> columns,
       List<ColumnDecoder> decoders,
-      int[] ruleOrder) {
+      int[] ruleOrder,
+      boolean rowsInEvaluationOrder,
+      int indexSectionOffset) {
     this.buffer = buffer;
     this.artifactKind = artifactKind;
     this.ruleSelection = ruleSelection;
@@ -88,6 +102,8 @@ final class BinaryArtifactReader {
     this.columns = columns;
     this.decoders = decoders;
     this.ruleOrder = ruleOrder;
+    this.rowsInEvaluationOrder = rowsInEvaluationOrder;
+    this.indexSectionOffset = indexSectionOffset;
   }
 
   /**
@@ -118,7 +134,7 @@ final class BinaryArtifactReader {
 
     int artifactKindOrdinal = buffer.get() & 0xFF;
     int ruleSelectionOrdinal = buffer.get() & 0xFF;
-    buffer.getShort(); // reserved
+    int flags = buffer.getShort() & 0xFFFF; // reserved (always 0) before 1.2
 
     int columnCount = buffer.getInt();
     int rowCount = buffer.getInt();
@@ -148,6 +164,12 @@ final class BinaryArtifactReader {
 
     // The rule order index immediately follows the rule-data section.
     int[] ruleOrder = readRuleOrder(buffer, dataSectionEnd, rowCount);
+    boolean rowsInEvaluationOrder =
+        (flags & FLAG_ROWS_IN_EVALUATION_ORDER) != 0 || isIdentity(ruleOrder);
+
+    // The optional index section follows the rule order index (order_type byte + indices).
+    int indexSectionOffset =
+        (flags & FLAG_PERSISTED_INDEXES) != 0 ? dataSectionEnd + 1 + rowCount * 4 : -1;
 
     return new BinaryArtifactReader(
         buffer,
@@ -161,7 +183,9 @@ final class BinaryArtifactReader {
         dictionary,
         columns,
         List.copyOf(decoders),
-        ruleOrder);
+        ruleOrder,
+        rowsInEvaluationOrder,
+        indexSectionOffset);
   }
 
   private static ColumnDecoder createDecoder(
@@ -237,6 +261,15 @@ final class BinaryArtifactReader {
     return order;
   }
 
+  private static boolean isIdentity(int[] order) {
+    for (int i = 0; i < order.length; i++) {
+      if (order[i] != i) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private static ArtifactKind artifactKindFromOrdinal(int ordinal) {
     return switch (ordinal) {
       case 0 -> ArtifactKind.PRODUCTION;
@@ -295,4 +328,30 @@ final class BinaryArtifactReader {
   int[] ruleOrder() {
     return ruleOrder;
   }
+
+  /**
+   * Whether row {@code i} is the {@code i}-th rule in evaluation order, so the lowest-numbered
+   * matching row wins. Set by the header flag, or detected from an identity rule order in artifacts
+   * written before the flag existed.
+   */
+  boolean rowsInEvaluationOrder() {
+    return rowsInEvaluationOrder;
+  }
+
+  boolean hasPersistedIndexes() {
+    return indexSectionOffset >= 0;
+  }
+
+  /**
+   * Decodes the persisted index section. Bitmaps are read in place from the artifact buffer.
+   *
+   * @return one index per column (null where not indexed)
+   * @throws IllegalStateException if the artifact has no persisted indexes
+   */
+  List<ColumnIndex> persistedIndexes() {
+    if (indexSectionOffset < 0) {
+      throw new IllegalStateException("Artifact has no persisted indexes");
+    }
+    return PersistedIndexes.read(buffer, indexSectionOffset);
+  }
 }
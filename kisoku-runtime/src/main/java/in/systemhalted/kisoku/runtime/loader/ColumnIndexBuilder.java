@@ -1,9 +1,11 @@
 package in.systemhalted.kisoku.runtime.loader;
 
+import in.systemhalted.kisoku.api.loading.LoadOptions;
 import in.systemhalted.kisoku.runtime.csv.Operator;
 import in.systemhalted.kisoku.runtime.loader.index.ColumnIndex;
 import in.systemhalted.kisoku.runtime.loader.index.ComparisonIndex;
 import in.systemhalted.kisoku.runtime.loader.index.EqualityIndex;
+import in.systemhalted.kisoku.runtime.loader.index.RangeIntervalIndex;
 import in.systemhalted.kisoku.runtime.loader.index.SetMembershipIndex;
 
 /**
@@ -12,12 +14,11 @@ import in.systemhalted.kisoku.runtime.loader.index.SetMembershipIndex;
  * <p>Supported operators:
  *
  * <ul>
- *   <li>EQ - via {@link EqualityIndex} (hash-based)
+ *   <li>EQ, NE - via {@link EqualityIndex} (hash-based, NE served by complement)
  *   <li>GT, GTE, LT, LTE - via {@link ComparisonIndex} (sorted array with binary search)
+ *   <li>BETWEEN_*, NOT_BETWEEN_* - via {@link RangeIntervalIndex} (endpoint-sorted segments)
  *   <li>IN, NOT_IN - via {@link SetMembershipIndex} (inverted index, blanks tracked separately)
  * </ul>
- *
- * <p>Future phases will add BETWEEN and other operators.
  */
 final class ColumnIndexBuilder {
   private ColumnIndexBuilder() {}
@@ -31,6 +32,28 @@ final class ColumnIndexBuilder {
    * @return the built index, or null if no index available for this operator
    */
   static ColumnIndex build(ColumnDecoder decoder, ColumnDefinition column, int rowCount) {
+    return build(decoder, column, rowCount, LoadOptions.onHeap());
+  }
+
+  /**
+   * Build an appropriate index for the given column using the index tuning in {@code options} (e.g.
+   * the comparison-index cumulative stride, off-heap storage), or null if indexing is not
+   * supported.
+   *
+   * @param decoder the column decoder
+   * @param column the column definition
+   * @param rowCount total number of rows
+   * @param options load options carrying index tuning
+   * @return the built index, or null if no index available for this operator
+   */
+  static ColumnIndex build(
+      ColumnDecoder decoder, ColumnDefinition column, int rowCount, LoadOptions options) {
+    ColumnIndex index = buildOnHeap(decoder, column, rowCount, options);
+    return index != null && options.isOffHeapIndexes() ? index.toDirect() : index;
+  }
+
+  private static ColumnIndex buildOnHeap(
+      ColumnDecoder decoder, ColumnDefinition column, int rowCount, LoadOptions options) {
     // Skip non-input columns (outputs, metadata)
     if (!column.isInput()) {
       return null;
@@ -46,18 +69,32 @@ final class ColumnIndexBuilder {
     return switch (decoder) {
       case ScalarColumnDecoder scalarDecoder ->
           switch (op) {
-            case EQ ->
+            case EQ, NE ->
                 EqualityIndex.build(
-                    scalarDecoder.values(), scalarDecoder.presenceBitmap(), rowCount);
+                    scalarDecoder.values(), scalarDecoder.presenceBitmap(), op, rowCount);
             case GT, GTE, LT, LTE ->
                 ComparisonIndex.build(
-                    scalarDecoder.values(), scalarDecoder.presenceBitmap(), op, rowCount);
-            case null, default ->
-
-                // Future phases will add:
-                // - RangeIntervalIndex for BETWEEN_*, NOT_BETWEEN_*
+                    scalarDecoder.values(),
+                    scalarDecoder.presenceBitmap(),
+                    op,
+                    rowCount,
+                    options.comparisonIndexStride());
+            case null, default -> null;
+          };
 
-                null;
+      case RangeColumnDecoder rangeDecoder ->
+          switch (op) {
+            case BETWEEN_INCLUSIVE,
+                    BETWEEN_EXCLUSIVE,
+                    NOT_BETWEEN_INCLUSIVE,
+                    NOT_BETWEEN_EXCLUSIVE ->
+                RangeIntervalIndex.build(
+                    rangeDecoder.minValues(),
+                    rangeDecoder.maxValues(),
+                    rangeDecoder.presenceBitmap(),
+                    op,
+                    rowCount);
+            case null, default -> null;
           };
 
       case SetMembershipColumnDecoder setMembershipColDecoder ->
@@ -0,0 +1,178 @@
+package in.systemhalted.kisoku.runtime.loader;
+
+import in.systemhalted.kisoku.runtime.loader.index.ColumnIndex;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+
+/**
+ * Per-column index slots of a loaded ruleset, each published atomically once its index is built.
+ *
+ * <p>Eager slots are filled before the ruleset is returned from the loader. Lazy slots start empty
+ * and are filled either by background tasks on a caller-supplied executor or, without one, by the
+ * first evaluation that touches the column. Evaluation treats an empty slot exactly like a
+ * non-indexed column (its condition is verified per candidate row), so results never depend on how
+ * far indexing has progressed - only the speed does.
+ *
+ * <p>Each slot moves PENDING -> BUILDING -> DONE. Claiming a slot is a CAS, so a column is built at
+ * most once; threads that lose the race do not wait for the winner. The index and its build time
+ * are written before the DONE state, so a reader that observes DONE also observes both.
+ */
+final class ColumnIndexSlots {
+  private static final int PENDING = 0;
+  private static final int BUILDING = 1;
+  private static final int DONE = 2;
+
+  private final List<String> columnNames;
+  private final IntFunction<ColumnIndex> builder; // Returns null for non-indexed columns
+  private final boolean buildOnFirstTouch;
+  private final AtomicReferenceArray<ColumnIndex> indexes;
+  private final AtomicIntegerArray states;
+  private final long[] buildNanos; // Published by the slot's DONE state
+
+  private ColumnIndexSlots(
+      List<String> columnNames, IntFunction<ColumnIndex> builder, boolean buildOnFirstTouch) {
+    this.columnNames = List.copyOf(columnNames);
+    this.builder = builder;
+    this.buildOnFirstTouch = buildOnFirstTouch;
+    this.indexes = new AtomicReferenceArray<>(columnNames.size());
+    this.states = new AtomicIntegerArray(columnNames.size());
+    this.buildNanos = new long[columnNames.size()];
+  }
+
+  /**
+   * Builds every column's index before returning, sequentially or on {@code executor}. A failure
+   * building any column is rethrown.
+   *
+   * @param columnNames column names, positional with the ruleset's columns
+   * @param builder builds the index of a column position, or returns null if it is not indexed
+   * @param executor executor for per-column builds, or null to build on the calling thread
+   * @return fully built slots
+   */
+  static ColumnIndexSlots eager(
+      List<String> columnNames, IntFunction<ColumnIndex> builder, Executor executor) {
+    ColumnIndexSlots slots = new ColumnIndexSlots(columnNames, builder, false);
+    if (executor == null) {
+      for (int column = 0; column < columnNames.size(); column++) {
+        slots.claimAndBuild(column, true);
+      }
+    } else {
+      slots.buildAllAndWait(executor);
+    }
+    return slots;
+  }
+
+  /**
+   * Returns empty slots that fill without blocking the caller: one background task per column on
+   * {@code executor}, or, if it is null, a build by the first evaluation touching each column. A
+   * column whose build fails stays unindexed.
+   *
+   * @param columnNames column names, positional with the ruleset's columns
+   * @param builder builds the index of a column position, or returns null if it is not indexed
+   * @param executor executor for background builds, or null to build on first touch
+   * @return slots that are published as their indexes become available
+   */
+  static ColumnIndexSlots lazy(
+      List<String> columnNames, IntFunction<ColumnIndex> builder, Executor executor) {
+    ColumnIndexSlots slots = new ColumnIndexSlots(columnNames, builder, executor == null);
+    if (executor != null) {
+      for (int column = 0; column < columnNames.size(); column++) {
+        int position = column;
+        executor.execute(() -> slots.claimAndBuild(position, false));
+      }
+    }
+    return slots;
+  }
+
+  /**
+   * Returns the published index of a column, or null if it is not indexed or not built yet. In
+   * first-touch mode, an unclaimed column is built on the calling thread first.
+   *
+   * @param column column position
+   * @return the column's index, or null
+   */
+  ColumnIndex get(int column) {
+    ColumnIndex index = indexes.get(column);
+    if (index == null && buildOnFirstTouch && states.get(column) == PENDING) {
+      claimAndBuild(column, false);
+      index = indexes.get(column);
+    }
+    return index;
+  }
+
+  /** Currently published indexes, positional with columns (null where not available). */
+  List<ColumnIndex> snapshot() {
+    List<ColumnIndex> snapshot = new ArrayList<>(indexes.length());
+    for (int column = 0; column < indexes.length(); column++) {
+      snapshot.add(indexes.get(column));
+    }
+    return Collections.unmodifiableList(snapshot);
+  }
+
+  /** Build time of every published index, keyed by column name in column order. */
+  Map<String, Duration> buildTimes() {
+    Map<String, Duration> times = new LinkedHashMap<>();
+    for (int column = 0; column < indexes.length(); column++) {
+      if (states.get(column) == DONE && indexes.get(column) != null) {
+        times.put(columnNames.get(column), Duration.ofNanos(buildNanos[column]));
+      }
+    }
+    return Collections.unmodifiableMap(times);
+  }
+
+  /** Submits one build task per column and waits for all of them. The first failure is rethrown. */
+  private void buildAllAndWait(Executor executor) {
+    CountDownLatch latch = new CountDownLatch(indexes.length());
+    AtomicReference<RuntimeException> failure = new AtomicReference<>();
+    for (int column = 0; column < indexes.length(); column++) {
+      int position = column;
+      executor.execute(
+          () -> {
+            try {
+              claimAndBuild(position, true);
+            } catch (RuntimeException e) {
+              failure.compareAndSet(null, e);
+            } finally {
+              latch.countDown();
+            }
+          });
+    }
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Index build interrupted", e);
+    }
+    RuntimeException e = failure.get();
+    if (e != null) {
+      throw e;
+    }
+  }
+
+  private void claimAndBuild(int column, boolean propagateFailure) {
+    if (!states.compareAndSet(column, PENDING, BUILDING)) {
+      return; // Built or being built by another thread
+    }
+    long start = System.nanoTime();
+    try {
+      indexes.set(column, builder.apply(column));
+    } catch (RuntimeException e) {
+      if (propagateFailure) {
+        throw e;
+      }
+      // Leave the column unindexed: evaluation stays correct, only slower.
+    } finally {
+      buildNanos[column] = System.nanoTime() - start;
+      states.set(column, DONE);
+    }
+  }
+}
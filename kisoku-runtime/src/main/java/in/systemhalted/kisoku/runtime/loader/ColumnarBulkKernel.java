@@ -1,13 +1,14 @@
 package in.systemhalted.kisoku.runtime.loader;
 
+import in.systemhalted.kisoku.api.ColumnType;
 import in.systemhalted.kisoku.api.evaluation.DecisionInput;
 import in.systemhalted.kisoku.api.evaluation.DecisionOutput;
+import in.systemhalted.kisoku.api.evaluation.EvaluationException;
+import in.systemhalted.kisoku.api.evaluation.RecordBatch;
 import in.systemhalted.kisoku.runtime.loader.index.CandidateBitmap;
 import in.systemhalted.kisoku.runtime.loader.index.ColumnIndex;
-import in.systemhalted.kisoku.runtime.loader.index.ComparisonIndex;
-import in.systemhalted.kisoku.runtime.loader.index.EqualityIndex;
-import in.systemhalted.kisoku.runtime.loader.index.SetMembershipIndex;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
@@ -18,11 +19,14 @@ import java.util.function.IntFunction;
  * High-throughput bulk evaluation kernel: scores a columnar batch of inputs against an immutable
  * ruleset (the throughput path of ADR-0010, scalar version).
  *
- * <p>Per input it intersects only the most selective indexed columns into a reusable candidate
- * bitmap (early-exiting once the set is small), then verifies survivors in priority order against
- * all input columns using {@link ColumnDecoder#matchesCoerced}. Results are byte-for-byte identical
- * to {@code LoadedRuleset.evaluate(DecisionInput)} (see {@code ColumnarBulkKernelParityTest}); the
- * selectivity pruning is a pure optimization because verification is exhaustive.
+ * <p>Per input it intersects the indexed columns into a reusable candidate bitmap, smallest
+ * candidate set for the looked-up values first (see {@link IntersectionPlan}). Once the set is
+ * small it switches to a sorted row list, which the remaining indexed columns filter with per-row
+ * {@link ColumnIndex#probe} calls instead of bitmap intersections, then verifies survivors in
+ * priority order against all input columns using {@link ColumnDecoder#matchesCoerced}. Results are
+ * byte-for-byte identical to {@code LoadedRuleset.evaluate(DecisionInput)} (see {@code
+ * ColumnarBulkKernelParityTest}); the selectivity pruning is a pure optimization because
+ * verification is exhaustive.
  *
  * <p>Unmatched rows yield {@code null} in the result array (bulk does not abort the batch the way
  * single-eval throws). The kernel holds only immutable ruleset state and per-call scratch, so it is
@@ -32,13 +36,15 @@ final class ColumnarBulkKernel {
 
   /**
    * Default: once the candidate set is this small, stop intersecting and let the priority-ordered
-   * verify finish — further bitmap ANDs cost more than checking a handful of survivors directly.
+   * verify finish over a sorted row list — further bitmap ANDs cost more than checking a handful of
+   * survivors directly. Shared with single-eval.
    */
-  private static final int DEFAULT_STOP_THRESHOLD = 32;
+  static final int DEFAULT_STOP_THRESHOLD = 32;
 
   private final List<ColumnDefinition> columns;
   private final List<ColumnDecoder> decoders;
   private final int[] ruleOrder;
+  private final boolean rowsInEvaluationOrder; // ruleOrder is the identity
   private final int[] inputColumnIndices; // slot -> column position
   private final List<ColumnIndex> columnIndexes; // positional with columns, may be null
   private final long[] allRowsBitmap; // may be null when indexing disabled
@@ -46,13 +52,15 @@ final class ColumnarBulkKernel {
   private final IntFunction<DecisionOutput> outputBuilder;
   private final int stopThreshold;
 
-  private final int[] intersectionOrder; // input slots that are indexed, most selective first
+  private final int[] indexedSlots; // input slots whose column is indexed, in slot order
+  private final int[] unindexedSlots; // input slots left to the decoders, in slot order
   private final int bitmapWords;
 
   ColumnarBulkKernel(
       List<ColumnDefinition> columns,
       List<ColumnDecoder> decoders,
       int[] ruleOrder,
+      boolean rowsInEvaluationOrder,
       int[] inputColumnIndices,
       List<ColumnIndex> columnIndexes,
       long[] allRowsBitmap,
@@ -62,6 +70,7 @@ final class ColumnarBulkKernel {
         columns,
         decoders,
         ruleOrder,
+        rowsInEvaluationOrder,
         inputColumnIndices,
         columnIndexes,
         allRowsBitmap,
@@ -74,6 +83,7 @@ final class ColumnarBulkKernel {
       List<ColumnDefinition> columns,
       List<ColumnDecoder> decoders,
       int[] ruleOrder,
+      boolean rowsInEvaluationOrder,
       int[] inputColumnIndices,
       List<ColumnIndex> columnIndexes,
       long[] allRowsBitmap,
@@ -83,6 +93,7 @@ final class ColumnarBulkKernel {
     this.columns = columns;
     this.decoders = decoders;
     this.ruleOrder = ruleOrder;
+    this.rowsInEvaluationOrder = rowsInEvaluationOrder;
     this.inputColumnIndices = inputColumnIndices;
     this.columnIndexes = columnIndexes;
     this.allRowsBitmap = allRowsBitmap;
@@ -90,7 +101,8 @@ final class ColumnarBulkKernel {
     this.outputBuilder = outputBuilder;
     this.stopThreshold = stopThreshold;
     this.bitmapWords = CandidateBitmap.longCount(ruleOrder.length);
-    this.intersectionOrder = buildIntersectionOrder();
+    this.indexedSlots = findSlots(true);
+    this.unindexedSlots = findSlots(false);
   }
 
   /**
@@ -103,6 +115,7 @@ final class ColumnarBulkKernel {
         columns,
         decoders,
         ruleOrder,
+        rowsInEvaluationOrder,
         inputColumnIndices,
         columnIndexes,
         allRowsBitmap,
@@ -111,37 +124,31 @@ final class ColumnarBulkKernel {
         threshold);
   }
 
-  /** Selects indexed input slots and orders them by descending selectivity. */
-  private int[] buildIntersectionOrder() {
-    if (columnIndexes == null) {
-      return new int[0];
-    }
+  /**
+   * Selects the input slots whose column is indexed (to intersect) or not indexed (left to the
+   * decoders). Test-only slots are in neither set: verification skips them, so intersecting them
+   * could only drop rows the verify would accept. The indexed slots are ordered per input by {@link
+   * IntersectionPlan}.
+   */
+  private int[] findSlots(boolean indexed) {
     List<Integer> slots = new ArrayList<>();
     for (int k = 0; k < inputColumnIndices.length; k++) {
-      if (columnIndexes.get(inputColumnIndices[k]) != null) {
+      int colIdx = inputColumnIndices[k];
+      boolean hasIndex = columnIndexes != null && columnIndexes.get(colIdx) != null;
+      if (hasIndex == indexed && !columns.get(colIdx).isTestOnly()) {
         slots.add(k);
       }
     }
-    slots.sort((a, b) -> Integer.compare(selectivity(b), selectivity(a)));
-    int[] order = new int[slots.size()];
-    for (int i = 0; i < order.length; i++) {
-      order[i] = slots.get(i);
+    int[] selected = new int[slots.size()];
+    for (int i = 0; i < selected.length; i++) {
+      selected[i] = slots.get(i);
     }
-    return order;
+    return selected;
   }
 
-  private int selectivity(int slot) {
-    ColumnIndex index = columnIndexes.get(inputColumnIndices[slot]);
-    if (index instanceof EqualityIndex e) {
-      return e.uniqueValueCount();
-    }
-    if (index instanceof SetMembershipIndex s) {
-      return s.uniqueValueCount();
-    }
-    if (index instanceof ComparisonIndex c) {
-      return c.uniqueValueCount();
-    }
-    return 0;
+  /** Number of input columns this kernel intersects through an index. */
+  int indexedSlotCount() {
+    return indexedSlots.length;
   }
 
   /** Encodes raw inputs into a columnar batch of pre-coerced codes (the in-memory input source). */
@@ -160,26 +167,100 @@ final class ColumnarBulkKernel {
     return new InputBatch(codes, rows);
   }
 
+  /**
+   * Encodes a public columnar batch into pre-coerced codes, one input column at a time. Primitive
+   * arrays are read without boxing; object arrays go through {@link TypeCoercion#toComparableInt}.
+   * Columns the batch does not supply stay {@code NULL_ID}.
+   */
+  InputBatch encode(RecordBatch batch) {
+    int rows = batch.rowCount();
+    int slots = inputColumnIndices.length;
+    int[][] codes = new int[slots][];
+    for (int k = 0; k < slots; k++) {
+      ColumnDefinition col = columns.get(inputColumnIndices[k]);
+      Object values = batch.values(col.name());
+      codes[k] =
+          switch (values) {
+            case null -> new int[rows];
+            case int[] ints -> {
+              if (col.type() != ColumnType.INTEGER && col.type() != ColumnType.DATE) {
+                throw typeMismatch(col, "int[]");
+              }
+              yield maskNulls(ints.clone(), batch.nullMask(col.name()));
+            }
+            case boolean[] booleans -> {
+              if (col.type() != ColumnType.BOOLEAN) {
+                throw typeMismatch(col, "boolean[]");
+              }
+              int[] column = new int[rows];
+              for (int row = 0; row < rows; row++) {
+                column[row] = booleans[row] ? 1 : 0;
+              }
+              yield maskNulls(column, batch.nullMask(col.name()));
+            }
+            case Object[] objects -> {
+              int[] column = new int[rows];
+              for (int row = 0; row < rows; row++) {
+                column[row] = TypeCoercion.toComparableInt(objects[row], col.type(), dictionary);
+              }
+              yield column;
+            }
+            default -> throw typeMismatch(col, values.getClass().getSimpleName());
+          };
+    }
+    return new InputBatch(codes, rows);
+  }
+
+  private static int[] maskNulls(int[] column, BitSet nullMask) {
+    for (int row = nullMask.nextSetBit(0);
+        row >= 0 && row < column.length;
+        row = nullMask.nextSetBit(row + 1)) {
+      column[row] = StringDictionaryReader.NULL_ID;
+    }
+    return column;
+  }
+
+  private static EvaluationException typeMismatch(ColumnDefinition col, String arrayType) {
+    return new EvaluationException(
+        "Cannot read " + arrayType + " as " + col.type() + " input column " + col.name());
+  }
+
   /** Sequentially evaluates every row in the batch. */
   DecisionOutput[] evaluate(InputBatch batch) {
-    DecisionOutput[] results = new DecisionOutput[batch.rowCount()];
+    return toOutputs(match(batch));
+  }
+
+  /**
+   * Evaluates the batch across the caller-supplied executor; see {@link #match(InputBatch,
+   * Executor, int)}.
+   */
+  DecisionOutput[] evaluate(InputBatch batch, Executor executor, int parallelism) {
+    return toOutputs(match(batch, executor, parallelism));
+  }
+
+  /** Sequentially finds the winning rule row of every input row ({@code -1} if none). */
+  int[] match(InputBatch batch) {
+    int[] matches = new int[batch.rowCount()];
     long[] scratch = allRowsBitmap != null ? new long[bitmapWords] : null;
-    for (int row = 0; row < results.length; row++) {
-      results[row] = evaluateRow(batch, row, scratch);
+    int[] sparse = new int[stopThreshold];
+    IntersectionPlan plan = new IntersectionPlan(inputColumnIndices.length);
+    for (int row = 0; row < matches.length; row++) {
+      matches[row] = matchRow(batch, row, scratch, sparse, plan);
     }
-    return results;
+    return matches;
   }
 
   /**
-   * Evaluates the batch across the caller-supplied executor by partitioning rows into disjoint
-   * chunks, each with its own scratch bitmap, writing into disjoint slices of the result array.
+   * Finds winning rule rows across the caller-supplied executor by partitioning input rows into
+   * disjoint chunks, each with its own scratch bitmap, writing into disjoint slices of the result
+   * array.
    */
-  DecisionOutput[] evaluate(InputBatch batch, Executor executor, int parallelism) {
+  int[] match(InputBatch batch, Executor executor, int parallelism) {
     int rows = batch.rowCount();
     if (parallelism <= 1 || rows <= 1) {
-      return evaluate(batch);
+      return match(batch);
     }
-    DecisionOutput[] results = new DecisionOutput[rows];
+    int[] matches = new int[rows];
     int chunks = Math.min(parallelism, rows);
     int chunkSize = (rows + chunks - 1) / chunks;
 
@@ -192,8 +273,10 @@ final class ColumnarBulkKernel {
           () -> {
             try {
               long[] scratch = allRowsBitmap != null ? new long[bitmapWords] : null;
+              int[] sparse = new int[stopThreshold];
+              IntersectionPlan plan = new IntersectionPlan(inputColumnIndices.length);
               for (int row = start; row < end; row++) {
-                results[row] = evaluateRow(batch, row, scratch);
+                matches[row] = matchRow(batch, row, scratch, sparse, plan);
               }
             } catch (RuntimeException e) {
               failure.compareAndSet(null, e);
@@ -212,39 +295,106 @@ final class ColumnarBulkKernel {
     if (e != null) {
       throw e;
     }
+    return matches;
+  }
+
+  private DecisionOutput[] toOutputs(int[] matches) {
+    DecisionOutput[] results = new DecisionOutput[matches.length];
+    for (int row = 0; row < matches.length; row++) {
+      results[row] = matches[row] < 0 ? null : outputBuilder.apply(matches[row]);
+    }
     return results;
   }
 
-  /** Returns the output for a single row, or {@code null} if no rule matches. */
-  private DecisionOutput evaluateRow(InputBatch batch, int row, long[] scratch) {
-    if (allRowsBitmap == null || intersectionOrder.length == 0) {
+  /**
+   * Returns the winning rule row for a single input row, or {@code -1} if no rule matches.
+   *
+   * @param scratch dense candidate bitmap, overwritten
+   * @param sparse row list for at most {@link #stopThreshold} candidates, overwritten
+   * @param plan intersection order scratch, overwritten
+   */
+  private int matchRow(
+      InputBatch batch, int row, long[] scratch, int[] sparse, IntersectionPlan plan) {
+    if (allRowsBitmap == null || indexedSlots.length == 0) {
       // No usable indexes: verify all rules in priority order.
       for (int rowIndex : ruleOrder) {
         if (matchesAllInputs(batch, row, rowIndex)) {
-          return outputBuilder.apply(rowIndex);
+          return rowIndex;
         }
       }
-      return null;
+      return -1;
+    }
+
+    // Smallest candidate set first, judged on this input's looked-up values
+    plan.clear();
+    for (int slot : indexedSlots) {
+      plan.add(slot, columnIndexes.get(inputColumnIndices[slot]), batch.code(slot, row));
+    }
+    if (plan.hasEmptyStep()) {
+      return -1;
     }
 
+    // Live window [fromWord, toWord): every candidate lies in it and every word outside is zero.
+    // Intersections only clear bits, so the window only shrinks; each step ANDs just the chunks it
+    // overlaps, and one pass over it counts the survivors (zero count = empty).
     System.arraycopy(allRowsBitmap, 0, scratch, 0, scratch.length);
-    for (int slot : intersectionOrder) {
-      ColumnIndex index = columnIndexes.get(inputColumnIndices[slot]);
-      CandidateBitmap.andInPlace(scratch, index.getCandidates(batch.code(slot, row)));
-      if (CandidateBitmap.isEmpty(scratch)) {
-        return null;
+    int fromWord = 0;
+    int toWord = scratch.length;
+    int count = Integer.MAX_VALUE;
+    int next = 0;
+    while (next < plan.size()) {
+      int slot = plan.slot(next);
+      plan.index(next++).intersectInto(scratch, batch.code(slot, row), fromWord, toWord);
+      fromWord = CandidateBitmap.firstNonZeroWord(scratch, fromWord, toWord);
+      if (fromWord == toWord) {
+        return -1;
       }
-      if (CandidateBitmap.cardinality(scratch) <= stopThreshold) {
+      toWord = CandidateBitmap.lastNonZeroWord(scratch, fromWord, toWord) + 1;
+      count = CandidateBitmap.cardinality(scratch, fromWord, toWord);
+      if (count <= stopThreshold) {
         break;
       }
     }
 
+    if (rowsInEvaluationOrder && count <= stopThreshold) {
+      // Sparse mode: the remaining indexed columns probe the listed rows instead of ANDing bitmaps.
+      // Every indexed column has now filtered exactly, so only the unindexed ones are verified.
+      int n = CandidateBitmap.toRows(scratch, fromWord, toWord, sparse);
+      for (; next < plan.size() && n > 0; next++) {
+        n = plan.index(next).retainProbed(sparse, n, batch.code(plan.slot(next), row));
+      }
+      for (int i = 0; i < n; i++) {
+        if (matchesUnindexedInputs(batch, row, sparse[i])) {
+          return sparse[i];
+        }
+      }
+      return -1;
+    }
+    if (rowsInEvaluationOrder) {
+      for (int rowIndex = CandidateBitmap.nextSetBit(scratch, fromWord * 64, toWord);
+          rowIndex >= 0;
+          rowIndex = CandidateBitmap.nextSetBit(scratch, rowIndex + 1, toWord)) {
+        if (matchesAllInputs(batch, row, rowIndex)) {
+          return rowIndex;
+        }
+      }
+      return -1;
+    }
     for (int rowIndex : ruleOrder) {
       if (CandidateBitmap.isSet(scratch, rowIndex) && matchesAllInputs(batch, row, rowIndex)) {
-        return outputBuilder.apply(rowIndex);
+        return rowIndex;
       }
     }
-    return null;
+    return -1;
+  }
+
+  private boolean matchesUnindexedInputs(InputBatch batch, int row, int rowIndex) {
+    for (int k : unindexedSlots) {
+      if (!decoders.get(inputColumnIndices[k]).matchesCoerced(rowIndex, batch.code(k, row))) {
+        return false;
+      }
+    }
+    return true;
   }
 
   private boolean matchesAllInputs(InputBatch batch, int row, int rowIndex) {
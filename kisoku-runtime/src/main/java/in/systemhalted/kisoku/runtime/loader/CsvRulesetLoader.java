@@ -7,6 +7,7 @@ import in.systemhalted.kisoku.api.loading.LoadedRuleset;
 import in.systemhalted.kisoku.api.loading.RulesetLoader;
 import in.systemhalted.kisoku.runtime.csv.Operator;
 import in.systemhalted.kisoku.runtime.loader.index.ColumnIndex;
+import in.systemhalted.kisoku.runtime.loader.index.ComparisonIndex;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
@@ -15,6 +16,8 @@ import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.IntFunction;
 
 /**
  * Loads compiled decision table artifacts into memory for evaluation.
@@ -27,7 +30,11 @@ import java.util.List;
  * </ul>
  *
  * <p>When {@code prewarmIndexes} is enabled, builds column indexes at load time for faster
- * evaluation.
+ * evaluation. Artifacts compiled with persisted indexes skip the build: their indexes are decoded
+ * in place from the artifact buffer. Indexes are built column by column on the loading thread, or
+ * concurrently on the executor supplied through {@link LoadOptions#withIndexBuildExecutor}. With
+ * {@link LoadOptions#withLazyIndexes} the ruleset is returned before any index is built and starts
+ * serving immediately, picking up each index once it is published (see {@link ColumnIndexSlots}).
  */
 public final class CsvRulesetLoader implements RulesetLoader {
 
@@ -70,16 +77,14 @@ public final class CsvRulesetLoader implements RulesetLoader {
     BinaryArtifactReader reader = BinaryArtifactReader.read(buffer);
 
     StringDictionaryReader dictionary = reader.dictionary();
-    List<ColumnIndex> indexes = null;
-    if (options.isPrewarmIndexes()) {
-      indexes = buildIndexes(reader.columns(), reader.decoders(), reader.rowCount());
-    }
+    ColumnIndexSlots indexes = options.isPrewarmIndexes() ? buildIndexes(reader, options) : null;
 
     return new LoadedRulesetImpl(
         buildMetadata(reader),
         reader.columns(),
         reader.decoders(),
         reader.ruleOrder(),
+        reader.rowsInEvaluationOrder(),
         buffer.isDirect() ? buffer : null,
         resource,
         indexes,
@@ -113,16 +118,14 @@ public final class CsvRulesetLoader implements RulesetLoader {
     // The dictionary is always needed (e.g. to coerce string inputs in the bulk kernel),
     // independent of index prewarming.
     StringDictionaryReader dictionary = reader.dictionary();
-    List<ColumnIndex> indexes = null;
-    if (options.isPrewarmIndexes()) {
-      indexes = buildIndexes(reader.columns(), reader.decoders(), reader.rowCount());
-    }
+    ColumnIndexSlots indexes = options.isPrewarmIndexes() ? buildIndexes(reader, options) : null;
 
     return new LoadedRulesetImpl(
         compiled.metadata(),
         reader.columns(),
         reader.decoders(),
         reader.ruleOrder(),
+        reader.rowsInEvaluationOrder(),
         null, // No direct buffer to clean up
         indexes,
         dictionary);
@@ -142,38 +145,57 @@ public final class CsvRulesetLoader implements RulesetLoader {
     // The dictionary is always needed (e.g. to coerce string inputs in the bulk kernel),
     // independent of index prewarming.
     StringDictionaryReader dictionary = reader.dictionary();
-    List<ColumnIndex> indexes = null;
-    if (options.isPrewarmIndexes()) {
-      indexes = buildIndexes(reader.columns(), reader.decoders(), reader.rowCount());
-    }
+    ColumnIndexSlots indexes = options.isPrewarmIndexes() ? buildIndexes(reader, options) : null;
 
     return new LoadedRulesetImpl(
         compiled.metadata(),
         reader.columns(),
         reader.decoders(),
         reader.ruleOrder(),
+        reader.rowsInEvaluationOrder(),
         direct, // Keep reference for potential cleanup
         indexes,
         dictionary);
   }
 
   /**
-   * Build column indexes for all indexable columns.
+   * Prepare column indexes for all indexable columns, reusing the artifact's persisted indexes when
+   * present. Eager loads build every index before returning (on the options' index build executor
+   * when one is supplied, otherwise sequentially); lazy loads return immediately and publish each
+   * index as it is built in the background or on first use.
    *
-   * @param columns column definitions
-   * @param decoders column decoders
-   * @param rowCount total number of rows
-   * @return list of indexes (same size as columns, null for non-indexed columns)
+   * @param reader the parsed artifact
+   * @param options load options carrying index tuning
+   * @return index slots positional with columns
    */
-  private List<ColumnIndex> buildIndexes(
-      List<ColumnDefinition> columns, List<ColumnDecoder> decoders, int rowCount) {
-    List<ColumnIndex> indexes = new ArrayList<>(columns.size());
+  private ColumnIndexSlots buildIndexes(BinaryArtifactReader reader, LoadOptions options) {
+    List<ColumnIndex> persisted = reader.hasPersistedIndexes() ? reader.persistedIndexes() : null;
+    List<String> columnNames = reader.columns().stream().map(ColumnDefinition::name).toList();
+    IntFunction<ColumnIndex> builder = column -> buildIndex(reader, persisted, options, column);
+    Executor executor = options.indexBuildExecutor().orElse(null);
+
+    return options.isLazyIndexes()
+        ? ColumnIndexSlots.lazy(columnNames, builder, executor)
+        : ColumnIndexSlots.eager(columnNames, builder, executor);
+  }
 
-    for (int i = 0; i < columns.size(); i++) {
-      ColumnIndex index = ColumnIndexBuilder.build(decoders.get(i), columns.get(i), rowCount);
-      indexes.add(index); // May be null for non-indexed columns
+  /** Builds (or reuses the persisted) index for one column, or returns null if not indexed. */
+  private static ColumnIndex buildIndex(
+      BinaryArtifactReader reader, List<ColumnIndex> persisted, LoadOptions options, int column) {
+    ColumnIndex index = persisted != null ? persisted.get(column) : null;
+    if (index == null || !matchesTuning(index, options)) {
+      return ColumnIndexBuilder.build(
+          reader.decoders().get(column), reader.columns().get(column), reader.rowCount(), options);
+    }
+    if (options.isOffHeapIndexes() && !reader.buffer().isDirect()) {
+      return index.toDirect();
     }
+    return index;
+  }
 
-    return indexes;
+  /** Whether a persisted index was built with the tuning these load options ask for. */
+  private static boolean matchesTuning(ColumnIndex index, LoadOptions options) {
+    return !(index instanceof ComparisonIndex comparison)
+        || comparison.cumulativeStride() == options.comparisonIndexStride();
   }
 }
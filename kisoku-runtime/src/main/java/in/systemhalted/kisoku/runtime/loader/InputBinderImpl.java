@@ -0,0 +1,71 @@
+package in.systemhalted.kisoku.runtime.loader;
+
+import in.systemhalted.kisoku.api.ColumnType;
+import in.systemhalted.kisoku.api.evaluation.InputBinder;
+import in.systemhalted.kisoku.api.evaluation.PreparedInput;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Input binder for one loaded ruleset. Slot {@code k} is the ruleset's {@code k}-th input column,
+ * the same numbering the columnar bulk kernel uses for its input batches.
+ */
+final class InputBinderImpl implements InputBinder {
+  private final List<String> columns;
+  private final ColumnType[] types;
+  private final StringDictionaryReader dictionary;
+  private final Map<String, Integer> slots;
+
+  InputBinderImpl(List<String> columns, ColumnType[] types, StringDictionaryReader dictionary) {
+    this.columns = List.copyOf(columns);
+    this.types = types.clone();
+    this.dictionary = dictionary;
+    this.slots = new HashMap<>();
+    for (int slot = 0; slot < columns.size(); slot++) {
+      slots.put(columns.get(slot), slot);
+    }
+  }
+
+  @Override
+  public int slot(String column) {
+    Integer slot = slots.get(column);
+    if (slot == null) {
+      throw new IllegalArgumentException("Unknown input column: " + column);
+    }
+    return slot;
+  }
+
+  /**
+   * Returns the slot of an input column, or -1 if the ruleset has no such input column.
+   *
+   * @param column column name
+   * @return the slot, or -1
+   */
+  int slotOrNegative(String column) {
+    Integer slot = slots.get(column);
+    return slot == null ? -1 : slot;
+  }
+
+  @Override
+  public List<String> columns() {
+    return columns;
+  }
+
+  @Override
+  public PreparedInput newInput() {
+    return new PreparedInputImpl(this, columns, types, dictionary);
+  }
+
+  /**
+   * Returns the coerced codes of an input created by this binder.
+   *
+   * @throws IllegalArgumentException if the input belongs to another ruleset
+   */
+  int[] codesOf(PreparedInput input) {
+    if (!(input instanceof PreparedInputImpl prepared) || !prepared.isBoundTo(this)) {
+      throw new IllegalArgumentException("PreparedInput was not created by this ruleset's binder");
+    }
+    return prepared.codes();
+  }
+}
@@ -0,0 +1,99 @@
+package in.systemhalted.kisoku.runtime.loader;
+
+import in.systemhalted.kisoku.runtime.loader.index.ColumnIndex;
+
+/**
+ * Per-input order in which to intersect the indexed columns, shared by single-eval and {@link
+ * ColumnarBulkKernel}.
+ *
+ * <p>Each indexed input is ranked by {@link ColumnIndex#candidateCount} for the value actually
+ * looked up, so the smallest candidate set is intersected first and the set reaches the sparse stop
+ * threshold in as few full-width ANDs as possible. Counts come from per-value cardinalities stored
+ * at index build time, so planning costs a lookup per column and allocates nothing. A column-wide
+ * estimate such as the distinct-value count misjudges mostly-blank columns and inverted operators
+ * (NE, NOT_IN, NOT_BETWEEN), where a rare value selects almost every row.
+ *
+ * <p>Instances are reusable scratch: {@link #clear} then {@link #add} each indexed input. Not
+ * thread-safe; callers keep one per thread or per chunk.
+ */
+final class IntersectionPlan {
+  private final int[] slots;
+  private final ColumnIndex[] indexes;
+  private final int[] counts;
+  private final boolean[] planned; // by slot
+  private int size;
+
+  /**
+   * Creates an empty plan.
+   *
+   * @param capacity maximum number of inputs (the ruleset's input column count)
+   */
+  IntersectionPlan(int capacity) {
+    this.slots = new int[capacity];
+    this.indexes = new ColumnIndex[capacity];
+    this.counts = new int[capacity];
+    this.planned = new boolean[capacity];
+  }
+
+  /** Empties the plan for the next input. */
+  void clear() {
+    for (int i = 0; i < size; i++) {
+      planned[slots[i]] = false;
+    }
+    size = 0;
+  }
+
+  /**
+   * Adds an indexed input, keeping the plan sorted by ascending candidate count (inputs with equal
+   * counts stay in the order they were added).
+   *
+   * @param slot input slot, below the capacity
+   * @param index the slot's column index
+   * @param inputValue the slot's coerced input value
+   */
+  void add(int slot, ColumnIndex index, int inputValue) {
+    int count = index.candidateCount(inputValue);
+    planned[slot] = true;
+    int i = size++;
+    while (i > 0 && counts[i - 1] > count) {
+      slots[i] = slots[i - 1];
+      indexes[i] = indexes[i - 1];
+      counts[i] = counts[i - 1];
+      i--;
+    }
+    slots[i] = slot;
+    indexes[i] = index;
+    counts[i] = count;
+  }
+
+  /** Number of planned inputs. */
+  int size() {
+    return size;
+  }
+
+  /** Input slot of the {@code i}-th step. */
+  int slot(int i) {
+    return slots[i];
+  }
+
+  /**
+   * Whether the input slot is a step of this plan. Once every step has filtered the candidates,
+   * only the slots not covered still need verifying.
+   */
+  boolean covers(int slot) {
+    return planned[slot];
+  }
+
+  /** Column index of the {@code i}-th step. */
+  ColumnIndex index(int i) {
+    return indexes[i];
+  }
+
+  /**
+   * Whether some planned input has no candidate rows at all, in which case no rule can match and no
+   * intersection is needed.
+   */
+  boolean hasEmptyStep() {
+    return size > 0 && counts[0] == 0;
+  }
+}
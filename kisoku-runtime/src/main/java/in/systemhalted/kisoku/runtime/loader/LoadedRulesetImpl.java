@@ -1,20 +1,38 @@
 package in.systemhalted.kisoku.runtime.loader;
 
+import in.systemhalted.kisoku.api.ColumnType;
 import in.systemhalted.kisoku.api.RulesetMetadata;
+import in.systemhalted.kisoku.api.evaluation.Aggregation;
+import in.systemhalted.kisoku.api.evaluation.BatchResult;
+import in.systemhalted.kisoku.api.evaluation.BatchSink;
 import in.systemhalted.kisoku.api.evaluation.BulkResult;
 import in.systemhalted.kisoku.api.evaluation.DecisionInput;
 import in.systemhalted.kisoku.api.evaluation.DecisionOutput;
 import in.systemhalted.kisoku.api.evaluation.EvaluationException;
+import in.systemhalted.kisoku.api.evaluation.InputBinder;
+import in.systemhalted.kisoku.api.evaluation.OutputColumn;
+import in.systemhalted.kisoku.api.evaluation.OutputProjection;
+import in.systemhalted.kisoku.api.evaluation.PreparedInput;
+import in.systemhalted.kisoku.api.evaluation.RecordBatch;
 import in.systemhalted.kisoku.api.loading.LoadedRuleset;
 import in.systemhalted.kisoku.runtime.csv.Operator;
 import in.systemhalted.kisoku.runtime.loader.index.CandidateBitmap;
 import in.systemhalted.kisoku.runtime.loader.index.ColumnIndex;
+import java.math.BigDecimal;
 import java.nio.ByteBuffer;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Immutable, thread-safe implementation of LoadedRuleset for evaluation.
@@ -26,6 +44,7 @@ final class LoadedRulesetImpl implements LoadedRuleset {
   private final List<ColumnDefinition> columns;
   private final List<ColumnDecoder> decoders;
   private final int[] ruleOrder;
+  private final boolean rowsInEvaluationOrder; // ruleOrder is the identity
   private final ByteBuffer directBuffer; // For cleanup if memory-mapped
   private final AutoCloseable resource; // Backing file channel for mapped loads, or null
 
@@ -35,19 +54,36 @@ final class LoadedRulesetImpl implements LoadedRuleset {
   private final int ruleIdColumnIndex;
 
   // Indexed evaluation support
-  private final List<ColumnIndex> columnIndexes; // May be null if indexing disabled
+  private final ColumnIndexSlots columnIndexes; // May be null if indexing disabled
   private final long[] allRowsBitmap; // All rows as candidates, or null
-  private final StringDictionaryReader dictionary; // For type coercion during indexed eval
+  private final ThreadLocal<long[]> candidateScratch; // Reused per thread, or null
+  private final ThreadLocal<int[]> sparseScratch; // Small candidate sets as row lists, or null
+  private final ThreadLocal<IntersectionPlan> planScratch; // Per-input intersection order, or null
+  private final StringDictionaryReader dictionary; // For coercing inputs to comparable ints
+  private final InputBinderImpl inputBinder; // Slot k = inputColumnIndices[k]
+  private final ThreadLocal<int[]> codeScratch; // Coerced inputs by slot, reused per thread
+  private final List<String> outputColumnNames; // RULE_ID, then non-TEST_ outputs
+  private final int[] visibleOutputColumns; // Non-TEST_ output column positions
 
   LoadedRulesetImpl(
       RulesetMetadata metadata,
       List<ColumnDefinition> columns,
       List<ColumnDecoder> decoders,
       int[] ruleOrder,
+      boolean rowsInEvaluationOrder,
       ByteBuffer directBuffer,
-      List<ColumnIndex> columnIndexes,
+      ColumnIndexSlots columnIndexes,
       StringDictionaryReader dictionary) {
-    this(metadata, columns, decoders, ruleOrder, directBuffer, null, columnIndexes, dictionary);
+    this(
+        metadata,
+        columns,
+        decoders,
+        ruleOrder,
+        rowsInEvaluationOrder,
+        directBuffer,
+        null,
+        columnIndexes,
+        dictionary);
   }
 
   LoadedRulesetImpl(
@@ -55,19 +91,19 @@ final class LoadedRulesetImpl implements LoadedRuleset {
       List<ColumnDefinition> columns,
       List<ColumnDecoder> decoders,
       int[] ruleOrder,
+      boolean rowsInEvaluationOrder,
       ByteBuffer directBuffer,
       AutoCloseable resource,
-      List<ColumnIndex> columnIndexes,
+      ColumnIndexSlots columnIndexes,
       StringDictionaryReader dictionary) {
     this.metadata = metadata;
     this.columns = List.copyOf(columns);
     this.decoders = List.copyOf(decoders);
     this.ruleOrder = ruleOrder.clone();
+    this.rowsInEvaluationOrder = rowsInEvaluationOrder;
     this.directBuffer = directBuffer;
     this.resource = resource;
-    // Use unmodifiableList since columnIndexes may contain nulls (non-indexed columns)
-    this.columnIndexes =
-        columnIndexes != null ? Collections.unmodifiableList(new ArrayList<>(columnIndexes)) : null;
+    this.columnIndexes = columnIndexes;
     this.dictionary = dictionary;
 
     // Pre-compute column indices
@@ -90,153 +126,611 @@ final class LoadedRulesetImpl implements LoadedRuleset {
     this.outputColumnIndices = outputIndices.stream().mapToInt(Integer::intValue).toArray();
     this.ruleIdColumnIndex = ruleIdIdx;
 
+    List<String> inputNames = new ArrayList<>(inputColumnIndices.length);
+    ColumnType[] inputTypes = new ColumnType[inputColumnIndices.length];
+    for (int slot = 0; slot < inputColumnIndices.length; slot++) {
+      ColumnDefinition col = columns.get(inputColumnIndices[slot]);
+      inputNames.add(col.name());
+      inputTypes[slot] = col.type();
+    }
+    this.inputBinder = new InputBinderImpl(inputNames, inputTypes, dictionary);
+    List<String> outputNames = new ArrayList<>();
+    if (ruleIdColumnIndex >= 0) {
+      outputNames.add(columns.get(ruleIdColumnIndex).name());
+    }
+    for (int colIdx : outputColumnIndices) {
+      if (!columns.get(colIdx).isTestOnly()) {
+        outputNames.add(columns.get(colIdx).name());
+      }
+    }
+    this.outputColumnNames = List.copyOf(outputNames);
+    this.visibleOutputColumns =
+        Arrays.stream(outputColumnIndices).filter(i -> !columns.get(i).isTestOnly()).toArray();
+
+    int inputCount = inputColumnIndices.length;
+    this.codeScratch = ThreadLocal.withInitial(() -> new int[inputCount]);
+
     // Pre-compute all-rows bitmap for indexed evaluation
-    if (columnIndexes != null && !columnIndexes.isEmpty()) {
+    if (columnIndexes != null && !columns.isEmpty()) {
       this.allRowsBitmap = CandidateBitmap.allOnes(ruleOrder.length);
+      this.candidateScratch = ThreadLocal.withInitial(() -> new long[allRowsBitmap.length]);
+      this.sparseScratch =
+          ThreadLocal.withInitial(() -> new int[ColumnarBulkKernel.DEFAULT_STOP_THRESHOLD]);
+      this.planScratch = ThreadLocal.withInitial(() -> new IntersectionPlan(inputCount));
     } else {
       this.allRowsBitmap = null;
+      this.candidateScratch = null;
+      this.sparseScratch = null;
+      this.planScratch = null;
     }
   }
 
   @Override
   public DecisionOutput evaluate(DecisionInput input) {
-    // Use indexed evaluation if indexes are available
-    if (columnIndexes != null && allRowsBitmap != null) {
-      return evaluateIndexed(input);
+    return tryEvaluate(input)
+        .orElseThrow(() -> new EvaluationException("No matching rule found for input"));
+  }
+
+  @Override
+  public Optional<DecisionOutput> tryEvaluate(DecisionInput input) {
+    return firstMatch(coerce(input), visibleOutputColumns);
+  }
+
+  @Override
+  public InputBinder inputBinder() {
+    return inputBinder;
+  }
+
+  @Override
+  public DecisionOutput evaluate(PreparedInput input) {
+    return tryEvaluate(input)
+        .orElseThrow(() -> new EvaluationException("No matching rule found for input"));
+  }
+
+  @Override
+  public Optional<DecisionOutput> tryEvaluate(PreparedInput input) {
+    return firstMatch(inputBinder.codesOf(input), visibleOutputColumns);
+  }
+
+  @Override
+  public OutputProjection outputProjection(String... names) {
+    int[] projected = new int[names.length];
+    for (int i = 0; i < names.length; i++) {
+      projected[i] = -1;
+      for (int colIdx : visibleOutputColumns) {
+        if (columns.get(colIdx).name().equals(names[i])) {
+          projected[i] = colIdx;
+          break;
+        }
+      }
+      if (projected[i] < 0) {
+        throw new EvaluationException("Unknown output column: " + names[i]);
+      }
     }
+    return new OutputProjectionImpl(this, Arrays.asList(names), projected);
+  }
 
-    // Fallback to linear scan
-    return evaluateLinear(input);
+  @Override
+  public DecisionOutput evaluate(DecisionInput input, OutputProjection projection) {
+    return tryEvaluate(input, projection)
+        .orElseThrow(() -> new EvaluationException("No matching rule found for input"));
+  }
+
+  @Override
+  public Optional<DecisionOutput> tryEvaluate(DecisionInput input, OutputProjection projection) {
+    int[] outputColumns = projectedColumns(projection);
+    return firstMatch(coerce(input), outputColumns);
+  }
+
+  @Override
+  public DecisionOutput evaluate(PreparedInput input, OutputProjection projection) {
+    return tryEvaluate(input, projection)
+        .orElseThrow(() -> new EvaluationException("No matching rule found for input"));
+  }
+
+  @Override
+  public Optional<DecisionOutput> tryEvaluate(PreparedInput input, OutputProjection projection) {
+    int[] outputColumns = projectedColumns(projection);
+    return firstMatch(inputBinder.codesOf(input), outputColumns);
+  }
+
+  /** Returns the winning rule's output over the given output columns, or empty if none matches. */
+  private Optional<DecisionOutput> firstMatch(int[] codes, int[] outputColumns) {
+    int rowIndex = firstMatchingRow(codes);
+    return rowIndex < 0 ? Optional.empty() : Optional.of(buildOutput(rowIndex, outputColumns));
   }
 
   /**
-   * Linear evaluation: O(n) scan through all rules in order.
+   * Returns the winning row for coerced input codes, or -1 if no rule matches.
    *
-   * <p>Used when indexes are not available.
+   * <p>Intersects the indexed columns within the candidate bitmap's live word window, in the order
+   * {@link #plan} picks for these inputs (smallest candidate set first). Once at most {@link
+   * ColumnarBulkKernel#DEFAULT_STOP_THRESHOLD} rows remain it stops intersecting and lists the
+   * survivors in row order; each remaining indexed column then filters the list with {@link
+   * ColumnIndex#probe} and the rows left are verified only on the unindexed conditions, so the rest
+   * of the evaluation costs O(candidates) instead of O(rowCount / 64) per column. Rows not stored
+   * in evaluation order (legacy artifacts) keep the dense rule-order scan.
    */
-  private DecisionOutput evaluateLinear(DecisionInput input) {
-    for (int rowIndex : ruleOrder) {
-      if (matchesAllInputs(rowIndex, input)) {
-        return buildOutput(rowIndex);
+  private int firstMatchingRow(int[] codes) {
+    if (columnIndexes == null || allRowsBitmap == null) {
+      int position = nextMatch(codes, null, 0);
+      return position < 0 ? -1 : rowAt(position);
+    }
+
+    IntersectionPlan plan = plan(codes, null);
+    if (plan.hasEmptyStep()) {
+      return -1;
+    }
+    long[] candidates = candidateScratch.get();
+    System.arraycopy(allRowsBitmap, 0, candidates, 0, candidates.length);
+    int fromWord = 0;
+    int toWord = candidates.length;
+    int[] rows = null; // Sparse survivor list, once few enough candidates remain
+    int n = 0;
+    for (int step = 0; step < plan.size(); step++) {
+      ColumnIndex index = plan.index(step);
+      int slot = plan.slot(step);
+      if (rows != null) {
+        n = index.retainProbed(rows, n, codes[slot]);
+        if (n == 0) {
+          return -1;
+        }
+        continue;
+      }
+      index.intersectInto(candidates, codes[slot], fromWord, toWord);
+      fromWord = CandidateBitmap.firstNonZeroWord(candidates, fromWord, toWord);
+      if (fromWord == toWord) {
+        return -1;
+      }
+      toWord = CandidateBitmap.lastNonZeroWord(candidates, fromWord, toWord) + 1;
+      if (rowsInEvaluationOrder
+          && CandidateBitmap.cardinality(candidates, fromWord, toWord)
+              <= ColumnarBulkKernel.DEFAULT_STOP_THRESHOLD) {
+        rows = sparseScratch.get();
+        n = CandidateBitmap.toRows(candidates, fromWord, toWord, rows);
       }
     }
-    throw new EvaluationException("No matching rule found for input");
+
+    if (rows != null) {
+      // Every planned column has filtered the list exactly; the decoders check only the rest
+      for (int i = 0; i < n; i++) {
+        if (matchesUnplannedCoerced(rows[i], codes, plan)) {
+          return rows[i];
+        }
+      }
+      return -1;
+    }
+    int position = nextMatch(codes, candidates, 0);
+    return position < 0 ? -1 : rowAt(position);
   }
 
   /**
-   * Indexed evaluation: filter candidates via bitmap intersection, then verify.
+   * Resolves a projection prepared by this ruleset to output column positions.
    *
-   * <p>Algorithm: 1. Start with all rows as candidates 2. For each indexed column, intersect with
-   * column's candidate bitmap 3. Iterate remaining candidates in priority order 4. Verify full
-   * match (handles non-indexed columns and blank cells)
+   * @throws IllegalArgumentException if the projection was prepared by another ruleset
    */
-  private DecisionOutput evaluateIndexed(DecisionInput input) {
-    // Start with all rows as candidates
-    long[] candidates = CandidateBitmap.copy(allRowsBitmap);
+  int[] projectedColumns(OutputProjection projection) {
+    Objects.requireNonNull(projection, "projection");
+    if (!(projection instanceof OutputProjectionImpl impl)) {
+      throw new IllegalArgumentException("OutputProjection was not prepared by this ruleset");
+    }
+    return impl.columnIndicesFor(this);
+  }
 
-    // Intersect with each indexed column's candidates
-    for (int colIdx : inputColumnIndices) {
-      ColumnIndex index = columnIndexes.get(colIdx);
-      if (index == null) {
-        continue; // Column not indexed, will be verified later
+  @Override
+  public List<DecisionOutput> evaluateTopK(DecisionInput input, int k) {
+    if (k < 1) {
+      throw new IllegalArgumentException("k must be >= 1: " + k);
+    }
+    int[] codes = coerce(input);
+    long[] candidates = candidates(codes);
+    List<DecisionOutput> matches = new ArrayList<>();
+    for (int position = nextMatch(codes, candidates, 0);
+        position >= 0 && matches.size() < k;
+        position = nextMatch(codes, candidates, position + 1)) {
+      matches.add(buildOutput(rowAt(position)));
+    }
+    return List.copyOf(matches);
+  }
+
+  @Override
+  public List<DecisionOutput> evaluateAll(DecisionInput input) {
+    return evaluateTopK(input, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public Optional<BigDecimal> aggregate(
+      DecisionInput input, String outputColumn, Aggregation aggregation) {
+    ColumnDecoder decoder = numericOutputDecoder(outputColumn);
+    int[] codes = coerce(input);
+    long[] candidates = candidates(codes);
+
+    BigDecimal result = null;
+    long count = 0;
+    for (int position = nextMatch(codes, candidates, 0);
+        position >= 0;
+        position = nextMatch(codes, candidates, position + 1)) {
+      Object value = decoder.getValue(rowAt(position));
+      if (value == null) {
+        continue; // Blank output cells do not contribute
       }
+      BigDecimal number =
+          value instanceof Integer i ? BigDecimal.valueOf(i) : new BigDecimal(value.toString());
+      count++;
+      result =
+          switch (aggregation) {
+            case SUM -> result == null ? number : result.add(number);
+            case MIN -> result == null ? number : result.min(number);
+            case MAX -> result == null ? number : result.max(number);
+            case COUNT -> null;
+          };
+    }
+    return aggregation == Aggregation.COUNT
+        ? Optional.of(BigDecimal.valueOf(count))
+        : Optional.ofNullable(result);
+  }
 
+  /** Finds the decoder of a non-TEST_ INTEGER or DECIMAL output column. */
+  private ColumnDecoder numericOutputDecoder(String name) {
+    for (int colIdx : outputColumnIndices) {
       ColumnDefinition col = columns.get(colIdx);
-      if (col.isTestOnly()) {
-        continue;
+      if (col.name().equals(name) && !col.isTestOnly()) {
+        if (col.type() != ColumnType.INTEGER && col.type() != ColumnType.DECIMAL) {
+          throw new EvaluationException("Output column is not numeric: " + name);
+        }
+        return decoders.get(colIdx);
       }
+    }
+    throw new EvaluationException("Unknown output column: " + name);
+  }
 
-      // Get input value and coerce to comparable int
-      Object inputValue = input.get(col.name()).orElse(null);
-      int coercedValue = TypeCoercion.toComparableInt(inputValue, col.type(), dictionary);
+  /**
+   * Coerces every non-TEST_ input value to its comparable int once, into a per-thread scratch array
+   * indexed by input slot (TEST_ slots stay {@code NULL_ID}).
+   */
+  private int[] coerce(DecisionInput input) {
+    int[] codes = codeScratch.get();
+    for (int slot = 0; slot < inputColumnIndices.length; slot++) {
+      ColumnDefinition col = columns.get(inputColumnIndices[slot]);
+      codes[slot] =
+          col.isTestOnly()
+              ? StringDictionaryReader.NULL_ID
+              : TypeCoercion.toComparableInt(
+                  input.get(col.name()).orElse(null), col.type(), dictionary);
+    }
+    return codes;
+  }
+
+  /**
+   * Candidate rows for coerced input codes, or null when indexes are not available (every row is a
+   * candidate).
+   *
+   * <p>Starts from all rows and intersects each indexed column's candidate bitmap into a per-thread
+   * scratch array in place, so steady-state evaluation allocates nothing proportional to the row
+   * count. Matches must still be verified (handles non-indexed columns and blank cells).
+   */
+  private long[] candidates(int[] codes) {
+    if (columnIndexes == null || allRowsBitmap == null) {
+      return null;
+    }
+
+    // Start with all rows as candidates
+    long[] candidates = candidateScratch.get();
+    System.arraycopy(allRowsBitmap, 0, candidates, 0, candidates.length);
+    intersectSlots(candidates, codes, null);
+    return candidates;
+  }
 
-      // Get candidate rows from index and intersect
-      long[] colCandidates = index.getCandidates(coercedValue);
-      CandidateBitmap.andInPlace(candidates, colCandidates);
+  /**
+   * Intersects, in place, the candidate rows of each indexed input column among {@code slots} (all
+   * input columns when null), in planned order and stopping early once no candidates remain.
+   */
+  private void intersectSlots(long[] candidates, int[] codes, boolean[] slots) {
+    IntersectionPlan plan = plan(codes, slots);
+    if (plan.hasEmptyStep()) {
+      Arrays.fill(candidates, 0L);
+      return;
+    }
+    for (int step = 0; step < plan.size(); step++) {
+      plan.index(step).intersectInto(candidates, codes[plan.slot(step)]);
 
       // Early termination if no candidates remain
       if (CandidateBitmap.isEmpty(candidates)) {
-        throw new EvaluationException("No matching rule found for input");
+        return;
       }
     }
+  }
 
-    // Iterate candidates in priority order (ruleOrder) and verify full match
-    for (int rowIndex : ruleOrder) {
-      if (CandidateBitmap.isSet(candidates, rowIndex)) {
-        // Verify all inputs match (handles non-indexed columns)
-        if (matchesAllInputs(rowIndex, input)) {
-          return buildOutput(rowIndex);
+  /**
+   * Plans the intersection order of the indexed input columns among {@code slots} (all input
+   * columns when null) for these codes, in the calling thread's plan. Every selected column's index
+   * is resolved, so first-touch lazy indexes get built whichever columns end up intersected.
+   */
+  private IntersectionPlan plan(int[] codes, boolean[] slots) {
+    IntersectionPlan plan = planScratch.get();
+    plan.clear();
+    for (int slot = 0; slot < inputColumnIndices.length; slot++) {
+      if (slots != null && !slots[slot]) {
+        continue;
+      }
+      int colIdx = inputColumnIndices[slot];
+      ColumnIndex index = columnIndexes.get(colIdx);
+      if (index != null && !columns.get(colIdx).isTestOnly()) {
+        plan.add(slot, index, codes[slot]); // Others: not indexed (verified later) or skipped
+      }
+    }
+    return plan;
+  }
+
+  /**
+   * Returns the first evaluation-order position at or after {@code from} whose rule matches the
+   * coerced input, or -1 if none does.
+   *
+   * <p>Without candidates this is a linear scan in rule order. With candidates and rows stored in
+   * evaluation order it walks only the set bits of the bitmap, so the cost tracks the number of
+   * surviving candidates rather than the row count; otherwise it tests each rule's bit in rule
+   * order.
+   */
+  private int nextMatch(int[] codes, long[] candidates, int from) {
+    if (candidates == null) {
+      for (int position = from; position < ruleOrder.length; position++) {
+        if (matchesAllCoerced(rowAt(position), codes)) {
+          return position;
         }
       }
+      return -1;
     }
 
-    throw new EvaluationException("No matching rule found for input");
+    if (rowsInEvaluationOrder) {
+      // Row number is evaluation position: visit only the set bits, lowest first
+      for (int rowIndex = CandidateBitmap.nextSetBit(candidates, from);
+          rowIndex >= 0;
+          rowIndex = CandidateBitmap.nextSetBit(candidates, rowIndex + 1)) {
+        if (matchesAllCoerced(rowIndex, codes)) {
+          return rowIndex;
+        }
+      }
+      return -1;
+    }
+
+    for (int position = from; position < ruleOrder.length; position++) {
+      int rowIndex = ruleOrder[position];
+      if (CandidateBitmap.isSet(candidates, rowIndex) && matchesAllCoerced(rowIndex, codes)) {
+        return position;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Verifies every non-TEST_ input condition of a row against codes coerced once per evaluation, so
+   * the per-row check never touches the input map or the string dictionary.
+   */
+  private boolean matchesAllCoerced(int rowIndex, int[] codes) {
+    for (int slot = 0; slot < inputColumnIndices.length; slot++) {
+      int colIdx = inputColumnIndices[slot];
+      if (columns.get(colIdx).isTestOnly()) {
+        continue;
+      }
+      if (!decoders.get(colIdx).matchesCoerced(rowIndex, codes[slot])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Like {@link #matchesAllCoerced}, skipping the slots the plan has already filtered on. */
+  private boolean matchesUnplannedCoerced(int rowIndex, int[] codes, IntersectionPlan plan) {
+    for (int slot = 0; slot < inputColumnIndices.length; slot++) {
+      int colIdx = inputColumnIndices[slot];
+      if (plan.covers(slot) || columns.get(colIdx).isTestOnly()) {
+        continue;
+      }
+      if (!decoders.get(colIdx).matchesCoerced(rowIndex, codes[slot])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** The row evaluated at the given position of the rule order. */
+  private int rowAt(int position) {
+    return rowsInEvaluationOrder ? position : ruleOrder[position];
   }
 
   @Override
   public BulkResult evaluateBulk(DecisionInput base, List<DecisionInput> variants) {
-    List<DecisionOutput> results = new ArrayList<>(variants.size());
+    return evaluateBulk(base, variants, visibleOutputColumns);
+  }
+
+  @Override
+  public BulkResult evaluateBulk(
+      DecisionInput base, List<DecisionInput> variants, OutputProjection projection) {
+    return evaluateBulk(base, variants, projectedColumns(projection));
+  }
+
+  /**
+   * Evaluates each variant over the base input. Input columns that no variant supplies keep their
+   * base value for the whole call, so they are coerced and intersected once into a shared base
+   * candidate bitmap; per variant only the columns variants override are coerced and intersected on
+   * a copy of it. Verification stays exhaustive, so results equal {@code evaluate} on each merged
+   * input.
+   */
+  private BulkResult evaluateBulk(
+      DecisionInput base, List<DecisionInput> variants, int[] outputColumns) {
+    int slotCount = inputColumnIndices.length;
+    int[] baseCodes = coerce(base).clone();
+
+    // Slots some variant overrides; every other slot is fixed by the base for the whole call.
+    // Walks each variant's own fields once: O(total variant fields), not slots x variants.
+    boolean[] varying = new boolean[slotCount];
+    for (DecisionInput variant : variants) {
+      for (String name : variant.values().keySet()) {
+        int slot = inputBinder.slotOrNegative(name);
+        if (slot >= 0) {
+          varying[slot] = true;
+        }
+      }
+    }
+    boolean[] fixed = new boolean[slotCount];
+    for (int slot = 0; slot < slotCount; slot++) {
+      fixed[slot] = !varying[slot];
+    }
+
+    long[] baseCandidates = null;
+    if (columnIndexes != null && allRowsBitmap != null) {
+      baseCandidates = allRowsBitmap.clone();
+      intersectSlots(baseCandidates, baseCodes, fixed);
+    }
 
+    List<DecisionOutput> results = new ArrayList<>(variants.size());
+    int[] codes = new int[slotCount];
     for (DecisionInput variant : variants) {
-      // Merge base and variant (variant overrides base)
-      DecisionInput merged = merge(base, variant);
-      DecisionOutput output = evaluate(merged);
-      results.add(output);
+      // Variant overrides base
+      System.arraycopy(baseCodes, 0, codes, 0, slotCount);
+      for (Map.Entry<String, Object> field : variant.values().entrySet()) {
+        int slot = inputBinder.slotOrNegative(field.getKey());
+        if (slot < 0 || field.getValue() == null) {
+          continue;
+        }
+        ColumnDefinition col = columns.get(inputColumnIndices[slot]);
+        if (!col.isTestOnly()) {
+          codes[slot] = TypeCoercion.toComparableInt(field.getValue(), col.type(), dictionary);
+        }
+      }
+
+      long[] candidates = null;
+      if (baseCandidates != null) {
+        candidates = candidateScratch.get();
+        System.arraycopy(baseCandidates, 0, candidates, 0, candidates.length);
+        intersectSlots(candidates, codes, varying);
+      }
+      int position = nextMatch(codes, candidates, 0);
+      if (position < 0) {
+        throw new EvaluationException("No matching rule found for input");
+      }
+      results.add(buildOutput(rowAt(position), outputColumns));
     }
 
     return new BulkResult(results);
   }
 
-  private boolean matchesAllInputs(int rowIndex, DecisionInput input) {
-    for (int colIdx : inputColumnIndices) {
-      ColumnDecoder decoder = decoders.get(colIdx);
-      ColumnDefinition col = columns.get(colIdx);
+  @Override
+  public BatchResult evaluateBatch(RecordBatch batch) {
+    ColumnarBulkKernel kernel = bulkKernel();
+    return batchResult(kernel.match(kernel.encode(batch)));
+  }
 
-      // Skip TEST_ columns during evaluation
-      if (col.isTestOnly()) {
-        continue;
+  @Override
+  public BatchResult evaluateBatch(RecordBatch batch, Executor executor, int parallelism) {
+    Objects.requireNonNull(executor, "executor");
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism must be >= 1: " + parallelism);
+    }
+    ColumnarBulkKernel kernel = bulkKernel();
+    return batchResult(kernel.match(kernel.encode(batch), executor, parallelism));
+  }
+
+  @Override
+  public void evaluateStream(Iterator<DecisionInput> inputs, int batchSize, BatchSink sink) {
+    requireBatchSize(batchSize);
+    List<DecisionInput> batch = new ArrayList<>(batchSize);
+    List<DecisionInput> view = Collections.unmodifiableList(batch);
+    while (inputs.hasNext()) {
+      batch.clear();
+      while (batch.size() < batchSize && inputs.hasNext()) {
+        batch.add(inputs.next());
       }
+      // Per batch, so indexes published by lazy loading mid-stream are picked up
+      ColumnarBulkKernel kernel = bulkKernel();
+      sink.accept(view, batchResult(kernel.match(kernel.encode(batch))));
+    }
+  }
+
+  @Override
+  public Stream<Optional<DecisionOutput>> evaluateStream(
+      Stream<DecisionInput> inputs, int batchSize) {
+    requireBatchSize(batchSize);
+    BatchingSpliterator results =
+        new BatchingSpliterator(inputs.iterator(), this::bulkKernel, this::buildOutput, batchSize);
+    return StreamSupport.stream(results, false).onClose(inputs::close);
+  }
 
-      String columnName = col.name();
-      Object inputValue = input.get(columnName).orElse(null);
+  private BatchResult batchResult(int[] matchedRows) {
+    return new BatchResultImpl(matchedRows, this);
+  }
 
-      if (!decoder.matches(rowIndex, inputValue)) {
-        return false;
+  /** RULE_ID, then the non-TEST_ output column names in table order. */
+  List<String> outputColumnNames() {
+    return outputColumnNames;
+  }
+
+  /** Decodes RULE_ID or a non-TEST_ output column for the winning row of each batch input. */
+  OutputColumn decodeOutputColumn(String name, int[] matchedRows) {
+    int colIdx = -1;
+    if (ruleIdColumnIndex >= 0 && columns.get(ruleIdColumnIndex).name().equals(name)) {
+      colIdx = ruleIdColumnIndex;
+    }
+    for (int i = 0; colIdx < 0 && i < outputColumnIndices.length; i++) {
+      ColumnDefinition col = columns.get(outputColumnIndices[i]);
+      if (col.name().equals(name) && !col.isTestOnly()) {
+        colIdx = outputColumnIndices[i];
       }
     }
-    return true;
+    if (colIdx < 0 || !(decoders.get(colIdx) instanceof ScalarColumnDecoder decoder)) {
+      throw new EvaluationException("Unknown output column: " + name);
+    }
+    return OutputColumnImpl.decode(columns.get(colIdx), decoder, matchedRows, dictionary);
+  }
+
+  private static void requireBatchSize(int batchSize) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("batchSize must be >= 1: " + batchSize);
+    }
   }
 
   /**
-   * Creates a columnar bulk evaluation kernel sharing this ruleset's immutable state. Package
-   * private; the public bulk API is layered on top in a later slice.
+   * Creates a columnar bulk evaluation kernel sharing this ruleset's immutable state, over the
+   * indexes published so far. Backs {@link #evaluateBatch}.
+   *
+   * <p>Each input column's slot is read first, so in first-touch mode the kernel builds the input
+   * indexes just as the first single evaluation would.
    */
   ColumnarBulkKernel bulkKernel() {
+    List<ColumnIndex> indexes = null;
+    if (columnIndexes != null) {
+      for (int colIdx : inputColumnIndices) {
+        columnIndexes.get(colIdx);
+      }
+      indexes = columnIndexes.snapshot();
+    }
     return new ColumnarBulkKernel(
         columns,
         decoders,
         ruleOrder,
+        rowsInEvaluationOrder,
         inputColumnIndices,
-        columnIndexes,
+        indexes,
         allRowsBitmap,
         dictionary,
         this::buildOutput);
   }
 
-  private DecisionOutput buildOutput(int rowIndex) {
-    Map<String, Object> outputs = new LinkedHashMap<>();
-
-    for (int colIdx : outputColumnIndices) {
-      ColumnDecoder decoder = decoders.get(colIdx);
-      ColumnDefinition col = columns.get(colIdx);
+  /** Builds a rule row's output with every non-TEST_ output column. */
+  DecisionOutput buildOutput(int rowIndex) {
+    return buildOutput(rowIndex, visibleOutputColumns);
+  }
 
-      // Skip TEST_ columns in output
-      if (col.isTestOnly()) {
-        continue;
-      }
+  /**
+   * Builds a rule row's output over the given output column positions (TEST_ columns are never
+   * among them); columns not listed are not decoded.
+   */
+  DecisionOutput buildOutput(int rowIndex, int[] outputColumns) {
+    Map<String, Object> outputs = new LinkedHashMap<>();
 
-      Object value = decoder.getValue(rowIndex);
-      outputs.put(col.name(), value);
+    for (int colIdx : outputColumns) {
+      Object value = decoders.get(colIdx).getValue(rowIndex);
+      outputs.put(columns.get(colIdx).name(), value);
     }
 
     // Get RULE_ID
@@ -254,17 +748,16 @@ final class LoadedRulesetImpl implements LoadedRuleset {
     return DecisionOutput.of(ruleId, outputs);
   }
 
-  private DecisionInput merge(DecisionInput base, DecisionInput variant) {
-    Map<String, Object> merged = new LinkedHashMap<>(base.values());
-    merged.putAll(variant.values());
-    return DecisionInput.of(merged);
-  }
-
   @Override
   public RulesetMetadata metadata() {
     return metadata;
   }
 
+  @Override
+  public Map<String, Duration> indexBuildTimes() {
+    return columnIndexes != null ? columnIndexes.buildTimes() : Map.of();
+  }
+
   @Override
   public void close() {
     // Close the backing file channel for memory-mapped loads. The mapping itself has no public
@@ -0,0 +1,94 @@
+package in.systemhalted.kisoku.runtime.loader;
+
+import in.systemhalted.kisoku.api.ColumnType;
+import in.systemhalted.kisoku.api.evaluation.OutputColumn;
+import java.util.BitSet;
+
+/**
+ * {@link OutputColumn} holding the stored codes of one scalar output column for every input row of
+ * a batch. Codes are read straight from the column buffer; dictionary values are only resolved by
+ * {@link #value(int)}.
+ */
+final class OutputColumnImpl implements OutputColumn {
+  private final String name;
+  private final ColumnType type;
+  private final int[] codes; // Stored value per input row, NULL_ID where null
+  private final BitSet present; // Input rows with a value
+  private final StringDictionaryReader dictionary;
+
+  private OutputColumnImpl(
+      String name,
+      ColumnType type,
+      int[] codes,
+      BitSet present,
+      StringDictionaryReader dictionary) {
+    this.name = name;
+    this.type = type;
+    this.codes = codes;
+    this.present = present;
+    this.dictionary = dictionary;
+  }
+
+  /**
+   * Reads a column's cell for the winning rule of each input row.
+   *
+   * @param column the output (or RULE_ID) column
+   * @param decoder the column's decoder
+   * @param matchedRows winning rule row per input row, -1 if unmatched
+   * @param dictionary the string dictionary
+   * @return the decoded column
+   */
+  static OutputColumnImpl decode(
+      ColumnDefinition column,
+      ScalarColumnDecoder decoder,
+      int[] matchedRows,
+      StringDictionaryReader dictionary) {
+    int[] codes = new int[matchedRows.length];
+    BitSet present = new BitSet(matchedRows.length);
+    for (int row = 0; row < matchedRows.length; row++) {
+      int rowIndex = matchedRows[row];
+      if (rowIndex >= 0 && decoder.hasCondition(rowIndex)) {
+        codes[row] = decoder.storedValue(rowIndex);
+        present.set(row);
+      }
+    }
+    return new OutputColumnImpl(column.name(), column.type(), codes, present, dictionary);
+  }
+
+  @Override
+  public String name() {
+    return name;
+  }
+
+  @Override
+  public ColumnType type() {
+    return type;
+  }
+
+  @Override
+  public int size() {
+    return codes.length;
+  }
+
+  @Override
+  public boolean isNull(int row) {
+    return !present.get(checkRow(row));
+  }
+
+  @Override
+  public int code(int row) {
+    return codes[row];
+  }
+
+  @Override
+  public Object value(int row) {
+    return isNull(row) ? null : TypeCoercion.decodeValue(codes[row], type, dictionary);
+  }
+
+  private int checkRow(int row) {
+    if (row < 0 || row >= codes.length) {
+      throw new IndexOutOfBoundsException("row " + row + " out of range [0, " + codes.length + ")");
+    }
+    return row;
+  }
+}
@@ -0,0 +1,37 @@
+package in.systemhalted.kisoku.runtime.loader;
+
+import in.systemhalted.kisoku.api.evaluation.OutputProjection;
+import java.util.List;
+
+/**
+ * {@link OutputProjection} resolved to column positions of the ruleset that prepared it, so
+ * building a projected output walks a small {@code int[]} instead of matching names.
+ */
+final class OutputProjectionImpl implements OutputProjection {
+  private final Object owner; // The preparing ruleset; projections are not portable
+  private final List<String> columns;
+  private final int[] columnIndices; // Positions in the ruleset's columns, in request order
+
+  OutputProjectionImpl(Object owner, List<String> columns, int[] columnIndices) {
+    this.owner = owner;
+    this.columns = List.copyOf(columns);
+    this.columnIndices = columnIndices;
+  }
+
+  @Override
+  public List<String> columns() {
+    return columns;
+  }
+
+  /**
+   * Returns the projected column positions.
+   *
+   * @throws IllegalArgumentException if the projection was prepared by another ruleset
+   */
+  int[] columnIndicesFor(Object ruleset) {
+    if (owner != ruleset) {
+      throw new IllegalArgumentException("OutputProjection was not prepared by this ruleset");
+    }
+    return columnIndices;
+  }
+}
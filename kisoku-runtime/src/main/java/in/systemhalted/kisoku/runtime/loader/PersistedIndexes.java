@@ -0,0 +1,87 @@
+package in.systemhalted.kisoku.runtime.loader;
+
+import in.systemhalted.kisoku.runtime.loader.index.ColumnIndex;
+import in.systemhalted.kisoku.runtime.loader.index.IndexCodec;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds and reads the optional persisted-index section of a compiled artifact (format 1.2+).
+ *
+ * <p>The compiler calls {@link #buildSection} on the finished artifact bytes, so the persisted
+ * indexes are built by exactly the code the loader would otherwise run at load time, over the same
+ * row numbering. The loader then decodes them with {@link #read}: per-value bitmaps are wrapped in
+ * place, so a memory-mapped artifact serves its indexes straight from the mapping.
+ *
+ * <p>Section layout (big-endian):
+ *
+ * <pre>
+ * column_count (4 bytes)
+ * index_offsets[column_count] (4 bytes each) - relative to the section start, -1 if not indexed
+ * encoded indexes ({@link IndexCodec})
+ * </pre>
+ */
+public final class PersistedIndexes {
+  private PersistedIndexes() {}
+
+  /**
+   * Builds every column's index from a compiled artifact and serializes them as an index section.
+   *
+   * @param artifact the artifact bytes (without an index section)
+   * @return the encoded index section
+   */
+  public static byte[] buildSection(byte[] artifact) {
+    BinaryArtifactReader reader = BinaryArtifactReader.read(ByteBuffer.wrap(artifact));
+    int columnCount = reader.columns().size();
+
+    ByteArrayOutputStream payloads = new ByteArrayOutputStream();
+    int[] offsets = new int[columnCount];
+    int headerSize = 4 + columnCount * 4;
+    for (int i = 0; i < columnCount; i++) {
+      ColumnIndex index =
+          ColumnIndexBuilder.build(
+              reader.decoders().get(i), reader.columns().get(i), reader.rowCount());
+      if (index == null) {
+        offsets[i] = -1;
+        continue;
+      }
+      offsets[i] = headerSize + payloads.size();
+      payloads.writeBytes(IndexCodec.encode(index));
+    }
+
+    try {
+      ByteArrayOutputStream baos = new ByteArrayOutputStream(headerSize + payloads.size());
+      DataOutputStream dos = new DataOutputStream(baos);
+      dos.writeInt(columnCount);
+      for (int offset : offsets) {
+        dos.writeInt(offset);
+      }
+      payloads.writeTo(dos);
+      dos.flush();
+      return baos.toByteArray();
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to write index section", e);
+    }
+  }
+
+  /**
+   * Decodes an index section. The returned indexes read their bitmaps from {@code buffer}.
+   *
+   * @param buffer the artifact buffer
+   * @param offset absolute offset of the index section
+   * @return one index per column, null for columns without one
+   */
+  static List<ColumnIndex> read(ByteBuffer buffer, int offset) {
+    int columnCount = buffer.getInt(offset);
+    List<ColumnIndex> indexes = new ArrayList<>(columnCount);
+    for (int i = 0; i < columnCount; i++) {
+      int indexOffset = buffer.getInt(offset + 4 + i * 4);
+      indexes.add(indexOffset < 0 ? null : IndexCodec.decode(buffer, offset + indexOffset));
+    }
+    return indexes;
+  }
+}
@@ -0,0 +1,113 @@
+package in.systemhalted.kisoku.runtime.loader;
+
+import in.systemhalted.kisoku.api.ColumnType;
+import in.systemhalted.kisoku.api.evaluation.EvaluationException;
+import in.systemhalted.kisoku.api.evaluation.PreparedInput;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Prepared input holding one comparable int per input slot, coerced exactly as {@link
+ * TypeCoercion#toComparableInt} would coerce the equivalent {@code DecisionInput} value.
+ */
+final class PreparedInputImpl implements PreparedInput {
+  private final InputBinderImpl binder;
+  private final List<String> columns;
+  private final ColumnType[] types;
+  private final StringDictionaryReader dictionary;
+  private final int[] codes; // NULL_ID (0) = unset
+
+  PreparedInputImpl(
+      InputBinderImpl binder,
+      List<String> columns,
+      ColumnType[] types,
+      StringDictionaryReader dictionary) {
+    this.binder = binder;
+    this.columns = columns;
+    this.types = types;
+    this.dictionary = dictionary;
+    this.codes = new int[types.length];
+  }
+
+  @Override
+  public PreparedInput setInt(int slot, int value) {
+    ColumnType type = types[slot];
+    if (type != ColumnType.INTEGER && type != ColumnType.DATE) {
+      throw typeMismatch(slot, "int");
+    }
+    codes[slot] = value;
+    return this;
+  }
+
+  @Override
+  public PreparedInput setBoolean(int slot, boolean value) {
+    if (types[slot] != ColumnType.BOOLEAN) {
+      throw typeMismatch(slot, "boolean");
+    }
+    codes[slot] = value ? 1 : 0;
+    return this;
+  }
+
+  @Override
+  public PreparedInput setString(int slot, String value) {
+    ColumnType type = types[slot];
+    if (type != ColumnType.STRING && type != ColumnType.DECIMAL && type != ColumnType.TIMESTAMP) {
+      throw typeMismatch(slot, "String");
+    }
+    codes[slot] = dictionary.getId(value);
+    return this;
+  }
+
+  @Override
+  public PreparedInput setDecimal(int slot, BigDecimal value) {
+    if (types[slot] != ColumnType.DECIMAL) {
+      throw typeMismatch(slot, "BigDecimal");
+    }
+    codes[slot] =
+        value == null ? StringDictionaryReader.NULL_ID : dictionary.getId(value.toPlainString());
+    return this;
+  }
+
+  @Override
+  public PreparedInput setDate(int slot, LocalDate value) {
+    if (types[slot] != ColumnType.DATE) {
+      throw typeMismatch(slot, "LocalDate");
+    }
+    codes[slot] = value == null ? StringDictionaryReader.NULL_ID : (int) value.toEpochDay();
+    return this;
+  }
+
+  @Override
+  public PreparedInput set(int slot, Object value) {
+    codes[slot] = TypeCoercion.toComparableInt(value, types[slot], dictionary);
+    return this;
+  }
+
+  @Override
+  public PreparedInput setNull(int slot) {
+    codes[slot] = StringDictionaryReader.NULL_ID;
+    return this;
+  }
+
+  @Override
+  public PreparedInput clear() {
+    Arrays.fill(codes, StringDictionaryReader.NULL_ID);
+    return this;
+  }
+
+  boolean isBoundTo(InputBinderImpl binder) {
+    return this.binder == binder;
+  }
+
+  /** The coerced codes, indexed by slot (live view, not a copy). */
+  int[] codes() {
+    return codes;
+  }
+
+  private EvaluationException typeMismatch(int slot, String javaType) {
+    return new EvaluationException(
+        "Cannot set " + javaType + " on " + types[slot] + " input column " + columns.get(slot));
+  }
+}
@@ -107,6 +107,17 @@ final class ScalarColumnDecoder implements ColumnDecoder {
     return TypeCoercion.decodeValue(valueAt(rowIndex), column.type(), dictionary);
   }
 
+  /**
+   * Returns the stored comparable int of a row without decoding it (meaningful only when the row
+   * {@linkplain #hasCondition has a value}). Used to decode output columns for a whole batch.
+   *
+   * @param rowIndex the row index
+   * @return the stored value or dictionary id
+   */
+  int storedValue(int rowIndex) {
+    return valueAt(rowIndex);
+  }
+
   // Package-private accessors for index building. These materialize the column's raw data from the
   // buffer on demand; they are used once at load time and the arrays are not retained.
 
@@ -0,0 +1,31 @@
+package in.systemhalted.kisoku.runtime.loader.index;
+
+/**
+ * Word-array primitives behind {@link CandidateBitmap}, implemented once with scalar loops and once
+ * with the Java Vector API. Every operation works on the first {@code len} words of its arguments,
+ * on the word range {@code [from, to)}, or on {@code len} words starting at {@code from} of the
+ * destination; implementations must give bit-identical results.
+ */
+interface BitmapKernel {
+
+  /** {@code dst[i] = a[i] & b[i]} for {@code i < len}; {@code dst} may alias {@code a}. */
+  void and(long[] a, long[] b, long[] dst, int len);
+
+  /** {@code dst[i] = a[i] | b[i]} for {@code i < len}; {@code dst} may alias {@code a}. */
+  void or(long[] a, long[] b, long[] dst, int len);
+
+  /** {@code dst[i] = a[i] & ~b[i]} for {@code i < len}; {@code dst} may alias {@code a}. */
+  void andNot(long[] a, long[] b, long[] dst, int len);
+
+  /** {@code dst[from + i] &= src[i]} for {@code i < len}. */
+  void andInto(long[] dst, int from, long[] src, int len);
+
+  /** {@code dst[from + i] &= ~src[i]} for {@code i < len}. */
+  void andNotInto(long[] dst, int from, long[] src, int len);
+
+  /** Number of set bits in {@code a[from..to)}. */
+  int cardinality(long[] a, int from, int to);
+
+  /** True if {@code a[from..to)} has no set bit. */
+  boolean isEmpty(long[] a, int from, int to);
+}
@@ -0,0 +1,45 @@
+package in.systemhalted.kisoku.runtime.loader.index;
+
+/**
+ * Chooses the {@link BitmapKernel} once per JVM: the Vector API implementation when the {@code
+ * jdk.incubator.vector} module is present (started with {@code --add-modules jdk.incubator.vector})
+ * and the CPU offers at least two 64-bit lanes, otherwise the scalar loops.
+ *
+ * <p>The vector class is only loaded reflectively after the module check, so JVMs without the
+ * incubator module never link against it. Setting the system property {@code
+ * kisoku.bitmap.scalar=true} forces the scalar kernel.
+ */
+final class BitmapKernels {
+  private static final String VECTOR_MODULE = "jdk.incubator.vector";
+  private static final String VECTOR_KERNEL =
+      "in.systemhalted.kisoku.runtime.loader.index.VectorBitmapKernel";
+
+  /** The kernel used by {@link CandidateBitmap}. */
+  static final BitmapKernel SELECTED = select();
+
+  private BitmapKernels() {}
+
+  /** Returns the vector kernel if this JVM can run it, or null. */
+  static BitmapKernel vectorOrNull() {
+    if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+      return null;
+    }
+    try {
+      Class<?> type = Class.forName(VECTOR_KERNEL);
+      if (!(boolean) type.getDeclaredMethod("isUseful").invoke(null)) {
+        return null;
+      }
+      return (BitmapKernel) type.getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException | LinkageError e) {
+      return null; // Module present but not readable or usable: stay scalar
+    }
+  }
+
+  private static BitmapKernel select() {
+    if (Boolean.getBoolean("kisoku.bitmap.scalar")) {
+      return ScalarBitmapKernel.INSTANCE;
+    }
+    BitmapKernel vector = vectorOrNull();
+    return vector != null ? vector : ScalarBitmapKernel.INSTANCE;
+  }
+}
@@ -8,10 +8,26 @@ package in.systemhalted.kisoku.runtime.loader.index;
  *
  * <p>*Bit indexing*: bit *i* is at {@code words[i / 64]} bit {@code (i % 64)}, stored LSB-first
  * within each word.
+ *
+ * <p>*SIMD*: the word-wise operations ({@code and}, {@code or}, {@code andNot}, {@code isEmpty},
+ * {@code cardinality}) run on the Java Vector API when the JVM was started with {@code
+ * --add-modules jdk.incubator.vector}, and on scalar loops otherwise; both give identical results.
+ * See {@link #isVectorized()}.
  */
 public final class CandidateBitmap {
+  private static final BitmapKernel KERNEL = BitmapKernels.SELECTED;
+
   private CandidateBitmap() {}
 
+  /**
+   * Whether the word-wise operations run on the Java Vector API rather than scalar loops.
+   *
+   * @return true if the SIMD kernel was selected for this JVM
+   */
+  public static boolean isVectorized() {
+    return KERNEL != ScalarBitmapKernel.INSTANCE;
+  }
+
   /**
    * Calculate number of longs needed for the given row count.
    *
@@ -68,9 +84,7 @@ public final class CandidateBitmap {
   public static long[] and(long[] a, long[] b) {
     int len = Math.min(a.length, b.length);
     long[] result = new long[len];
-    for (int i = 0; i < len; i++) {
-      result[i] = a[i] & b[i];
-    }
+    KERNEL.and(a, b, result, len);
     return result;
   }
 
@@ -82,9 +96,7 @@ public final class CandidateBitmap {
    */
   public static void andInPlace(long[] a, long[] b) {
     int len = Math.min(a.length, b.length);
-    for (int i = 0; i < len; i++) {
-      a[i] &= b[i];
-    }
+    KERNEL.and(a, b, a, len);
     // Clear any remaining words in a if b is shorter
     for (int i = len; i < a.length; i++) {
       a[i] = 0L;
@@ -100,12 +112,12 @@ public final class CandidateBitmap {
    */
   public static long[] or(long[] a, long[] b) {
     int maxLen = Math.max(a.length, b.length);
+    int minLen = Math.min(a.length, b.length);
     long[] result = new long[maxLen];
-    for (int i = 0; i < maxLen; i++) {
-      long aVal = i < a.length ? a[i] : 0L;
-      long bVal = i < b.length ? b[i] : 0L;
-      result[i] = aVal | bVal;
-    }
+    KERNEL.or(a, b, result, minLen);
+    // Copy the tail of the longer bitmap
+    long[] longer = a.length >= b.length ? a : b;
+    System.arraycopy(longer, minLen, result, minLen, maxLen - minLen);
     return result;
   }
 
@@ -119,13 +131,9 @@ public final class CandidateBitmap {
   public static long[] andNot(long[] a, long[] b) {
     long[] result = new long[a.length];
     int minLen = Math.min(a.length, b.length);
-    for (int i = 0; i < minLen; i++) {
-      result[i] = a[i] & ~b[i];
-    }
+    KERNEL.andNot(a, b, result, minLen);
     // Copy remaining words from a (no corresponding b words to exclude)
-    for (int i = minLen; i < a.length; i++) {
-      result[i] = a[i];
-    }
+    System.arraycopy(a, minLen, result, minLen, a.length - minLen);
     return result;
   }
 
@@ -144,6 +152,63 @@ public final class CandidateBitmap {
     return -1;
   }
 
+  /**
+   * Find the first set bit at or after {@code fromIndex}. Skips whole zero words, so iterating a
+   * sparse bitmap costs one step per set bit plus one per word.
+   *
+   * @param bitmap the bitmap to search
+   * @param fromIndex index to start from (inclusive)
+   * @return index of the next set bit, or -1 if there is none
+   */
+  public static int nextSetBit(long[] bitmap, int fromIndex) {
+    return nextSetBit(bitmap, fromIndex, bitmap.length);
+  }
+
+  /**
+   * Find the first set bit at or after {@code fromIndex} within the words before {@code toWord}, so
+   * a scan over a bitmap whose live window is known stops at the window's end.
+   *
+   * @param bitmap the bitmap to search
+   * @param fromIndex index to start from (inclusive)
+   * @param toWord word after the last word to search
+   * @return index of the next set bit, or -1 if there is none before {@code toWord}
+   */
+  public static int nextSetBit(long[] bitmap, int fromIndex, int toWord) {
+    int wordIndex = fromIndex >>> 6;
+    if (wordIndex >= toWord) {
+      return -1;
+    }
+    long word = bitmap[wordIndex] & (-1L << fromIndex); // Shift uses fromIndex % 64
+    while (word == 0L) {
+      if (++wordIndex == toWord) {
+        return -1;
+      }
+      word = bitmap[wordIndex];
+    }
+    return wordIndex * 64 + Long.numberOfTrailingZeros(word);
+  }
+
+  /**
+   * Write the set bits of the word range {@code [fromWord, toWord)} to {@code rows} in ascending
+   * order: the sparse form of a small candidate set, whose later checks then cost one step per
+   * candidate instead of one per word.
+   *
+   * @param bitmap the bitmap
+   * @param fromWord first word to read
+   * @param toWord word after the last word to read
+   * @param rows destination; must hold the range's {@link #cardinality(long[], int, int)} entries
+   * @return number of rows written
+   */
+  public static int toRows(long[] bitmap, int fromWord, int toWord, int[] rows) {
+    int count = 0;
+    for (int w = fromWord; w < toWord; w++) {
+      for (long word = bitmap[w]; word != 0L; word &= word - 1) {
+        rows[count++] = w * 64 + Long.numberOfTrailingZeros(word);
+      }
+    }
+    return count;
+  }
+
   /**
    * Check if bitmap is empty (no bits set).
    *
@@ -151,12 +216,7 @@ public final class CandidateBitmap {
    * @return true if no bits are set
    */
   public static boolean isEmpty(long[] bitmap) {
-    for (long word : bitmap) {
-      if (word != 0L) {
-        return false;
-      }
-    }
-    return true;
+    return KERNEL.isEmpty(bitmap, 0, bitmap.length);
   }
 
   /**
@@ -196,11 +256,53 @@ public final class CandidateBitmap {
    * @return number of set bits
    */
   public static int cardinality(long[] bitmap) {
-    int count = 0;
-    for (long word : bitmap) {
-      count += Long.bitCount(word);
+    return KERNEL.cardinality(bitmap, 0, bitmap.length);
+  }
+
+  /**
+   * Count the set bits in the word range {@code [fromWord, toWord)}.
+   *
+   * @param bitmap the bitmap
+   * @param fromWord first word to count
+   * @param toWord word after the last word to count
+   * @return number of set bits in the range
+   */
+  public static int cardinality(long[] bitmap, int fromWord, int toWord) {
+    return KERNEL.cardinality(bitmap, fromWord, toWord);
+  }
+
+  /**
+   * Find the first non-zero word in {@code [fromWord, toWord)}. Together with {@link
+   * #lastNonZeroWord} this narrows a bitmap's live window after an intersection, touching only the
+   * zero words at its edges.
+   *
+   * @param bitmap the bitmap
+   * @param fromWord first word to check
+   * @param toWord word after the last word to check
+   * @return index of the first non-zero word, or {@code toWord} if the range is empty
+   */
+  public static int firstNonZeroWord(long[] bitmap, int fromWord, int toWord) {
+    int word = fromWord;
+    while (word < toWord && bitmap[word] == 0L) {
+      word++;
     }
-    return count;
+    return word;
+  }
+
+  /**
+   * Find the last non-zero word in {@code [fromWord, toWord)}.
+   *
+   * @param bitmap the bitmap
+   * @param fromWord first word to check
+   * @param toWord word after the last word to check
+   * @return index of the last non-zero word, or {@code fromWord - 1} if the range is empty
+   */
+  public static int lastNonZeroWord(long[] bitmap, int fromWord, int toWord) {
+    int word = toWord - 1;
+    while (word >= fromWord && bitmap[word] == 0L) {
+      word--;
+    }
+    return word;
   }
 
   /**
@@ -7,15 +7,15 @@ package in.systemhalted.kisoku.runtime.loader.index;
  *
  * <ul>
  *   <li>{@link EqualityIndex} - EQ operator (hash-based lookup)
- *   <li>ComparisonIndex - GT, GTE, LT, LTE operators (sorted array + binary search) [Phase 2]
- *   <li>RangeIntervalIndex - BETWEEN_* operators (interval tree) [Phase 2]
- *   <li>SetMembershipIndex - IN, NOT_IN operators (inverted index) [Phase 2]
+ *   <li>{@link ComparisonIndex} - GT, GTE, LT, LTE operators (sorted array + binary search)
+ *   <li>{@link RangeIntervalIndex} - BETWEEN_*, NOT_BETWEEN_* operators (endpoint-sorted segments)
+ *   <li>{@link SetMembershipIndex} - IN, NOT_IN operators (inverted index)
  * </ul>
  *
  * <p>Indexes are immutable and thread-safe after construction.
  */
-public sealed interface ColumnIndex permits EqualityIndex, ComparisonIndex, SetMembershipIndex {
-  // Note: RangeIntervalIndex will be added in a future phase
+public sealed interface ColumnIndex
+    permits EqualityIndex, ComparisonIndex, RangeIntervalIndex, SetMembershipIndex {
 
   /**
    * Get the candidate rows that could match the given input value.
@@ -32,6 +32,88 @@ public sealed interface ColumnIndex permits EqualityIndex, ComparisonIndex, SetM
    */
   long[] getCandidates(int inputValue);
 
+  /**
+   * Intersect this column's candidate rows for the given input value into a caller-owned bitmap.
+   *
+   * <p>Equivalent to {@code CandidateBitmap.andInPlace(scratch, getCandidates(inputValue))} - the
+   * same rows, blank rows included - but works in place on the compressed per-value bitmaps, so the
+   * evaluation hot path allocates nothing proportional to the row count.
+   *
+   * @param scratch the running candidate bitmap ({@link CandidateBitmap#longCount} words; modified
+   *     in place)
+   * @param inputValue the coerced input value (from TypeCoercion.toComparableInt)
+   */
+  default void intersectInto(long[] scratch, int inputValue) {
+    intersectInto(scratch, inputValue, 0, scratch.length);
+  }
+
+  /**
+   * Intersect into a caller-owned bitmap whose set bits all lie in the word window {@code
+   * [fromWord, toWord)}. Words outside the window must be zero; only the 64K-row chunks overlapping
+   * the window are touched, so the cost shrinks with the live candidate range rather than the row
+   * count.
+   *
+   * @param scratch the running candidate bitmap (modified in place)
+   * @param inputValue the coerced input value (from TypeCoercion.toComparableInt)
+   * @param fromWord first word that may be non-zero
+   * @param toWord word after the last word that may be non-zero
+   */
+  void intersectInto(long[] scratch, int inputValue, int fromWord, int toWord);
+
+  /**
+   * Count the candidate rows for the given input value without materializing them.
+   *
+   * <p>Equivalent to {@code CandidateBitmap.cardinality(getCandidates(inputValue))}, but answered
+   * from per-value row counts collected when the index was built, so evaluation can order its
+   * intersections per input, smallest candidate set first.
+   *
+   * @param inputValue the coerced input value (from TypeCoercion.toComparableInt)
+   * @return number of candidate rows, blank rows included
+   */
+  int candidateCount(int inputValue);
+
+  /**
+   * Check whether a single row is among the candidates for the given input value.
+   *
+   * <p>Equivalent to {@code CandidateBitmap.isSet(getCandidates(inputValue), row)}, but answered
+   * from the per-value bitmaps with a few container lookups, so a handful of surviving rows can be
+   * checked without touching a row-count-sized bitmap.
+   *
+   * @param row the row index
+   * @param inputValue the coerced input value (from TypeCoercion.toComparableInt)
+   * @return true if the row's condition on this column admits the input
+   */
+  boolean probe(int row, int inputValue);
+
+  /**
+   * Keep only the rows that {@link #probe} admits, compacting them to the front of {@code rows} in
+   * their original order.
+   *
+   * @param rows candidate rows (modified in place)
+   * @param count number of valid entries in {@code rows}
+   * @param inputValue the coerced input value (from TypeCoercion.toComparableInt)
+   * @return number of rows kept
+   */
+  default int retainProbed(int[] rows, int count, int inputValue) {
+    int kept = 0;
+    for (int i = 0; i < count; i++) {
+      if (probe(rows[i], inputValue)) {
+        rows[kept++] = rows[i];
+      }
+    }
+    return kept;
+  }
+
+  /**
+   * Returns an equivalent index whose row bitmaps live off-heap, packed into direct buffers. Only
+   * small per-value bookkeeping (sorted keys, slot tables, bitmap headers) stays on the heap, so
+   * the heap cost no longer grows with the row count. Lookups read the containers with absolute
+   * buffer gets, the same way the column decoders read a memory-mapped artifact.
+   *
+   * @return the relocated index
+   */
+  ColumnIndex toDirect();
+
   /**
    * Estimate memory usage of this index in bytes.
    *
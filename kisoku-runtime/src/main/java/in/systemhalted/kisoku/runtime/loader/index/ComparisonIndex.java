@@ -1,15 +1,19 @@
 package in.systemhalted.kisoku.runtime.loader.index;
 
 import in.systemhalted.kisoku.runtime.csv.Operator;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
 import java.util.TreeMap;
 
 /**
  * Sorted array index for comparison operator columns (GT, GTE, LT, LTE).
  *
- * <p>Stores unique column thresholds in sorted order, each mapped to a bitmap of rows containing
- * that threshold. Uses binary search to find the boundary index, then OR-combines bitmaps for all
- * rows whose rule condition is satisfied by the input. Rows with blank cells (no condition) are
- * tracked separately and included in all candidate results since blanks match any input.
+ * <p>Stores unique column thresholds in sorted order, each mapped to a {@link CompressedBitmap} of
+ * rows containing that threshold. Uses binary search to find the boundary index, then OR-combines
+ * bitmaps for all rows whose rule condition is satisfied by the input. Rows with blank cells (no
+ * condition) are tracked separately and included in all candidate results since blanks match any
+ * input.
  *
  * <p>Decision table semantics - for a rule with threshold T and input value V:
  *
@@ -20,17 +24,35 @@ import java.util.TreeMap;
  *   <li>LTE: rule matches when V <= T (return rows with thresholds at or above input)
  * </ul>
  *
+ * <p>*Cumulative mode* (optional, see {@link #build(int[], byte[], Operator, int, int)}): every
+ * lookup range is a prefix of the sorted thresholds for GT/GTE and a suffix for LT/LTE, so the
+ * index can precompute the OR of the first (or last) {@code j * stride} bitmaps, blank rows
+ * included. A lookup then costs one binary search, one cumulative bitmap and at most {@code stride
+ * - 1} remainder ORs instead of one OR per matching threshold. Stride 1 gives O(1) bitmap work at
+ * the highest memory cost; larger strides trade lookup time for memory.
+ *
+ * <p>Each row's threshold position (its *rank*) is also kept in a per-row table, so {@link #probe}
+ * is two binary searches and one table read rather than a scan of threshold bitmaps. The table
+ * costs 4 bytes per row; it is derived from the threshold bitmaps on construction (O(rows), also
+ * when a persisted index is read) and moves off-heap with {@link #toDirect}.
+ *
  * <p>This index is immutable and thread-safe after construction.
  */
 public final class ComparisonIndex implements ColumnIndex {
 
   private final int[] sortedValues;
-  private final long[][] rowBitmaps;
+  private final CompressedBitmap[] rowBitmaps;
   private final Operator operator;
-  private final long[] blankRowBitmap;
+  private final CompressedBitmap blankRowBitmap;
+  private final int longCount;
+  private final int stride; // 0 when cumulative mode is off
+  private final CompressedBitmap[] cumulative; // cumulative[j - 1] covers j * stride thresholds
+  private final int[] rowsBefore; // rowsBefore[i] = rows holding thresholds sortedValues[0..i)
+  private final IntBuffer rowRanks; // row -> position of its threshold, -1 for blank rows
 
   /**
-   * Constructs a comparison index with defensive copies of all array parameters.
+   * Constructs a comparison index from dense bitmaps, which are compressed on the way in (the
+   * arguments are not retained).
    *
    * @param sortedValues unique column values in ascending sorted order
    * @param rowBitmaps bitmap for each value; rowBitmaps[i] contains rows with sortedValues[i]
@@ -39,10 +61,46 @@ public final class ComparisonIndex implements ColumnIndex {
    */
   public ComparisonIndex(
       int[] sortedValues, long[][] rowBitmaps, Operator operator, long[] blankRowBitmap) {
-    this.sortedValues = sortedValues.clone();
-    this.rowBitmaps = deepClone(rowBitmaps);
+    this(
+        sortedValues.clone(),
+        compress(rowBitmaps),
+        operator,
+        CompressedBitmap.fromWords(blankRowBitmap),
+        blankRowBitmap.length,
+        0,
+        null,
+        null);
+  }
+
+  /**
+   * Canonical constructor shared by the build, codec and {@link #toDirect} paths.
+   *
+   * @param cumulative the stride's cumulative bitmaps, or null to build them from {@code
+   *     rowBitmaps}
+   * @param rowRanks the per-row rank table, or null to derive it from {@code rowBitmaps}
+   */
+  private ComparisonIndex(
+      int[] sortedValues,
+      CompressedBitmap[] rowBitmaps,
+      Operator operator,
+      CompressedBitmap blankRowBitmap,
+      int longCount,
+      int stride,
+      CompressedBitmap[] cumulative,
+      IntBuffer rowRanks) {
+    this.sortedValues = sortedValues;
+    this.rowBitmaps = rowBitmaps;
     this.operator = operator;
-    this.blankRowBitmap = blankRowBitmap.clone();
+    this.blankRowBitmap = blankRowBitmap;
+    this.longCount = longCount;
+    this.stride = stride;
+    if (cumulative != null) {
+      this.cumulative = cumulative;
+    } else {
+      this.cumulative = stride > 0 ? buildCumulative() : new CompressedBitmap[0];
+    }
+    this.rowsBefore = prefixCardinalities(rowBitmaps);
+    this.rowRanks = rowRanks != null ? rowRanks : rankRows(rowBitmaps, longCount);
   }
 
   /**
@@ -56,39 +114,113 @@ public final class ComparisonIndex implements ColumnIndex {
    */
   public static ComparisonIndex build(
       int[] values, byte[] presenceBitmap, Operator operator, int rowCount) {
-    int longCount = CandidateBitmap.longCount(rowCount);
+    return build(values, presenceBitmap, operator, rowCount, 0);
+  }
 
+  /**
+   * Build a ComparisonIndex from raw column data, optionally with cumulative bitmaps.
+   *
+   * @param values the values array from ScalarColumnDecoder
+   * @param presenceBitmap the presence bitmap (MSB-first encoding)
+   * @param operator the comparison operator (GT, GTE, LT, LTE)
+   * @param rowCount total number of rows
+   * @param cumulativeStride thresholds between cumulative bitmaps; 0 disables cumulative mode
+   * @return the built index
+   */
+  public static ComparisonIndex build(
+      int[] values, byte[] presenceBitmap, Operator operator, int rowCount, int cumulativeStride) {
+    if (cumulativeStride < 0) {
+      throw new IllegalArgumentException("Cumulative stride must be >= 0: " + cumulativeStride);
+    }
     // Track rows with no condition (blank cells)
-    long[] noConditionRows = new long[longCount];
+    CompressedBitmap.Builder noConditionRows = CompressedBitmap.builder();
 
-    // Group rows by value (TreeMap maintains sorted order)
-    var valueToRows = new TreeMap<Integer, long[]>();
+    // Group rows by value (TreeMap maintains sorted order; rows arrive in ascending order)
+    var valueToRows = new TreeMap<Integer, CompressedBitmap.Builder>();
 
     for (int row = 0; row < rowCount; row++) {
       if (isPresent(presenceBitmap, row)) {
         // Row has a condition - add to value's bitmap
         int value = values[row];
-        long[] bitmap = valueToRows.computeIfAbsent(value, k -> new long[longCount]);
-        CandidateBitmap.set(bitmap, row);
+        valueToRows.computeIfAbsent(value, k -> CompressedBitmap.builder()).add(row);
       } else {
-        CandidateBitmap.set(noConditionRows, row);
+        noConditionRows.add(row);
       }
     }
 
     // 5. Convert TreeMap to sorted arrays (sortedValues and rowBitmaps)
     int uniqueCount = valueToRows.size();
     int[] sortedValues = new int[uniqueCount];
-    long[][] rowBitmaps = new long[uniqueCount][];
+    CompressedBitmap[] rowBitmaps = new CompressedBitmap[uniqueCount];
 
     int i = 0;
 
     for (var entry : valueToRows.entrySet()) {
       sortedValues[i] = entry.getKey();
-      rowBitmaps[i] = entry.getValue();
+      rowBitmaps[i] = entry.getValue().build();
       i++;
     }
 
-    return new ComparisonIndex(sortedValues, rowBitmaps, operator, noConditionRows);
+    return new ComparisonIndex(
+        sortedValues,
+        rowBitmaps,
+        operator,
+        noConditionRows.build(),
+        CandidateBitmap.longCount(rowCount),
+        cumulativeStride,
+        null,
+        null);
+  }
+
+  /**
+   * Precomputes blank rows OR the first (GT/GTE) or last (LT/LTE) {@code j * stride} threshold
+   * bitmaps for every {@code j}, accumulating densely and compressing at each checkpoint.
+   */
+  private CompressedBitmap[] buildCumulative() {
+    int n = sortedValues.length;
+    CompressedBitmap[] result = new CompressedBitmap[n / stride];
+    long[] accumulator = blankRowBitmap.toWords(longCount);
+    for (int j = 1; j <= n; j++) {
+      rowBitmaps[isPrefix() ? j - 1 : n - j].orInto(accumulator);
+      if (j % stride == 0) {
+        result[j / stride - 1] = CompressedBitmap.fromWords(accumulator);
+      }
+    }
+    return result;
+  }
+
+  /** GT/GTE lookups cover a prefix of the sorted thresholds; LT/LTE cover a suffix. */
+  private boolean isPrefix() {
+    return operator == Operator.GT || operator == Operator.GTE;
+  }
+
+  /** Number of thresholds in {@code [start, end)} answered by a cumulative bitmap. */
+  private int covered(int start, int end) {
+    return stride == 0 || start >= end ? 0 : (end - start) / stride * stride;
+  }
+
+  /** Running row counts of the threshold bitmaps, from the cardinality in each bitmap header. */
+  private static int[] prefixCardinalities(CompressedBitmap[] bitmaps) {
+    int[] prefix = new int[bitmaps.length + 1];
+    for (int i = 0; i < bitmaps.length; i++) {
+      prefix[i + 1] = prefix[i] + bitmaps[i].cardinality();
+    }
+    return prefix;
+  }
+
+  /** Per-row rank table: every non-blank row holds exactly one threshold. */
+  private static IntBuffer rankRows(CompressedBitmap[] bitmaps, int longCount) {
+    int[] ranks = new int[longCount * 64];
+    Arrays.fill(ranks, -1);
+    for (int i = 0; i < bitmaps.length; i++) {
+      bitmaps[i].fillRows(ranks, i);
+    }
+    return IntBuffer.wrap(ranks);
+  }
+
+  /** Blank rows plus the cumulative bitmap covering {@code covered} thresholds. */
+  private CompressedBitmap base(int covered) {
+    return covered == 0 ? blankRowBitmap : cumulative[covered / stride - 1];
   }
 
   /**
@@ -102,13 +234,13 @@ public final class ComparisonIndex implements ColumnIndex {
     return (bitmap[byteIndex] & (1 << bitIndex)) != 0;
   }
 
-  /** Creates a deep copy of a 2D long array. */
-  private static long[][] deepClone(long[][] original) {
-    long[][] copy = new long[original.length][];
+  /** Compresses each dense bitmap of a 2D long array. */
+  private static CompressedBitmap[] compress(long[][] original) {
+    CompressedBitmap[] compressed = new CompressedBitmap[original.length];
     for (int i = 0; i < original.length; i++) {
-      copy[i] = original[i].clone();
+      compressed[i] = CompressedBitmap.fromWords(original[i]);
     }
-    return copy;
+    return compressed;
   }
 
   /**
@@ -116,7 +248,7 @@ public final class ComparisonIndex implements ColumnIndex {
    *
    * <p>Uses binary search to locate the input value's position, then OR-combines bitmaps for all
    * rows whose rule condition is satisfied by the input. Time complexity is O(log n + k * b) where
-   * n is unique values, k is matching values, and b is bitmap length.
+   * n is unique values, k is matching values, and b is the compressed size of each bitmap.
    *
    * <p>Decision table semantics - for a rule with threshold T and input value V:
    *
@@ -129,62 +261,164 @@ public final class ComparisonIndex implements ColumnIndex {
    */
   @Override
   public long[] getCandidates(int inputValue) {
-    int idx = lowerBound(sortedValues, inputValue);
-
-    int start = 0;
-    int endExclusive = sortedValues.length;
-
-    // GT: rule "AGE GT 18" matches when input > 18
-    //     → need thresholds BELOW input (values < inputValue)
-    //     → set endExclusive = idx (same as current LT)
-    //
-    // GTE: rule "AGE GTE 18" matches when input >= 18
-    //     → need thresholds AT OR BELOW input (values <= inputValue)
-    //     → set endExclusive, include equal (same as current LTE)
-    //
-    // LT: rule "AGE LT 65" matches when input < 65
-    //     → need thresholds ABOVE input (values > inputValue)
-    //     → set start = idx, skip equal (same as current GT)
-    //
-    // LTE: rule "AGE LTE 65" matches when input <= 65
-    //     → need thresholds AT OR ABOVE input (values >= inputValue)
-    //     → set start = idx (same as current GTE)
-    switch (operator) {
-      case LT -> {
-        start = idx;
-        if (start < sortedValues.length && sortedValues[start] == inputValue) {
-          start++;
-        }
-      }
+    int start = rangeStart(inputValue);
+    int end = rangeEnd(inputValue);
+    int covered = covered(start, end);
+
+    // Always include blank rows (folded into the cumulative bitmaps)
+    long[] result = base(covered).toWords(longCount);
+
+    // Thresholds not covered by a cumulative bitmap
+    int from = isPrefix() ? start + covered : start;
+    int to = isPrefix() ? end : end - covered;
+    for (int i = from; i < to; i++) {
+      rowBitmaps[i].orInto(result);
+    }
+    return result;
+  }
+
+  @Override
+  public void intersectInto(long[] scratch, int inputValue, int fromWord, int toWord) {
+    int start = rangeStart(inputValue);
+    int end = rangeEnd(inputValue);
+    int covered = covered(start, end);
+    if (isPrefix()) {
+      CompressedBitmap.andUnionInto(
+          scratch, fromWord, toWord, base(covered), rowBitmaps, start + covered, end);
+    } else {
+      CompressedBitmap.andUnionInto(
+          scratch, fromWord, toWord, base(covered), rowBitmaps, start, end - covered);
+    }
+  }
 
-      case LTE -> start = idx;
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Every non-blank row holds exactly one threshold, so the count is the blank rows plus the
+   * rows of the matching threshold range, read from running totals in O(log n).
+   */
+  @Override
+  public int candidateCount(int inputValue) {
+    int start = rangeStart(inputValue);
+    int end = rangeEnd(inputValue);
+    int matching = start < end ? rowsBefore[end] - rowsBefore[start] : 0;
+    return blankRowBitmap.cardinality() + matching;
+  }
 
-      case GT -> endExclusive = idx;
+  /**
+   * {@inheritDoc}
+   *
+   * <p>A blank row always matches; any other row matches when its rank falls in the lookup range,
+   * so the check is one table read whatever the number of thresholds.
+   */
+  @Override
+  public boolean probe(int row, int inputValue) {
+    return admits(rowRanks.get(row), rangeStart(inputValue), rangeEnd(inputValue));
+  }
 
-      case GTE -> {
-        endExclusive = idx;
-        if (endExclusive < sortedValues.length && sortedValues[endExclusive] == inputValue) {
-          endExclusive++;
-        }
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Resolves the lookup range once for all rows.
+   */
+  @Override
+  public int retainProbed(int[] rows, int count, int inputValue) {
+    int start = rangeStart(inputValue);
+    int end = rangeEnd(inputValue);
+    int kept = 0;
+    for (int i = 0; i < count; i++) {
+      if (admits(rowRanks.get(rows[i]), start, end)) {
+        rows[kept++] = rows[i];
       }
+    }
+    return kept;
+  }
+
+  private static boolean admits(int rank, int start, int end) {
+    return rank < 0 || (rank >= start && rank < end);
+  }
+
+  // GT: rule "AGE GT 18" matches when input > 18
+  //     → need thresholds BELOW input (values < inputValue): [0, lowerBound)
+  //
+  // GTE: rule "AGE GTE 18" matches when input >= 18
+  //     → need thresholds AT OR BELOW input (values <= inputValue): [0, upperBound)
+  //
+  // LT: rule "AGE LT 65" matches when input < 65
+  //     → need thresholds ABOVE input (values > inputValue): [upperBound, n)
+  //
+  // LTE: rule "AGE LTE 65" matches when input <= 65
+  //     → need thresholds AT OR ABOVE input (values >= inputValue): [lowerBound, n)
 
+  /** First index of {@link #sortedValues} whose rows the input satisfies. */
+  private int rangeStart(int inputValue) {
+    return switch (operator) {
+      case LT -> upperBound(sortedValues, inputValue);
+      case LTE -> lowerBound(sortedValues, inputValue);
+      case GT, GTE -> 0;
       default -> throw new IllegalStateException("Unsupported operator: " + operator);
-    }
+    };
+  }
+
+  /** Index after the last entry of {@link #sortedValues} whose rows the input satisfies. */
+  private int rangeEnd(int inputValue) {
+    return switch (operator) {
+      case GT -> lowerBound(sortedValues, inputValue);
+      case GTE -> upperBound(sortedValues, inputValue);
+      case LT, LTE -> sortedValues.length;
+      default -> throw new IllegalStateException("Unsupported operator: " + operator);
+    };
+  }
+
+  @Override
+  public ComparisonIndex toDirect() {
+    CompressedBitmap[][] direct =
+        CompressedBitmap.toDirect(rowBitmaps, cumulative, new CompressedBitmap[] {blankRowBitmap});
+    IntBuffer directRanks =
+        ByteBuffer.allocateDirect(rowRanks.capacity() * 4)
+            .asIntBuffer()
+            .put(0, rowRanks, 0, rowRanks.capacity());
+    return new ComparisonIndex(
+        sortedValues, direct[0], operator, direct[2][0], longCount, stride, direct[1], directRanks);
+  }
 
-    // Always include blank rows
-    long[] result = blankRowBitmap.clone();
+  /**
+   * Thresholds between cumulative bitmaps (0 when cumulative mode is off).
+   *
+   * @return the cumulative stride
+   */
+  public int cumulativeStride() {
+    return stride;
+  }
 
-    if (start >= endExclusive) {
-      return result;
+  /** Writes this index's fields (see {@link IndexCodec}). */
+  void writeTo(IndexCodec.Output out) {
+    out.writeOperator(operator);
+    out.writeInt(longCount);
+    out.writeInt(stride);
+    out.writeInt(sortedValues.length);
+    for (int value : sortedValues) {
+      out.writeInt(value);
     }
+    out.writeBitmap(blankRowBitmap);
+    out.writeBitmaps(rowBitmaps);
+    out.writeBitmaps(cumulative);
+  }
 
-    for (int i = start; i < endExclusive; i++) {
-      long[] bitmap = rowBitmaps[i];
-      for (int j = 0; j < result.length; j++) {
-        result[j] |= bitmap[j];
-      }
+  /** Reads an index written by {@link #writeTo}, wrapping its bitmaps in place. */
+  static ComparisonIndex readFrom(IndexCodec.Input in) {
+    Operator operator = in.readOperator();
+    int longCount = in.readInt();
+    int stride = in.readInt();
+    int[] sortedValues = new int[in.readInt()];
+    for (int i = 0; i < sortedValues.length; i++) {
+      sortedValues[i] = in.readInt();
     }
-    return result;
+    CompressedBitmap blankRowBitmap = in.readBitmap();
+    CompressedBitmap[] rowBitmaps = in.readBitmaps();
+    CompressedBitmap[] cumulative = in.readBitmaps();
+    return new ComparisonIndex(
+        sortedValues, rowBitmaps, operator, blankRowBitmap, longCount, stride, cumulative, null);
   }
 
   @Override
@@ -192,17 +426,30 @@ public final class ComparisonIndex implements ColumnIndex {
     // size of sortedValues
     long sizeOfSortedValues = sortedValues.length * 4L;
     // size of rowBitmaps
-    long sizeOfRowBitmaps =
-        rowBitmaps.length == 0 ? 0 : rowBitmaps.length * rowBitmaps[0].length * 8L;
+    long sizeOfRowBitmaps = 0;
+    for (CompressedBitmap bitmap : rowBitmaps) {
+      sizeOfRowBitmaps += bitmap.memorySizeBytes();
+    }
     // size of blankRowBitmaps
-    long sizeOfBlankRowBitmaps = blankRowBitmap.length * 8L;
+    long sizeOfBlankRowBitmaps = blankRowBitmap.memorySizeBytes();
+    // size of cumulative bitmaps (cumulative mode only)
+    long sizeOfCumulative = 0;
+    for (CompressedBitmap bitmap : cumulative) {
+      sizeOfCumulative += bitmap.memorySizeBytes();
+    }
+
+    // size of the per-row rank table
+    long sizeOfRowRanks = rowRanks.capacity() * 4L;
 
-    return sizeOfSortedValues + sizeOfRowBitmaps + sizeOfBlankRowBitmaps;
+    return sizeOfSortedValues
+        + sizeOfRowBitmaps
+        + sizeOfBlankRowBitmaps
+        + sizeOfCumulative
+        + sizeOfRowRanks;
   }
 
   /**
-   * Number of distinct threshold values indexed for this column. Used as a selectivity estimate
-   * (more distinct values generally means each input narrows the candidate set further).
+   * Number of distinct threshold values indexed for this column.
    *
    * @return count of distinct values
    */
@@ -233,4 +480,17 @@ public final class ComparisonIndex implements ColumnIndex {
     }
     return lo;
   }
+
+  /**
+   * Finds the upper bound index for a key in a sorted array: the index of the first element &gt;
+   * key, or values.length if none exists.
+   *
+   * @param values sorted array to search
+   * @param key the value to find the upper bound for
+   * @return index of first element > key, or values.length if none exists
+   */
+  private static int upperBound(int[] values, int key) {
+    int idx = lowerBound(values, key);
+    return idx < values.length && values[idx] == key ? idx + 1 : idx;
+  }
 }
@@ -0,0 +1,1124 @@
+package in.systemhalted.kisoku.runtime.loader.index;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable compressed (Roaring-style) bitmap of row indices, used as the per-value storage of the
+ * column indexes.
+ *
+ * <p>The row space is split into 64K-row chunks. Each non-empty chunk is stored as one container,
+ * whichever of the three representations is smallest for its contents:
+ *
+ * <ul>
+ *   <li>*array* - sorted 16-bit row offsets (sparse chunks, at most 4096 rows)
+ *   <li>*bitmap* - 1024 x 64-bit words (dense chunks)
+ *   <li>*run* - (start, length - 1) pairs of 16-bit offsets (long consecutive row ranges)
+ * </ul>
+ *
+ * <p>Memory is therefore proportional to the number of rows in the set rather than to the table's
+ * row count: a value matching 10 rows of a 5M-row table costs a few dozen bytes instead of the ~625
+ * KB of a dense {@code long[]}.
+ *
+ * <p>Layout (big-endian, read through the buffer with absolute gets like the column decoders):
+ *
+ * <pre>
+ * container_count (4 bytes)
+ * cardinality (4 bytes)
+ * directory[container_count] (12 bytes each):
+ *   key (2 bytes) - chunk number (row >>> 16), ascending
+ *   type (1 byte) - 0 = array, 1 = bitmap, 2 = run
+ *   reserved (1 byte)
+ *   count (4 bytes) - cardinality for array/bitmap, number of runs for run
+ *   payload_offset (4 bytes) - relative to the start of this bitmap
+ * payloads
+ * </pre>
+ *
+ * <p>AND / OR / ANDNOT between two compressed bitmaps work container by container. The {@code
+ * *Into} variants combine a compressed bitmap with a dense {@link CandidateBitmap} word array in
+ * place, which is how evaluation consumes the index. The intersecting variants also take a live
+ * word window {@code [fromWord, toWord)} of the dense bitmap: the caller guarantees every word
+ * outside it is already zero, so only the chunks overlapping the window are read or written.
+ * Instances are immutable and thread-safe.
+ *
+ * <p>Bitmaps are built on the heap; {@link #toDirect} relocates them into a direct buffer so an
+ * index can keep its row sets off-heap (see {@code LoadOptions.withOffHeapIndexes}).
+ */
+public final class CompressedBitmap {
+  /** Rows per container chunk is {@code 1 << CHUNK_BITS}. */
+  static final int CHUNK_BITS = 16;
+
+  /** Number of 64-bit words covering one chunk. */
+  static final int WORDS_PER_CHUNK = 1 << (CHUNK_BITS - 6);
+
+  /** Largest cardinality stored as an array container (beyond this a bitmap is never larger). */
+  static final int MAX_ARRAY_CARDINALITY = 4096;
+
+  static final byte ARRAY = 0;
+  static final byte BITMAP = 1;
+  static final byte RUN = 2;
+
+  private static final int HEADER_SIZE = 8;
+  private static final int ENTRY_SIZE = 12;
+  private static final int BITMAP_PAYLOAD_SIZE = WORDS_PER_CHUNK * 8;
+
+  private static final CompressedBitmap EMPTY = new Writer().finish();
+
+  /** Word loops between the chunk window and the dense bitmap (SIMD when available). */
+  private static final BitmapKernel KERNEL = BitmapKernels.SELECTED;
+
+  /** Per-thread chunk window for the dense combinators; avoids row-count-sized temporaries. */
+  private static final ThreadLocal<long[]> WINDOW =
+      ThreadLocal.withInitial(() -> new long[WORDS_PER_CHUNK]);
+
+  private final ByteBuffer buffer;
+  private final int base;
+  private final int containerCount;
+  private final int cardinality;
+
+  private CompressedBitmap(ByteBuffer buffer, int base) {
+    this.buffer = buffer;
+    this.base = base;
+    this.containerCount = buffer.getInt(base);
+    this.cardinality = buffer.getInt(base + 4);
+  }
+
+  /** Returns the shared empty bitmap. */
+  public static CompressedBitmap empty() {
+    return EMPTY;
+  }
+
+  /** Returns a builder that accepts row indices in ascending order. */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Compresses a dense bitmap (LSB-first words, as produced by {@link CandidateBitmap}).
+   *
+   * @param words the dense bitmap
+   * @return the compressed equivalent
+   */
+  public static CompressedBitmap fromWords(long[] words) {
+    Writer writer = new Writer();
+    for (int from = 0; from < words.length; from += WORDS_PER_CHUNK) {
+      int limit = Math.min(WORDS_PER_CHUNK, words.length - from);
+      writer.addWindow(from / WORDS_PER_CHUNK, words, from, limit);
+    }
+    return writer.finish();
+  }
+
+  /**
+   * Builds a bitmap from strictly ascending row indices.
+   *
+   * @param rows row indices in ascending order, without duplicates
+   * @param count number of leading entries of {@code rows} to use
+   * @return the compressed bitmap
+   */
+  public static CompressedBitmap fromSortedRows(int[] rows, int count) {
+    Writer writer = new Writer();
+    int start = 0;
+    while (start < count) {
+      int key = rows[start] >>> CHUNK_BITS;
+      int end = start + 1;
+      while (end < count && rows[end] >>> CHUNK_BITS == key) {
+        end++;
+      }
+      writer.addSorted(key, rows, start, end);
+      start = end;
+    }
+    return writer.finish();
+  }
+
+  /**
+   * Copies groups of bitmaps into direct (off-heap) buffers and returns views over the copies, in
+   * the same shape as the input. Bitmaps are packed back to back into as few buffers as their total
+   * size allows (one buffer holds at most 2 GB); empty bitmaps map to {@link #empty()}.
+   *
+   * @param groups the bitmaps to relocate
+   * @return the relocated bitmaps, {@code result[g][i]} corresponding to {@code groups[g][i]}
+   */
+  public static CompressedBitmap[][] toDirect(CompressedBitmap[]... groups) {
+    long remaining = 0;
+    for (CompressedBitmap[] group : groups) {
+      for (CompressedBitmap bitmap : group) {
+        remaining += bitmap.isEmpty() ? 0 : bitmap.memorySizeBytes();
+      }
+    }
+
+    CompressedBitmap[][] result = new CompressedBitmap[groups.length][];
+    ByteBuffer target = null;
+    int offset = 0;
+    for (int g = 0; g < groups.length; g++) {
+      result[g] = new CompressedBitmap[groups[g].length];
+      for (int i = 0; i < groups[g].length; i++) {
+        CompressedBitmap bitmap = groups[g][i];
+        if (bitmap.isEmpty()) {
+          result[g][i] = EMPTY;
+          continue;
+        }
+        int size = (int) bitmap.memorySizeBytes();
+        if (target == null || target.capacity() - offset < size) {
+          target = ByteBuffer.allocateDirect((int) Math.min(remaining, Integer.MAX_VALUE - 8));
+          offset = 0;
+        }
+        target.put(offset, bitmap.buffer, bitmap.base, size);
+        result[g][i] = new CompressedBitmap(target, offset);
+        offset += size;
+        remaining -= size;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns a view over a bitmap previously serialized with {@link #serialize()}, reading its
+   * containers in place (no copy). Used to map persisted indexes straight out of an artifact.
+   *
+   * @param buffer the buffer holding the serialized bitmap (big-endian)
+   * @param offset absolute offset of the bitmap's header
+   * @return the bitmap view
+   */
+  static CompressedBitmap wrap(ByteBuffer buffer, int offset) {
+    return new CompressedBitmap(buffer, offset);
+  }
+
+  /** Returns a copy of this bitmap's serialized bytes (the layout described above). */
+  byte[] serialize() {
+    byte[] bytes = new byte[(int) memorySizeBytes()];
+    buffer.get(base, bytes);
+    return bytes;
+  }
+
+  /** Whether this bitmap's containers live in a direct (off-heap) buffer. */
+  public boolean isDirect() {
+    return buffer.isDirect();
+  }
+
+  /** Number of rows in the set. */
+  public int cardinality() {
+    return cardinality;
+  }
+
+  /** Returns true if no rows are in the set. */
+  public boolean isEmpty() {
+    return cardinality == 0;
+  }
+
+  /**
+   * Checks whether a row is in the set.
+   *
+   * @param row the row index
+   * @return true if the row is present
+   */
+  public boolean contains(int row) {
+    if (row < 0) {
+      return false;
+    }
+    int i = findContainer(row >>> CHUNK_BITS);
+    return i >= 0 && containsLow(i, row & 0xFFFF);
+  }
+
+  /**
+   * Container-wise intersection.
+   *
+   * @param other the other bitmap
+   * @return a new bitmap containing this AND other
+   */
+  public CompressedBitmap and(CompressedBitmap other) {
+    Writer writer = new Writer();
+    long[] window = null;
+    int i = 0;
+    int j = 0;
+    while (i < containerCount && j < other.containerCount) {
+      int ka = key(i);
+      int kb = other.key(j);
+      if (ka < kb) {
+        i++;
+      } else if (ka > kb) {
+        j++;
+      } else {
+        if (type(i) == ARRAY) {
+          writer.addFiltered(ka, this, i, other, j, true);
+        } else if (other.type(j) == ARRAY) {
+          writer.addFiltered(ka, other, j, this, i, true);
+        } else {
+          window = readWindow(i, window);
+          other.andContainer(j, window, 0, WORDS_PER_CHUNK);
+          writer.addWindow(ka, window, 0, WORDS_PER_CHUNK);
+        }
+        i++;
+        j++;
+      }
+    }
+    return writer.finish();
+  }
+
+  /**
+   * Container-wise union.
+   *
+   * @param other the other bitmap
+   * @return a new bitmap containing this OR other
+   */
+  public CompressedBitmap or(CompressedBitmap other) {
+    Writer writer = new Writer();
+    long[] window = null;
+    int i = 0;
+    int j = 0;
+    while (i < containerCount || j < other.containerCount) {
+      int ka = i < containerCount ? key(i) : Integer.MAX_VALUE;
+      int kb = j < other.containerCount ? other.key(j) : Integer.MAX_VALUE;
+      if (ka < kb) {
+        writer.copy(this, i++);
+      } else if (ka > kb) {
+        writer.copy(other, j++);
+      } else {
+        window = readWindow(i, window);
+        other.orContainer(j, window, 0, WORDS_PER_CHUNK);
+        writer.addWindow(ka, window, 0, WORDS_PER_CHUNK);
+        i++;
+        j++;
+      }
+    }
+    return writer.finish();
+  }
+
+  /**
+   * Container-wise difference.
+   *
+   * @param other the rows to exclude
+   * @return a new bitmap containing this AND NOT other
+   */
+  public CompressedBitmap andNot(CompressedBitmap other) {
+    Writer writer = new Writer();
+    long[] window = null;
+    int j = 0;
+    for (int i = 0; i < containerCount; i++) {
+      int ka = key(i);
+      while (j < other.containerCount && other.key(j) < ka) {
+        j++;
+      }
+      if (j == other.containerCount || other.key(j) != ka) {
+        writer.copy(this, i);
+      } else if (type(i) == ARRAY) {
+        writer.addFiltered(ka, this, i, other, j, false);
+      } else {
+        window = readWindow(i, window);
+        other.andNotContainer(j, window, 0, WORDS_PER_CHUNK);
+        writer.addWindow(ka, window, 0, WORDS_PER_CHUNK);
+      }
+    }
+    return writer.finish();
+  }
+
+  /**
+   * Intersects a dense bitmap with this set in place ({@code words &= this}). Words outside every
+   * container are cleared.
+   *
+   * @param words the dense bitmap (modified in place)
+   */
+  public void andInto(long[] words) {
+    andInto(words, 0, words.length);
+  }
+
+  /**
+   * Intersects a dense bitmap with this set in place, touching only the chunks that overlap the
+   * live window. Words outside the window must already be zero; they stay zero.
+   *
+   * @param words the dense bitmap (modified in place)
+   * @param fromWord first word of the live window
+   * @param toWord word after the last word of the live window
+   */
+  public void andInto(long[] words, int fromWord, int toWord) {
+    if (fromWord >= toWord) {
+      return;
+    }
+    int next = chunkStart(fromWord);
+    int end = chunkEnd(words, toWord);
+    for (int i = firstContainerAtOrAfter(fromWord / WORDS_PER_CHUNK); i < containerCount; i++) {
+      int from = key(i) * WORDS_PER_CHUNK;
+      if (from >= end) {
+        break;
+      }
+      Arrays.fill(words, next, from, 0L);
+      int limit = Math.min(WORDS_PER_CHUNK, words.length - from);
+      andContainer(i, words, from, limit);
+      next = from + limit;
+    }
+    Arrays.fill(words, next, end, 0L);
+  }
+
+  /**
+   * Adds this set to a dense bitmap in place ({@code words |= this}).
+   *
+   * @param words the dense bitmap (modified in place)
+   */
+  public void orInto(long[] words) {
+    for (int i = 0; i < containerCount; i++) {
+      int from = key(i) * WORDS_PER_CHUNK;
+      if (from >= words.length) {
+        break;
+      }
+      orContainer(i, words, from, Math.min(WORDS_PER_CHUNK, words.length - from));
+    }
+  }
+
+  /**
+   * Removes this set from a dense bitmap in place ({@code words &= ~this}).
+   *
+   * @param words the dense bitmap (modified in place)
+   */
+  public void andNotInto(long[] words) {
+    andNotInto(words, 0, words.length);
+  }
+
+  /**
+   * Removes this set from a dense bitmap in place, touching only the chunks that overlap the live
+   * window. Words outside the window must already be zero; they stay zero.
+   *
+   * @param words the dense bitmap (modified in place)
+   * @param fromWord first word of the live window
+   * @param toWord word after the last word of the live window
+   */
+  public void andNotInto(long[] words, int fromWord, int toWord) {
+    if (fromWord >= toWord) {
+      return;
+    }
+    int end = chunkEnd(words, toWord);
+    for (int i = firstContainerAtOrAfter(fromWord / WORDS_PER_CHUNK); i < containerCount; i++) {
+      int from = key(i) * WORDS_PER_CHUNK;
+      if (from >= end) {
+        break;
+      }
+      andNotContainer(i, words, from, Math.min(WORDS_PER_CHUNK, words.length - from));
+    }
+  }
+
+  /**
+   * Intersects a dense bitmap in place with the union of two compressed bitmaps ({@code words &= a
+   * | b}) without materializing the union.
+   *
+   * @param words the dense bitmap (modified in place)
+   * @param fromWord first word of the live window
+   * @param toWord word after the last word of the live window
+   * @param a first bitmap of the union
+   * @param b second bitmap of the union
+   */
+  public static void andUnionInto(
+      long[] words, int fromWord, int toWord, CompressedBitmap a, CompressedBitmap b) {
+    if (b.isEmpty()) {
+      a.andInto(words, fromWord, toWord);
+    } else if (a.isEmpty()) {
+      b.andInto(words, fromWord, toWord);
+    } else {
+      combineInto(words, fromWord, toWord, a, b, null, null, 0, 0, false);
+    }
+  }
+
+  /**
+   * Intersects a dense bitmap in place with the union of {@code extra} and {@code
+   * bitmaps[from..to)} ({@code words &= extra | bitmaps[from] | ... | bitmaps[to - 1]}).
+   *
+   * <p>The union is built one 64K-row chunk at a time in a thread-local window, so no
+   * row-count-sized temporary is allocated; chunks already empty in {@code words} are skipped.
+   *
+   * @param words the dense bitmap (modified in place)
+   * @param fromWord first word of the live window
+   * @param toWord word after the last word of the live window
+   * @param extra bitmap always included in the union
+   * @param bitmaps further bitmaps of the union
+   * @param from first index of {@code bitmaps} to include
+   * @param to index after the last bitmap to include
+   */
+  public static void andUnionInto(
+      long[] words,
+      int fromWord,
+      int toWord,
+      CompressedBitmap extra,
+      CompressedBitmap[] bitmaps,
+      int from,
+      int to) {
+    if (from >= to) {
+      extra.andInto(words, fromWord, toWord);
+    } else {
+      combineInto(words, fromWord, toWord, extra, null, bitmaps, null, from, to, false);
+    }
+  }
+
+  /**
+   * Intersects a dense bitmap in place with a set described as a base plus deltas: {@code words &=
+   * extra | ((base | adds[from..to)) & ~removes[from..to))}. Used by interval indexes, whose
+   * stabbing set at a point is a checkpointed set plus the intervals that started and minus those
+   * that ended since the checkpoint.
+   *
+   * @param words the dense bitmap (modified in place)
+   * @param fromWord first word of the live window
+   * @param toWord word after the last word of the live window
+   * @param extra bitmap always included (not subject to {@code removes})
+   * @param base checkpointed set
+   * @param adds rows added after the checkpoint
+   * @param removes rows removed after the checkpoint
+   * @param from first delta index
+   * @param to index after the last delta
+   */
+  public static void andDeltaInto(
+      long[] words,
+      int fromWord,
+      int toWord,
+      CompressedBitmap extra,
+      CompressedBitmap base,
+      CompressedBitmap[] adds,
+      CompressedBitmap[] removes,
+      int from,
+      int to) {
+    combineInto(words, fromWord, toWord, extra, base, adds, removes, from, to, false);
+  }
+
+  /**
+   * Removes a set described as a base plus deltas from a dense bitmap in place: {@code words &=
+   * ~((base | adds[from..to)) & ~removes[from..to))}.
+   *
+   * @param words the dense bitmap (modified in place)
+   * @param fromWord first word of the live window
+   * @param toWord word after the last word of the live window
+   * @param base checkpointed set
+   * @param adds rows added after the checkpoint
+   * @param removes rows removed after the checkpoint
+   * @param from first delta index
+   * @param to index after the last delta
+   * @see #andDeltaInto
+   */
+  public static void andNotDeltaInto(
+      long[] words,
+      int fromWord,
+      int toWord,
+      CompressedBitmap base,
+      CompressedBitmap[] adds,
+      CompressedBitmap[] removes,
+      int from,
+      int to) {
+    combineInto(words, fromWord, toWord, null, base, adds, removes, from, to, true);
+  }
+
+  /**
+   * Chunk-at-a-time core of the dense combinators: builds {@code first | ((second | adds) &
+   * ~removes)} for one 64K-row chunk in a thread-local window, then ANDs the window (or its
+   * complement) into {@code words}. Only chunks overlapping the live window are visited, and of
+   * those, chunks already empty in {@code words} are skipped. The emptiness check and the final AND
+   * run on the {@link BitmapKernel}, since both sides are heap word arrays; building the window
+   * reads the containers' byte buffers and stays scalar.
+   */
+  private static void combineInto(
+      long[] words,
+      int fromWord,
+      int toWord,
+      CompressedBitmap first,
+      CompressedBitmap second,
+      CompressedBitmap[] adds,
+      CompressedBitmap[] removes,
+      int from,
+      int to,
+      boolean complement) {
+    if (fromWord >= toWord) {
+      return;
+    }
+    long[] window = WINDOW.get();
+    int end = chunkEnd(words, toWord);
+    for (int start = chunkStart(fromWord), key = start / WORDS_PER_CHUNK;
+        start < end;
+        start += WORDS_PER_CHUNK, key++) {
+      int limit = Math.min(WORDS_PER_CHUNK, words.length - start);
+      if (KERNEL.isEmpty(words, start, start + limit)) {
+        continue;
+      }
+      Arrays.fill(window, 0, limit, 0L);
+      if (second != null) {
+        second.orChunk(key, window, limit);
+      }
+      for (int i = from; i < to; i++) {
+        adds[i].orChunk(key, window, limit);
+      }
+      if (removes != null) {
+        for (int i = from; i < to; i++) {
+          removes[i].andNotChunk(key, window, limit);
+        }
+      }
+      if (first != null) {
+        first.orChunk(key, window, limit);
+      }
+      if (complement) {
+        KERNEL.andNotInto(words, start, window, limit);
+      } else {
+        KERNEL.andInto(words, start, window, limit);
+      }
+    }
+  }
+
+  /** First word of the chunk containing {@code word}. */
+  private static int chunkStart(int word) {
+    return word / WORDS_PER_CHUNK * WORDS_PER_CHUNK;
+  }
+
+  /** Word after the chunk containing {@code toWord - 1}, capped at the bitmap's length. */
+  private static int chunkEnd(long[] words, int toWord) {
+    return Math.min(words.length, chunkStart(toWord - 1) + WORDS_PER_CHUNK);
+  }
+
+  /** Clears the container for chunk {@code key}, if any, from a chunk-sized window. */
+  private void andNotChunk(int key, long[] window, int limit) {
+    int i = findContainer(key);
+    if (i >= 0) {
+      andNotContainer(i, window, 0, limit);
+    }
+  }
+
+  /** ORs the container for chunk {@code key}, if any, into a chunk-sized window. */
+  private void orChunk(int key, long[] window, int limit) {
+    int i = findContainer(key);
+    if (i >= 0) {
+      orContainer(i, window, 0, limit);
+    }
+  }
+
+  /**
+   * Stores {@code value} at every row of this set, for per-row lookup tables.
+   *
+   * @param target table indexed by row, at least as long as the highest row plus one
+   * @param value the value to store
+   */
+  public void fillRows(int[] target, int value) {
+    for (int i = 0; i < containerCount; i++) {
+      int chunk = key(i) << CHUNK_BITS;
+      int p = payload(i);
+      int n = count(i);
+      switch (type(i)) {
+        case BITMAP -> {
+          for (int w = 0; w < WORDS_PER_CHUNK; w++) {
+            for (long word = buffer.getLong(p + w * 8); word != 0; word &= word - 1) {
+              target[chunk + w * 64 + Long.numberOfTrailingZeros(word)] = value;
+            }
+          }
+        }
+        case ARRAY -> {
+          for (int k = 0; k < n; k++) {
+            target[chunk + buffer.getChar(p + k * 2)] = value;
+          }
+        }
+        default -> {
+          for (int r = 0; r < n; r++) {
+            int start = chunk + buffer.getChar(p + r * 4);
+            Arrays.fill(target, start, start + buffer.getChar(p + r * 4 + 2) + 1, value);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Expands this set into a new dense bitmap.
+   *
+   * @param wordCount length of the dense bitmap ({@link CandidateBitmap#longCount})
+   * @return the dense bitmap
+   */
+  public long[] toWords(int wordCount) {
+    long[] words = new long[wordCount];
+    orInto(words);
+    return words;
+  }
+
+  /**
+   * Size of the serialized bitmap in bytes.
+   *
+   * @return header, directory and container payload bytes
+   */
+  public long memorySizeBytes() {
+    long size = HEADER_SIZE + (long) containerCount * ENTRY_SIZE;
+    for (int i = 0; i < containerCount; i++) {
+      size += payloadSize(type(i), count(i));
+    }
+    return size;
+  }
+
+  // Directory access
+
+  private int entry(int i) {
+    return base + HEADER_SIZE + i * ENTRY_SIZE;
+  }
+
+  private int key(int i) {
+    return buffer.getChar(entry(i));
+  }
+
+  private byte type(int i) {
+    return buffer.get(entry(i) + 2);
+  }
+
+  private int count(int i) {
+    return buffer.getInt(entry(i) + 4);
+  }
+
+  private int payload(int i) {
+    return base + buffer.getInt(entry(i) + 8);
+  }
+
+  private int findContainer(int key) {
+    int lo = 0;
+    int hi = containerCount - 1;
+    while (lo <= hi) {
+      int mid = (lo + hi) >>> 1;
+      int k = key(mid);
+      if (k < key) {
+        lo = mid + 1;
+      } else if (k > key) {
+        hi = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -1;
+  }
+
+  /** Position of the first container whose key is at least {@code key}. */
+  private int firstContainerAtOrAfter(int key) {
+    int lo = 0;
+    int hi = containerCount;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (key(mid) < key) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  private int containerCardinality(int i) {
+    if (type(i) != RUN) {
+      return count(i);
+    }
+    int p = payload(i);
+    int card = 0;
+    for (int r = 0; r < count(i); r++) {
+      card += buffer.getChar(p + r * 4 + 2) + 1;
+    }
+    return card;
+  }
+
+  private static int payloadSize(byte type, int count) {
+    return switch (type) {
+      case ARRAY -> count * 2;
+      case BITMAP -> BITMAP_PAYLOAD_SIZE;
+      default -> count * 4;
+    };
+  }
+
+  // Container operations. Offsets within a chunk ("low" values) are 0..65535; word w of a
+  // container covers lows [w * 64, w * 64 + 63].
+
+  private boolean containsLow(int i, int low) {
+    int p = payload(i);
+    int n = count(i);
+    switch (type(i)) {
+      case ARRAY -> {
+        int lo = 0;
+        int hi = n - 1;
+        while (lo <= hi) {
+          int mid = (lo + hi) >>> 1;
+          int v = buffer.getChar(p + mid * 2);
+          if (v < low) {
+            lo = mid + 1;
+          } else if (v > low) {
+            hi = mid - 1;
+          } else {
+            return true;
+          }
+        }
+        return false;
+      }
+      case BITMAP -> {
+        return (buffer.getLong(p + (low >>> 6) * 8) & (1L << low)) != 0;
+      }
+      default -> {
+        // Last run whose start is <= low
+        int lo = 0;
+        int hi = n - 1;
+        int found = -1;
+        while (lo <= hi) {
+          int mid = (lo + hi) >>> 1;
+          if (buffer.getChar(p + mid * 4) <= low) {
+            found = mid;
+            lo = mid + 1;
+          } else {
+            hi = mid - 1;
+          }
+        }
+        return found >= 0
+            && low <= buffer.getChar(p + found * 4) + buffer.getChar(p + found * 4 + 2);
+      }
+    }
+  }
+
+  private void andContainer(int i, long[] words, int from, int limit) {
+    int p = payload(i);
+    int n = count(i);
+    switch (type(i)) {
+      case BITMAP -> {
+        for (int w = 0; w < limit; w++) {
+          words[from + w] &= buffer.getLong(p + w * 8);
+        }
+      }
+      case ARRAY -> {
+        int k = 0;
+        for (int w = 0; w < limit; w++) {
+          long mask = 0L;
+          while (k < n) {
+            int v = buffer.getChar(p + k * 2);
+            if (v >>> 6 != w) {
+              break;
+            }
+            mask |= 1L << v;
+            k++;
+          }
+          words[from + w] &= mask;
+        }
+      }
+      default -> {
+        int r = 0;
+        for (int w = 0; w < limit; w++) {
+          int lo = w << 6;
+          int hi = lo + 63;
+          long mask = 0L;
+          while (r < n) {
+            int start = buffer.getChar(p + r * 4);
+            int end = start + buffer.getChar(p + r * 4 + 2);
+            if (start > hi) {
+              break;
+            }
+            if (end >= lo) {
+              mask |= rangeMask(Math.max(start, lo) - lo, Math.min(end, hi) - lo);
+            }
+            if (end > hi) {
+              break; // run continues into the next word
+            }
+            r++;
+          }
+          words[from + w] &= mask;
+        }
+      }
+    }
+  }
+
+  private void orContainer(int i, long[] words, int from, int limit) {
+    int p = payload(i);
+    int n = count(i);
+    switch (type(i)) {
+      case BITMAP -> {
+        for (int w = 0; w < limit; w++) {
+          words[from + w] |= buffer.getLong(p + w * 8);
+        }
+      }
+      case ARRAY -> {
+        for (int k = 0; k < n; k++) {
+          int v = buffer.getChar(p + k * 2);
+          if (v >>> 6 >= limit) {
+            break;
+          }
+          words[from + (v >>> 6)] |= 1L << v;
+        }
+      }
+      default -> {
+        for (int r = 0; r < n; r++) {
+          int start = buffer.getChar(p + r * 4);
+          applyRange(words, from, limit, start, start + buffer.getChar(p + r * 4 + 2), true);
+        }
+      }
+    }
+  }
+
+  private void andNotContainer(int i, long[] words, int from, int limit) {
+    int p = payload(i);
+    int n = count(i);
+    switch (type(i)) {
+      case BITMAP -> {
+        for (int w = 0; w < limit; w++) {
+          words[from + w] &= ~buffer.getLong(p + w * 8);
+        }
+      }
+      case ARRAY -> {
+        for (int k = 0; k < n; k++) {
+          int v = buffer.getChar(p + k * 2);
+          if (v >>> 6 >= limit) {
+            break;
+          }
+          words[from + (v >>> 6)] &= ~(1L << v);
+        }
+      }
+      default -> {
+        for (int r = 0; r < n; r++) {
+          int start = buffer.getChar(p + r * 4);
+          applyRange(words, from, limit, start, start + buffer.getChar(p + r * 4 + 2), false);
+        }
+      }
+    }
+  }
+
+  /** Expands container {@code i} into a chunk-sized scratch window (allocated on first use). */
+  private long[] readWindow(int i, long[] window) {
+    if (window == null) {
+      window = new long[WORDS_PER_CHUNK];
+    } else {
+      Arrays.fill(window, 0L);
+    }
+    orContainer(i, window, 0, WORDS_PER_CHUNK);
+    return window;
+  }
+
+  /**
+   * Sets or clears lows {@code [start, end]} (inclusive) within a window of {@code limit} words.
+   */
+  private static void applyRange(
+      long[] words, int from, int limit, int start, int end, boolean set) {
+    int last = Math.min(end, limit * 64 - 1);
+    if (start > last) {
+      return;
+    }
+    int firstWord = start >>> 6;
+    int lastWord = last >>> 6;
+    for (int w = firstWord; w <= lastWord; w++) {
+      int a = w == firstWord ? start & 63 : 0;
+      int b = w == lastWord ? last & 63 : 63;
+      long mask = rangeMask(a, b);
+      if (set) {
+        words[from + w] |= mask;
+      } else {
+        words[from + w] &= ~mask;
+      }
+    }
+  }
+
+  /** Word with bits {@code a..b} (inclusive) set. */
+  private static long rangeMask(int a, int b) {
+    return (-1L >>> (63 - b)) & (-1L << a);
+  }
+
+  /** Picks the smallest container representation for a chunk. */
+  private static byte chooseType(int cardinality, int runs) {
+    int arrayBytes = cardinality <= MAX_ARRAY_CARDINALITY ? cardinality * 2 : Integer.MAX_VALUE;
+    int runBytes = runs * 4;
+    if (runBytes < arrayBytes && runBytes < BITMAP_PAYLOAD_SIZE) {
+      return RUN;
+    }
+    return arrayBytes <= BITMAP_PAYLOAD_SIZE ? ARRAY : BITMAP;
+  }
+
+  /**
+   * Accumulates row indices in ascending order. Memory while building is proportional to the number
+   * of rows added, so one builder per distinct column value stays cheap.
+   */
+  public static final class Builder {
+    private int[] rows = new int[4];
+    private int size;
+
+    private Builder() {}
+
+    /**
+     * Adds a row. Rows must arrive in ascending order; re-adding the last row is a no-op.
+     *
+     * @param row the row index
+     * @return this builder
+     */
+    public Builder add(int row) {
+      if (size > 0 && row <= rows[size - 1]) {
+        if (row == rows[size - 1]) {
+          return this;
+        }
+        throw new IllegalArgumentException(
+            "Rows must be added in ascending order: " + row + " after " + rows[size - 1]);
+      }
+      if (size == rows.length) {
+        rows = Arrays.copyOf(rows, size * 2);
+      }
+      rows[size++] = row;
+      return this;
+    }
+
+    /** Builds the compressed bitmap. */
+    public CompressedBitmap build() {
+      return fromSortedRows(rows, size);
+    }
+  }
+
+  /** Collects containers in key order and serializes them into a new buffer. */
+  private static final class Writer {
+    private final List<byte[]> payloads = new ArrayList<>();
+    private final List<long[]> entries = new ArrayList<>(); // {key, type, count}
+    private int cardinality;
+
+    private void add(int key, byte type, int count, byte[] payload, int containerCardinality) {
+      entries.add(new long[] {key, type, count});
+      payloads.add(payload);
+      cardinality += containerCardinality;
+    }
+
+    /** Copies container {@code i} of {@code source} unchanged. */
+    private void copy(CompressedBitmap source, int i) {
+      byte type = source.type(i);
+      int count = source.count(i);
+      byte[] payload = new byte[payloadSize(type, count)];
+      source.buffer.get(source.payload(i), payload);
+      add(source.key(i), type, count, payload, source.containerCardinality(i));
+    }
+
+    /** Adds the array container {@code i} of {@code source}, keeping lows by membership. */
+    private void addFiltered(
+        int key, CompressedBitmap source, int i, CompressedBitmap probe, int j, boolean keep) {
+      int p = source.payload(i);
+      int n = source.count(i);
+      ByteBuffer out = ByteBuffer.allocate(n * 2);
+      int kept = 0;
+      for (int k = 0; k < n; k++) {
+        char v = source.buffer.getChar(p + k * 2);
+        if (probe.containsLow(j, v) == keep) {
+          out.putChar(v);
+          kept++;
+        }
+      }
+      if (kept > 0) {
+        add(key, ARRAY, kept, Arrays.copyOf(out.array(), kept * 2), kept);
+      }
+    }
+
+    /** Adds a chunk given as {@code limit} dense words starting at {@code words[from]}. */
+    private void addWindow(int key, long[] words, int from, int limit) {
+      int card = 0;
+      int runs = 0;
+      long carry = 0L; // top bit of the previous word
+      for (int w = 0; w < limit; w++) {
+        long word = words[from + w];
+        card += Long.bitCount(word);
+        runs += Long.bitCount(word & ~((word << 1) | carry));
+        carry = word >>> 63;
+      }
+      if (card == 0) {
+        return;
+      }
+      byte type = chooseType(card, runs);
+      switch (type) {
+        case ARRAY -> {
+          ByteBuffer out = ByteBuffer.allocate(card * 2);
+          for (int w = 0; w < limit; w++) {
+            long word = words[from + w];
+            while (word != 0L) {
+              out.putChar((char) ((w << 6) + Long.numberOfTrailingZeros(word)));
+              word &= word - 1;
+            }
+          }
+          add(key, ARRAY, card, out.array(), card);
+        }
+        case RUN -> {
+          ByteBuffer out = ByteBuffer.allocate(runs * 4);
+          int bits = limit * 64;
+          int pos = nextBit(words, from, bits, 0, true);
+          while (pos >= 0) {
+            int stop = nextBit(words, from, bits, pos, false);
+            int end = stop < 0 ? bits : stop;
+            out.putChar((char) pos);
+            out.putChar((char) (end - pos - 1));
+            pos = end < bits ? nextBit(words, from, bits, end, true) : -1;
+          }
+          add(key, RUN, runs, out.array(), card);
+        }
+        default -> {
+          ByteBuffer out = ByteBuffer.allocate(BITMAP_PAYLOAD_SIZE);
+          for (int w = 0; w < limit; w++) {
+            out.putLong(w * 8, words[from + w]);
+          }
+          add(key, BITMAP, card, out.array(), card);
+        }
+      }
+    }
+
+    /** Adds a chunk given as ascending rows {@code rows[start, end)} sharing one key. */
+    private void addSorted(int key, int[] rows, int start, int end) {
+      int card = end - start;
+      int runs = 1;
+      for (int k = start + 1; k < end; k++) {
+        if (rows[k] != rows[k - 1] + 1) {
+          runs++;
+        }
+      }
+      byte type = chooseType(card, runs);
+      switch (type) {
+        case ARRAY -> {
+          ByteBuffer out = ByteBuffer.allocate(card * 2);
+          for (int k = start; k < end; k++) {
+            out.putChar((char) rows[k]);
+          }
+          add(key, ARRAY, card, out.array(), card);
+        }
+        case RUN -> {
+          ByteBuffer out = ByteBuffer.allocate(runs * 4);
+          int runStart = start;
+          for (int k = start + 1; k <= end; k++) {
+            if (k == end || rows[k] != rows[k - 1] + 1) {
+              out.putChar((char) rows[runStart]);
+              out.putChar((char) (k - runStart - 1));
+              runStart = k;
+            }
+          }
+          add(key, RUN, runs, out.array(), card);
+        }
+        default -> {
+          long[] window = new long[WORDS_PER_CHUNK];
+          for (int k = start; k < end; k++) {
+            int low = rows[k] & 0xFFFF;
+            window[low >>> 6] |= 1L << low;
+          }
+          addWindow(key, window, 0, WORDS_PER_CHUNK);
+        }
+      }
+    }
+
+    /** Index of the next bit at or after {@code pos} equal to {@code set}, or -1. */
+    private static int nextBit(long[] words, int from, int bits, int pos, boolean set) {
+      while (pos < bits) {
+        long word = words[from + (pos >>> 6)];
+        if (!set) {
+          word = ~word;
+        }
+        word &= -1L << pos;
+        if (word != 0L) {
+          int found = (pos & ~63) + Long.numberOfTrailingZeros(word);
+          return found < bits ? found : -1;
+        }
+        pos = (pos & ~63) + 64;
+      }
+      return -1;
+    }
+
+    private CompressedBitmap finish() {
+      int size = HEADER_SIZE + entries.size() * ENTRY_SIZE;
+      for (byte[] payload : payloads) {
+        size += payload.length;
+      }
+      ByteBuffer out = ByteBuffer.allocate(size);
+      out.putInt(0, entries.size());
+      out.putInt(4, cardinality);
+      int offset = HEADER_SIZE + entries.size() * ENTRY_SIZE;
+      for (int i = 0; i < entries.size(); i++) {
+        long[] e = entries.get(i);
+        int entry = HEADER_SIZE + i * ENTRY_SIZE;
+        out.putChar(entry, (char) e[0]);
+        out.put(entry + 2, (byte) e[1]);
+        out.putInt(entry + 4, (int) e[2]);
+        out.putInt(entry + 8, offset);
+        out.put(offset, payloads.get(i));
+        offset += payloads.get(i).length;
+      }
+      return new CompressedBitmap(out, 0);
+    }
+  }
+}
@@ -1,32 +1,49 @@
 package in.systemhalted.kisoku.runtime.loader.index;
 
-import java.util.HashMap;
-import java.util.Map;
+import in.systemhalted.kisoku.runtime.csv.Operator;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
- * Hash-based index for EQ operator columns.
+ * Hash-based index for EQ and NE operator columns.
  *
- * <p>Maps each unique value to a bitmap of rows containing that value. Rows with blank cells (no
- * condition) are tracked separately and included in all candidate results since blanks match any
- * input.
+ * <p>Maps each unique value to a {@link CompressedBitmap} of rows containing that value, through an
+ * {@link IntSlotTable} so lookups never box the input. Rows with blank cells (no condition) are
+ * tracked separately and included in all candidate results since blanks match any input.
  *
- * <p>Memory usage: ~1 MB for 5M rows with 1000 unique values (1000 bitmaps * 625 KB / 64 shared
- * structure).
+ * <p>For NE, we also track all rows that have conditions (non-blank) so the complement can be
+ * computed the same way {@link SetMembershipIndex} serves NOT_IN.
+ *
+ * <p>Memory usage is proportional to the number of indexed rows rather than unique values x
+ * rowCount: for 5M rows with 1000 unique values, the per-value bitmaps together hold ~5M row
+ * offsets (~10 MB as array containers, less when rows cluster into runs) instead of 1000 dense 625
+ * KB bitmaps.
  */
 public final class EqualityIndex implements ColumnIndex {
-  private final Map<Integer, long[]> valueToRowBitmap;
-  private final long[] noConditionRows;
+  private final IntSlotTable valueSlots; // value -> index into valueBitmaps
+  private final CompressedBitmap[] valueBitmaps;
+  private final CompressedBitmap noConditionRows;
+  private final CompressedBitmap allConditionRows; // empty for EQ
+  private final Operator operator;
   private final int rowCount;
 
   private EqualityIndex(
-      Map<Integer, long[]> valueToRowBitmap, long[] noConditionRows, int rowCount) {
-    this.valueToRowBitmap = Map.copyOf(valueToRowBitmap);
+      IntSlotTable valueSlots,
+      CompressedBitmap[] valueBitmaps,
+      CompressedBitmap noConditionRows,
+      CompressedBitmap allConditionRows,
+      Operator operator,
+      int rowCount) {
+    this.valueSlots = valueSlots;
+    this.valueBitmaps = valueBitmaps;
     this.noConditionRows = noConditionRows;
+    this.allConditionRows = allConditionRows;
+    this.operator = operator;
     this.rowCount = rowCount;
   }
 
   /**
-   * Build an equality index from column data.
+   * Build an equality index for an EQ column.
    *
    * @param values the column values (one per row)
    * @param presenceBitmap the presence bitmap (MSB-first, byte array)
@@ -34,55 +51,188 @@ public final class EqualityIndex implements ColumnIndex {
    * @return the built index
    */
   public static EqualityIndex build(int[] values, byte[] presenceBitmap, int rowCount) {
-    int longCount = CandidateBitmap.longCount(rowCount);
+    return build(values, presenceBitmap, Operator.EQ, rowCount);
+  }
+
+  /**
+   * Build an equality index from column data.
+   *
+   * @param values the column values (one per row)
+   * @param presenceBitmap the presence bitmap (MSB-first, byte array)
+   * @param operator the operator (EQ or NE)
+   * @param rowCount total number of rows
+   * @return the built index
+   */
+  public static EqualityIndex build(
+      int[] values, byte[] presenceBitmap, Operator operator, int rowCount) {
+    if (operator != Operator.EQ && operator != Operator.NE) {
+      throw new IllegalArgumentException("Unsupported operator: " + operator);
+    }
 
     // Track rows with no condition (blank cells)
-    long[] noConditionRows = new long[longCount];
+    CompressedBitmap.Builder noConditionRows = CompressedBitmap.builder();
+
+    // Track all rows with conditions (for NE complement)
+    CompressedBitmap.Builder allConditionRows = CompressedBitmap.builder();
 
-    // Group rows by value
-    Map<Integer, long[]> valueToRows = new HashMap<>();
+    // Group rows by value (rows arrive in ascending order, as the builders require)
+    IntSlotTable valueSlots = new IntSlotTable(16);
+    List<CompressedBitmap.Builder> rowBuilders = new ArrayList<>();
 
     for (int row = 0; row < rowCount; row++) {
       if (isPresent(presenceBitmap, row)) {
         // Row has a condition - add to value's bitmap
-        int value = values[row];
-        long[] bitmap = valueToRows.computeIfAbsent(value, k -> new long[longCount]);
-        CandidateBitmap.set(bitmap, row);
+        if (operator == Operator.NE) {
+          allConditionRows.add(row);
+        }
+        int slot = valueSlots.getOrAdd(values[row]);
+        if (slot == rowBuilders.size()) {
+          rowBuilders.add(CompressedBitmap.builder());
+        }
+        rowBuilders.get(slot).add(row);
       } else {
         // Row has no condition (blank) - always matches
-        CandidateBitmap.set(noConditionRows, row);
+        noConditionRows.add(row);
       }
     }
 
-    return new EqualityIndex(valueToRows, noConditionRows, rowCount);
+    CompressedBitmap[] bitmaps = new CompressedBitmap[rowBuilders.size()];
+    for (int slot = 0; slot < bitmaps.length; slot++) {
+      bitmaps[slot] = rowBuilders.get(slot).build();
+    }
+    return new EqualityIndex(
+        valueSlots, bitmaps, noConditionRows.build(), allConditionRows.build(), operator, rowCount);
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>For EQ: returns rows whose value equals the input, plus blank rows.
+   *
+   * <p>For NE: returns rows whose value differs from the input, plus blank rows. This is computed
+   * as (allConditionRows ANDNOT exactMatch) OR noConditionRows.
+   */
   @Override
   public long[] getCandidates(int inputValue) {
-    long[] exactMatch = valueToRowBitmap.get(inputValue);
+    CompressedBitmap exactMatch = lookup(inputValue);
+    int longCount = CandidateBitmap.longCount(rowCount);
+
+    if (operator == Operator.NE) {
+      // Rows with conditions that aren't the input value
+      long[] result = allConditionRows.toWords(longCount);
+      if (exactMatch != null) {
+        exactMatch.andNotInto(result);
+      }
+      noConditionRows.orInto(result);
+      return result;
+    }
 
-    if (exactMatch == null) {
+    // Always include blank rows
+    long[] result = noConditionRows.toWords(longCount);
+    if (exactMatch != null) {
+      // Rows with exact match OR rows with no condition (blank)
+      exactMatch.orInto(result);
+    }
+    return result;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>For NE, allConditionRows OR noConditionRows covers every row, so the intersection reduces to
+   * removing the rows whose value equals the input.
+   */
+  @Override
+  public void intersectInto(long[] scratch, int inputValue, int fromWord, int toWord) {
+    CompressedBitmap exactMatch = lookup(inputValue);
+    if (operator == Operator.NE) {
+      if (exactMatch != null) {
+        exactMatch.andNotInto(scratch, fromWord, toWord);
+      }
+    } else if (exactMatch == null) {
       // No rows have this exact value - only blank rows match
-      return CandidateBitmap.copy(noConditionRows);
+      noConditionRows.andInto(scratch, fromWord, toWord);
+    } else {
+      CompressedBitmap.andUnionInto(scratch, fromWord, toWord, exactMatch, noConditionRows);
     }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The exact-match rows never include blank rows, so EQ adds the two counts and NE subtracts
+   * the exact matches from every row.
+   */
+  @Override
+  public int candidateCount(int inputValue) {
+    CompressedBitmap exactMatch = lookup(inputValue);
+    int exact = exactMatch == null ? 0 : exactMatch.cardinality();
+    return operator == Operator.NE ? rowCount - exact : noConditionRows.cardinality() + exact;
+  }
 
-    // Return rows with exact match OR rows with no condition (blank)
-    return CandidateBitmap.or(exactMatch, noConditionRows);
+  @Override
+  public boolean probe(int row, int inputValue) {
+    CompressedBitmap exactMatch = lookup(inputValue);
+    if (operator == Operator.NE) {
+      return exactMatch == null || !exactMatch.contains(row);
+    }
+    return noConditionRows.contains(row) || (exactMatch != null && exactMatch.contains(row));
   }
 
   @Override
-  public long memorySizeBytes() {
-    int longCount = CandidateBitmap.longCount(rowCount);
-    long bytesPerBitmap = longCount * 8L;
+  public EqualityIndex toDirect() {
+    CompressedBitmap[][] direct =
+        CompressedBitmap.toDirect(
+            valueBitmaps, new CompressedBitmap[] {noConditionRows, allConditionRows});
+    return new EqualityIndex(valueSlots, direct[0], direct[1][0], direct[1][1], operator, rowCount);
+  }
+
+  /** Writes this index's fields (see {@link IndexCodec}). */
+  void writeTo(IndexCodec.Output out) {
+    out.writeOperator(operator);
+    out.writeInt(rowCount);
+    out.writeInt(valueBitmaps.length);
+    for (int key : valueSlots.keysBySlot()) {
+      out.writeInt(key);
+    }
+    out.writeBitmap(noConditionRows);
+    out.writeBitmap(allConditionRows);
+    for (CompressedBitmap bitmap : valueBitmaps) {
+      out.writeBitmap(bitmap);
+    }
+  }
+
+  /** Reads an index written by {@link #writeTo}, wrapping its bitmaps in place. */
+  static EqualityIndex readFrom(IndexCodec.Input in) {
+    Operator operator = in.readOperator();
+    int rowCount = in.readInt();
+    int valueCount = in.readInt();
+    IntSlotTable valueSlots = new IntSlotTable(valueCount);
+    for (int slot = 0; slot < valueCount; slot++) {
+      valueSlots.getOrAdd(in.readInt());
+    }
+    CompressedBitmap noConditionRows = in.readBitmap();
+    CompressedBitmap allConditionRows = in.readBitmap();
+    CompressedBitmap[] valueBitmaps = new CompressedBitmap[valueCount];
+    for (int slot = 0; slot < valueCount; slot++) {
+      valueBitmaps[slot] = in.readBitmap();
+    }
+    return new EqualityIndex(
+        valueSlots, valueBitmaps, noConditionRows, allConditionRows, operator, rowCount);
+  }
 
+  @Override
+  public long memorySizeBytes() {
     // noConditionRows bitmap
-    long size = bytesPerBitmap;
+    long size = noConditionRows.memorySizeBytes() + allConditionRows.memorySizeBytes();
 
     // All value bitmaps
-    size += valueToRowBitmap.size() * bytesPerBitmap;
+    for (CompressedBitmap bitmap : valueBitmaps) {
+      size += bitmap.memorySizeBytes();
+    }
 
-    // HashMap overhead (~48 bytes per entry for key + value reference)
-    size += valueToRowBitmap.size() * 48L;
+    // Slot table plus bitmap references
+    size += valueSlots.memorySizeBytes() + valueBitmaps.length * 8L;
 
     return size;
   }
@@ -93,7 +243,13 @@ public final class EqualityIndex implements ColumnIndex {
    * @return count of distinct values
    */
   public int uniqueValueCount() {
-    return valueToRowBitmap.size();
+    return valueBitmaps.length;
+  }
+
+  /** Returns the rows holding {@code value}, or null if no row does. */
+  private CompressedBitmap lookup(int value) {
+    int slot = valueSlots.get(value);
+    return slot < 0 ? null : valueBitmaps[slot];
   }
 
   /**
@@ -0,0 +1,188 @@
+package in.systemhalted.kisoku.runtime.loader.index;
+
+import in.systemhalted.kisoku.runtime.csv.Operator;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Serializes built column indexes so they can be persisted in a compiled artifact and mapped back
+ * without rebuilding.
+ *
+ * <p>Each encoded index starts with a kind byte followed by the index's own fields. Per-value
+ * bitmaps are written in the {@link CompressedBitmap} layout, so decoding wraps them in place as
+ * views over the source buffer: decoding a memory-mapped artifact reads only the small per-value
+ * headers (keys, thresholds, endpoints) onto the heap.
+ *
+ * <p>Layout (big-endian):
+ *
+ * <pre>
+ * kind (1 byte) - 1 = equality, 2 = comparison, 3 = range interval, 4 = set membership
+ * fields (per kind; ints are 4 bytes, endpoints 8 bytes, bitmaps self-sized)
+ * </pre>
+ */
+public final class IndexCodec {
+  static final byte EQUALITY = 1;
+  static final byte COMPARISON = 2;
+  static final byte RANGE_INTERVAL = 3;
+  static final byte SET_MEMBERSHIP = 4;
+
+  private IndexCodec() {}
+
+  /**
+   * Serializes an index.
+   *
+   * @param index the index to encode
+   * @return the encoded bytes
+   */
+  public static byte[] encode(ColumnIndex index) {
+    Output out = new Output();
+    switch (index) {
+      case EqualityIndex equality -> {
+        out.writeByte(EQUALITY);
+        equality.writeTo(out);
+      }
+      case ComparisonIndex comparison -> {
+        out.writeByte(COMPARISON);
+        comparison.writeTo(out);
+      }
+      case RangeIntervalIndex range -> {
+        out.writeByte(RANGE_INTERVAL);
+        range.writeTo(out);
+      }
+      case SetMembershipIndex setMembership -> {
+        out.writeByte(SET_MEMBERSHIP);
+        setMembership.writeTo(out);
+      }
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Decodes an index written by {@link #encode}. Bitmaps stay in {@code buffer}, which must remain
+   * valid (and unmodified) for the lifetime of the returned index.
+   *
+   * @param buffer the buffer holding the encoded index (big-endian)
+   * @param offset absolute offset of the kind byte
+   * @return the decoded index
+   */
+  public static ColumnIndex decode(ByteBuffer buffer, int offset) {
+    Input in = new Input(buffer, offset);
+    byte kind = in.readByte();
+    return switch (kind) {
+      case EQUALITY -> EqualityIndex.readFrom(in);
+      case COMPARISON -> ComparisonIndex.readFrom(in);
+      case RANGE_INTERVAL -> RangeIntervalIndex.readFrom(in);
+      case SET_MEMBERSHIP -> SetMembershipIndex.readFrom(in);
+      default -> throw new IllegalArgumentException("Unknown index kind: " + kind);
+    };
+  }
+
+  /** Sequential writer used by the index classes' {@code writeTo} methods. */
+  static final class Output {
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(bytes);
+
+    void writeByte(int value) {
+      try {
+        out.writeByte(value);
+      } catch (IOException e) {
+        throw new IllegalStateException("Failed to write index", e);
+      }
+    }
+
+    void writeInt(int value) {
+      try {
+        out.writeInt(value);
+      } catch (IOException e) {
+        throw new IllegalStateException("Failed to write index", e);
+      }
+    }
+
+    void writeLong(long value) {
+      try {
+        out.writeLong(value);
+      } catch (IOException e) {
+        throw new IllegalStateException("Failed to write index", e);
+      }
+    }
+
+    void writeOperator(Operator operator) {
+      writeByte(operator.ordinal());
+    }
+
+    void writeBitmap(CompressedBitmap bitmap) {
+      try {
+        out.write(bitmap.serialize());
+      } catch (IOException e) {
+        throw new IllegalStateException("Failed to write index", e);
+      }
+    }
+
+    /** Writes a length-prefixed bitmap array. */
+    void writeBitmaps(CompressedBitmap[] bitmaps) {
+      writeInt(bitmaps.length);
+      for (CompressedBitmap bitmap : bitmaps) {
+        writeBitmap(bitmap);
+      }
+    }
+
+    byte[] toByteArray() {
+      try {
+        out.flush();
+      } catch (IOException e) {
+        throw new IllegalStateException("Failed to write index", e);
+      }
+      return bytes.toByteArray();
+    }
+  }
+
+  /**
+   * Sequential reader over absolute buffer offsets, used by the index classes' {@code readFrom}.
+   */
+  static final class Input {
+    private final ByteBuffer buffer;
+    private int position;
+
+    Input(ByteBuffer buffer, int position) {
+      this.buffer = buffer;
+      this.position = position;
+    }
+
+    byte readByte() {
+      return buffer.get(position++);
+    }
+
+    int readInt() {
+      int value = buffer.getInt(position);
+      position += 4;
+      return value;
+    }
+
+    long readLong() {
+      long value = buffer.getLong(position);
+      position += 8;
+      return value;
+    }
+
+    Operator readOperator() {
+      return Operator.values()[readByte() & 0xFF];
+    }
+
+    CompressedBitmap readBitmap() {
+      CompressedBitmap bitmap = CompressedBitmap.wrap(buffer, position);
+      position += (int) bitmap.memorySizeBytes();
+      return bitmap;
+    }
+
+    /** Reads a length-prefixed bitmap array. */
+    CompressedBitmap[] readBitmaps() {
+      CompressedBitmap[] bitmaps = new CompressedBitmap[readInt()];
+      for (int i = 0; i < bitmaps.length; i++) {
+        bitmaps[i] = readBitmap();
+      }
+      return bitmaps;
+    }
+  }
+}
@@ -0,0 +1,121 @@
+package in.systemhalted.kisoku.runtime.loader.index;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash table mapping {@code int} keys to dense slot numbers {@code 0..size-1}.
+ *
+ * <p>The value indexes keep their per-value bitmaps in a plain array and use this table to find a
+ * value's slot, so a lookup on the evaluation path hashes the coerced input directly - no boxing
+ * and no generic hash-table traversal. Keys and slots live in two flat {@code int[]} arrays probed
+ * linearly; the capacity is a power of two kept at least twice the size.
+ *
+ * <p>Slots are only added while an index is being built. Once the owning index is constructed the
+ * table is never mutated again, so it is safely shared by concurrent readers.
+ */
+final class IntSlotTable {
+  private static final int EMPTY = -1;
+
+  private int[] keys;
+  private int[] slots; // EMPTY marks a free entry
+  private int shift; // 32 - log2(capacity)
+  private int size;
+
+  /**
+   * Create a table sized for {@code expectedSize} keys without resizing.
+   *
+   * @param expectedSize expected number of distinct keys
+   */
+  IntSlotTable(int expectedSize) {
+    allocate(Math.max(2, Integer.highestOneBit(Math.max(1, expectedSize) * 2 - 1) << 1));
+  }
+
+  /**
+   * Returns the slot of {@code key}, or -1 if the key is not present.
+   *
+   * @param key the key to find
+   * @return the slot number, or -1
+   */
+  int get(int key) {
+    int mask = keys.length - 1;
+    for (int i = hash(key); ; i = (i + 1) & mask) {
+      int slot = slots[i];
+      if (slot == EMPTY || keys[i] == key) {
+        return slot;
+      }
+    }
+  }
+
+  /**
+   * Returns the slot of {@code key}, assigning the next slot number ({@link #size()}) if the key is
+   * new.
+   *
+   * @param key the key to find or add
+   * @return the slot number
+   */
+  int getOrAdd(int key) {
+    int mask = keys.length - 1;
+    int i = hash(key);
+    while (slots[i] != EMPTY) {
+      if (keys[i] == key) {
+        return slots[i];
+      }
+      i = (i + 1) & mask;
+    }
+    keys[i] = key;
+    slots[i] = size;
+    if (++size * 2 > keys.length) {
+      rehash();
+    }
+    return size - 1;
+  }
+
+  /** Number of keys in the table. */
+  int size() {
+    return size;
+  }
+
+  /** Returns the keys ordered by slot ({@code result[slot]} is the key assigned that slot). */
+  int[] keysBySlot() {
+    int[] result = new int[size];
+    for (int i = 0; i < keys.length; i++) {
+      if (slots[i] != EMPTY) {
+        result[slots[i]] = keys[i];
+      }
+    }
+    return result;
+  }
+
+  /** Heap footprint of the key and slot arrays. */
+  long memorySizeBytes() {
+    return keys.length * 8L;
+  }
+
+  private int hash(int key) {
+    return (key * 0x9E3779B9) >>> shift; // Fibonacci hashing spreads sequential codes
+  }
+
+  private void allocate(int capacity) {
+    keys = new int[capacity];
+    slots = new int[capacity];
+    Arrays.fill(slots, EMPTY);
+    shift = 32 - Integer.numberOfTrailingZeros(capacity);
+  }
+
+  private void rehash() {
+    int[] oldKeys = keys;
+    int[] oldSlots = slots;
+    allocate(oldKeys.length * 2);
+    int mask = keys.length - 1;
+    for (int j = 0; j < oldKeys.length; j++) {
+      if (oldSlots[j] != EMPTY) {
+        int i = hash(oldKeys[j]);
+        while (slots[i] != EMPTY) {
+          i = (i + 1) & mask;
+        }
+        keys[i] = oldKeys[j];
+        slots[i] = oldSlots[j];
+      }
+    }
+  }
+}
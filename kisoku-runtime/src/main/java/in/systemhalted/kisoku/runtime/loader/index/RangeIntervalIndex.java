@@ -0,0 +1,414 @@
+package in.systemhalted.kisoku.runtime.loader.index;
+
+import in.systemhalted.kisoku.runtime.csv.Operator;
+import java.util.Arrays;
+
+/**
+ * Interval index for BETWEEN_* and NOT_BETWEEN_* operator columns.
+ *
+ * <p>Each row's {@code [min, max]} condition is normalized to the half-open interval of input
+ * values it contains: {@code [min, max + 1)} for the inclusive variants and {@code [min + 1, max)}
+ * for the exclusive ones (computed in {@code long}, so {@code Integer.MAX_VALUE} bounds do not
+ * overflow; empty intervals contain no input). The distinct interval endpoints, sorted, cut the
+ * input domain into elementary segments; every input in a segment is contained by the same rows -
+ * the segment's *stabbing set*.
+ *
+ * <p>Storing a stabbing set per segment is quadratic for nested intervals, so the index stores:
+ *
+ * <ul>
+ *   <li>per endpoint, the rows whose interval starts there and the rows whose interval ends there
+ *   <li>the full stabbing set at every {@code checkpointInterval}-th endpoint
+ * </ul>
+ *
+ * <p>A lookup binary-searches the input's segment, then combines the nearest checkpoint with the
+ * starts and ends since it - at most {@code checkpointInterval - 1} of each - one 64K-row chunk at
+ * a time without allocating.
+ *
+ * <p>For BETWEEN the candidates are the stabbing set plus blank rows. For NOT_BETWEEN they are
+ * every row outside the stabbing set: condition rows whose interval misses the input, plus blanks.
+ *
+ * <p>This index is immutable and thread-safe after construction.
+ */
+public final class RangeIntervalIndex implements ColumnIndex {
+
+  /** Default number of endpoints between stored stabbing sets. */
+  public static final int DEFAULT_CHECKPOINT_INTERVAL = 8;
+
+  private final long[] endpoints; // sorted, distinct
+  private final CompressedBitmap[] startsAt; // rows whose interval starts at endpoints[i]
+  private final CompressedBitmap[] endsAt; // rows whose interval ends at endpoints[i]
+  private final CompressedBitmap[] checkpoints; // stabbing set of segment j * interval
+  private final int checkpointInterval;
+  private final int[] stabbingCounts; // size of segment i's stabbing set
+  private final CompressedBitmap noConditionRows;
+  private final Operator operator;
+  private final int rowCount;
+
+  private RangeIntervalIndex(
+      long[] endpoints,
+      CompressedBitmap[] startsAt,
+      CompressedBitmap[] endsAt,
+      CompressedBitmap[] checkpoints,
+      int checkpointInterval,
+      CompressedBitmap noConditionRows,
+      Operator operator,
+      int rowCount) {
+    this.endpoints = endpoints;
+    this.startsAt = startsAt;
+    this.endsAt = endsAt;
+    this.checkpoints = checkpoints;
+    this.checkpointInterval = checkpointInterval;
+    this.stabbingCounts = stabbingCounts(startsAt, endsAt);
+    this.noConditionRows = noConditionRows;
+    this.operator = operator;
+    this.rowCount = rowCount;
+  }
+
+  /**
+   * Build a range interval index from column data with the default checkpoint interval.
+   *
+   * @param minValues the per-row lower bounds
+   * @param maxValues the per-row upper bounds
+   * @param presenceBitmap the presence bitmap (MSB-first, byte array)
+   * @param operator the operator (BETWEEN_* or NOT_BETWEEN_*)
+   * @param rowCount total number of rows
+   * @return the built index
+   */
+  public static RangeIntervalIndex build(
+      int[] minValues, int[] maxValues, byte[] presenceBitmap, Operator operator, int rowCount) {
+    return build(
+        minValues, maxValues, presenceBitmap, operator, rowCount, DEFAULT_CHECKPOINT_INTERVAL);
+  }
+
+  /**
+   * Build a range interval index from column data.
+   *
+   * @param minValues the per-row lower bounds
+   * @param maxValues the per-row upper bounds
+   * @param presenceBitmap the presence bitmap (MSB-first, byte array)
+   * @param operator the operator (BETWEEN_* or NOT_BETWEEN_*)
+   * @param rowCount total number of rows
+   * @param checkpointInterval endpoints between stored stabbing sets (1 stores every segment)
+   * @return the built index
+   */
+  public static RangeIntervalIndex build(
+      int[] minValues,
+      int[] maxValues,
+      byte[] presenceBitmap,
+      Operator operator,
+      int rowCount,
+      int checkpointInterval) {
+    if (checkpointInterval < 1) {
+      throw new IllegalArgumentException("Checkpoint interval must be >= 1: " + checkpointInterval);
+    }
+    boolean inclusive =
+        switch (operator) {
+          case BETWEEN_INCLUSIVE, NOT_BETWEEN_INCLUSIVE -> true;
+          case BETWEEN_EXCLUSIVE, NOT_BETWEEN_EXCLUSIVE -> false;
+          default -> throw new IllegalArgumentException("Unsupported operator: " + operator);
+        };
+
+    // Normalize each condition row to [start, end) and track blank rows
+    CompressedBitmap.Builder noConditionRows = CompressedBitmap.builder();
+    long[] starts = new long[rowCount];
+    long[] ends = new long[rowCount];
+    boolean[] indexed = new boolean[rowCount];
+    long[] allEndpoints = new long[rowCount * 2];
+    int endpointCount = 0;
+
+    for (int row = 0; row < rowCount; row++) {
+      if (!isPresent(presenceBitmap, row)) {
+        // Row has no condition (blank) - always matches
+        noConditionRows.add(row);
+        continue;
+      }
+      long start = inclusive ? minValues[row] : minValues[row] + 1L;
+      long end = inclusive ? maxValues[row] + 1L : maxValues[row];
+      if (start < end) {
+        starts[row] = start;
+        ends[row] = end;
+        indexed[row] = true;
+        allEndpoints[endpointCount++] = start;
+        allEndpoints[endpointCount++] = end;
+      }
+      // Empty intervals contain no input: never in a stabbing set
+    }
+
+    Arrays.sort(allEndpoints, 0, endpointCount);
+    long[] endpoints = distinct(allEndpoints, endpointCount);
+
+    // Per-endpoint deltas (rows arrive in ascending order, as the builders require)
+    CompressedBitmap.Builder[] startBuilders = new CompressedBitmap.Builder[endpoints.length];
+    CompressedBitmap.Builder[] endBuilders = new CompressedBitmap.Builder[endpoints.length];
+    for (int row = 0; row < rowCount; row++) {
+      if (indexed[row]) {
+        builderAt(startBuilders, Arrays.binarySearch(endpoints, starts[row])).add(row);
+        builderAt(endBuilders, Arrays.binarySearch(endpoints, ends[row])).add(row);
+      }
+    }
+    CompressedBitmap[] startsAt = buildAll(startBuilders);
+    CompressedBitmap[] endsAt = buildAll(endBuilders);
+
+    // Sweep the endpoints, keeping the active (stabbing) set densely and compressing checkpoints
+    CompressedBitmap[] checkpoints =
+        new CompressedBitmap[(endpoints.length + checkpointInterval - 1) / checkpointInterval];
+    long[] active = new long[CandidateBitmap.longCount(rowCount)];
+    for (int i = 0; i < endpoints.length; i++) {
+      startsAt[i].orInto(active);
+      endsAt[i].andNotInto(active);
+      if (i % checkpointInterval == 0) {
+        checkpoints[i / checkpointInterval] = CompressedBitmap.fromWords(active);
+      }
+    }
+
+    return new RangeIntervalIndex(
+        endpoints,
+        startsAt,
+        endsAt,
+        checkpoints,
+        checkpointInterval,
+        noConditionRows.build(),
+        operator,
+        rowCount);
+  }
+
+  @Override
+  public long[] getCandidates(int inputValue) {
+    long[] result = CandidateBitmap.allOnes(rowCount);
+    intersectInto(result, inputValue);
+    return result;
+  }
+
+  @Override
+  public void intersectInto(long[] scratch, int inputValue, int fromWord, int toWord) {
+    boolean between =
+        operator == Operator.BETWEEN_INCLUSIVE || operator == Operator.BETWEEN_EXCLUSIVE;
+
+    // Segment i covers [endpoints[i], endpoints[i + 1]); before the first endpoint nothing stabs
+    int segment = upperBound(endpoints, inputValue) - 1;
+    if (segment < 0) {
+      if (between) {
+        noConditionRows.andInto(scratch, fromWord, toWord); // only blank rows match
+      }
+      return; // NOT_BETWEEN: every row matches
+    }
+
+    int checkpoint = segment / checkpointInterval;
+    int from = checkpoint * checkpointInterval + 1;
+    int to = segment + 1;
+    if (between) {
+      CompressedBitmap.andDeltaInto(
+          scratch,
+          fromWord,
+          toWord,
+          noConditionRows,
+          checkpoints[checkpoint],
+          startsAt,
+          endsAt,
+          from,
+          to);
+    } else {
+      CompressedBitmap.andNotDeltaInto(
+          scratch, fromWord, toWord, checkpoints[checkpoint], startsAt, endsAt, from, to);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Reads the size of the input segment's stabbing set, kept per segment from the start and end
+   * counts: BETWEEN adds the blank rows, NOT_BETWEEN takes every other row.
+   */
+  @Override
+  public int candidateCount(int inputValue) {
+    int segment = upperBound(endpoints, inputValue) - 1;
+    int stabbing = segment < 0 ? 0 : stabbingCounts[segment];
+    boolean between =
+        operator == Operator.BETWEEN_INCLUSIVE || operator == Operator.BETWEEN_EXCLUSIVE;
+    return between ? noConditionRows.cardinality() + stabbing : rowCount - stabbing;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Tests the row against the nearest checkpoint's stabbing set and the starts and ends since
+   * it, mirroring the chunk combine of {@link #intersectInto}.
+   */
+  @Override
+  public boolean probe(int row, int inputValue) {
+    boolean between =
+        operator == Operator.BETWEEN_INCLUSIVE || operator == Operator.BETWEEN_EXCLUSIVE;
+    if (between && noConditionRows.contains(row)) {
+      return true;
+    }
+    return between == stabs(row, inputValue);
+  }
+
+  /** Whether the row's interval contains the input (blank and empty intervals never do). */
+  private boolean stabs(int row, int inputValue) {
+    int segment = upperBound(endpoints, inputValue) - 1;
+    if (segment < 0) {
+      return false;
+    }
+    int checkpoint = segment / checkpointInterval;
+    boolean active = checkpoints[checkpoint].contains(row);
+    for (int i = checkpoint * checkpointInterval + 1; i <= segment; i++) {
+      if (endsAt[i].contains(row)) {
+        return false; // Ended at or before the input's segment (starts precede ends)
+      }
+      active |= startsAt[i].contains(row);
+    }
+    return active;
+  }
+
+  @Override
+  public RangeIntervalIndex toDirect() {
+    CompressedBitmap[][] direct =
+        CompressedBitmap.toDirect(
+            startsAt, endsAt, checkpoints, new CompressedBitmap[] {noConditionRows});
+    return new RangeIntervalIndex(
+        endpoints,
+        direct[0],
+        direct[1],
+        direct[2],
+        checkpointInterval,
+        direct[3][0],
+        operator,
+        rowCount);
+  }
+
+  /** Writes this index's fields (see {@link IndexCodec}). */
+  void writeTo(IndexCodec.Output out) {
+    out.writeOperator(operator);
+    out.writeInt(rowCount);
+    out.writeInt(checkpointInterval);
+    out.writeInt(endpoints.length);
+    for (long endpoint : endpoints) {
+      out.writeLong(endpoint);
+    }
+    out.writeBitmap(noConditionRows);
+    out.writeBitmaps(startsAt);
+    out.writeBitmaps(endsAt);
+    out.writeBitmaps(checkpoints);
+  }
+
+  /** Reads an index written by {@link #writeTo}, wrapping its bitmaps in place. */
+  static RangeIntervalIndex readFrom(IndexCodec.Input in) {
+    Operator operator = in.readOperator();
+    int rowCount = in.readInt();
+    int checkpointInterval = in.readInt();
+    long[] endpoints = new long[in.readInt()];
+    for (int i = 0; i < endpoints.length; i++) {
+      endpoints[i] = in.readLong();
+    }
+    CompressedBitmap noConditionRows = in.readBitmap();
+    CompressedBitmap[] startsAt = in.readBitmaps();
+    CompressedBitmap[] endsAt = in.readBitmaps();
+    CompressedBitmap[] checkpoints = in.readBitmaps();
+    return new RangeIntervalIndex(
+        endpoints,
+        startsAt,
+        endsAt,
+        checkpoints,
+        checkpointInterval,
+        noConditionRows,
+        operator,
+        rowCount);
+  }
+
+  @Override
+  public long memorySizeBytes() {
+    // endpoints
+    long size = endpoints.length * 8L;
+
+    // per-endpoint deltas and checkpoints
+    for (CompressedBitmap bitmap : startsAt) {
+      size += bitmap.memorySizeBytes();
+    }
+    for (CompressedBitmap bitmap : endsAt) {
+      size += bitmap.memorySizeBytes();
+    }
+    for (CompressedBitmap bitmap : checkpoints) {
+      size += bitmap.memorySizeBytes();
+    }
+
+    // noConditionRows bitmap
+    size += noConditionRows.memorySizeBytes();
+
+    return size;
+  }
+
+  /**
+   * Number of distinct interval endpoints (one more than the elementary segments).
+   *
+   * @return count of distinct endpoints
+   */
+  public int uniqueValueCount() {
+    return endpoints.length;
+  }
+
+  /**
+   * Sweeps the endpoints as the build does, counting instead of combining rows: an interval never
+   * starts and ends at the same endpoint, and every row ending at an endpoint was active before it.
+   */
+  private static int[] stabbingCounts(CompressedBitmap[] startsAt, CompressedBitmap[] endsAt) {
+    int[] counts = new int[startsAt.length];
+    int active = 0;
+    for (int i = 0; i < startsAt.length; i++) {
+      active += startsAt[i].cardinality() - endsAt[i].cardinality();
+      counts[i] = active;
+    }
+    return counts;
+  }
+
+  private static long[] distinct(long[] sorted, int count) {
+    int unique = 0;
+    for (int i = 0; i < count; i++) {
+      if (unique == 0 || sorted[i] != sorted[unique - 1]) {
+        sorted[unique++] = sorted[i];
+      }
+    }
+    return Arrays.copyOf(sorted, unique);
+  }
+
+  private static CompressedBitmap.Builder builderAt(CompressedBitmap.Builder[] builders, int i) {
+    if (builders[i] == null) {
+      builders[i] = CompressedBitmap.builder();
+    }
+    return builders[i];
+  }
+
+  private static CompressedBitmap[] buildAll(CompressedBitmap.Builder[] builders) {
+    CompressedBitmap[] bitmaps = new CompressedBitmap[builders.length];
+    for (int i = 0; i < builders.length; i++) {
+      bitmaps[i] = builders[i] != null ? builders[i].build() : CompressedBitmap.empty();
+    }
+    return bitmaps;
+  }
+
+  /** Index of the first endpoint greater than {@code key}, or endpoints.length if none. */
+  private static int upperBound(long[] values, long key) {
+    int lo = 0;
+    int hi = values.length;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (values[mid] <= key) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  /**
+   * Check if bit at rowIndex is set in presence bitmap (MSB-first, matching decoder).
+   *
+   * <p>This duplicates BitMapUtils.isPresent to avoid package dependency.
+   */
+  private static boolean isPresent(byte[] bitmap, int rowIndex) {
+    int byteIndex = rowIndex / 8;
+    int bitIndex = 7 - (rowIndex % 8); // MSB-first
+    return (bitmap[byteIndex] & (1 << bitIndex)) != 0;
+  }
+}
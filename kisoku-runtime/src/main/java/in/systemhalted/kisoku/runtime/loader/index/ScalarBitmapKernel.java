@@ -0,0 +1,62 @@
+package in.systemhalted.kisoku.runtime.loader.index;
+
+/** Portable {@link BitmapKernel}: plain loops over the word arrays. */
+final class ScalarBitmapKernel implements BitmapKernel {
+  static final ScalarBitmapKernel INSTANCE = new ScalarBitmapKernel();
+
+  private ScalarBitmapKernel() {}
+
+  @Override
+  public void and(long[] a, long[] b, long[] dst, int len) {
+    for (int i = 0; i < len; i++) {
+      dst[i] = a[i] & b[i];
+    }
+  }
+
+  @Override
+  public void or(long[] a, long[] b, long[] dst, int len) {
+    for (int i = 0; i < len; i++) {
+      dst[i] = a[i] | b[i];
+    }
+  }
+
+  @Override
+  public void andNot(long[] a, long[] b, long[] dst, int len) {
+    for (int i = 0; i < len; i++) {
+      dst[i] = a[i] & ~b[i];
+    }
+  }
+
+  @Override
+  public void andInto(long[] dst, int from, long[] src, int len) {
+    for (int i = 0; i < len; i++) {
+      dst[from + i] &= src[i];
+    }
+  }
+
+  @Override
+  public void andNotInto(long[] dst, int from, long[] src, int len) {
+    for (int i = 0; i < len; i++) {
+      dst[from + i] &= ~src[i];
+    }
+  }
+
+  @Override
+  public int cardinality(long[] a, int from, int to) {
+    int count = 0;
+    for (int i = from; i < to; i++) {
+      count += Long.bitCount(a[i]);
+    }
+    return count;
+  }
+
+  @Override
+  public boolean isEmpty(long[] a, int from, int to) {
+    for (int i = from; i < to; i++) {
+      if (a[i] != 0L) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
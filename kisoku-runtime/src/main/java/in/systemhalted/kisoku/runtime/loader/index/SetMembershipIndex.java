@@ -1,36 +1,40 @@
 package in.systemhalted.kisoku.runtime.loader.index;
 
 import in.systemhalted.kisoku.runtime.csv.Operator;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Inverted index for IN and NOT_IN operator columns.
  *
- * <p>Maps each unique value to a bitmap of rows whose set contains that value. This enables O(1)
- * lookup for any input value. Rows with blank cells (no condition) are tracked separately and
- * included in all candidate results since blanks match any input.
+ * <p>Maps each unique value to a {@link CompressedBitmap} of rows whose set contains that value,
+ * through an {@link IntSlotTable}. This enables O(1) lookup for any input value without boxing.
+ * Rows with blank cells (no condition) are tracked separately and included in all candidate results
+ * since blanks match any input.
  *
  * <p>For NOT_IN operations, we also track all rows that have conditions (non-blank) to compute the
  * complement efficiently.
  *
- * <p>Memory usage: ~1 MB for 5M rows with 1000 unique values across all sets (1000 bitmaps * 625 KB
- * / 64 shared structure).
+ * <p>Memory usage is proportional to the total number of (row, value) memberships, since each
+ * value's bitmap only stores the rows that contain it.
  */
 public final class SetMembershipIndex implements ColumnIndex {
-  private final Map<Integer, long[]> valueToRowBitmap;
-  private final long[] noConditionRows;
-  private final long[] allConditionRows;
+  private final IntSlotTable valueSlots; // value -> index into valueBitmaps
+  private final CompressedBitmap[] valueBitmaps;
+  private final CompressedBitmap noConditionRows;
+  private final CompressedBitmap allConditionRows;
   private final Operator operator;
   private final int rowCount;
 
   private SetMembershipIndex(
-      Map<Integer, long[]> valueToRowBitmap,
-      long[] noConditionRows,
-      long[] allConditionRows,
+      IntSlotTable valueSlots,
+      CompressedBitmap[] valueBitmaps,
+      CompressedBitmap noConditionRows,
+      CompressedBitmap allConditionRows,
       Operator operator,
       int rowCount) {
-    this.valueToRowBitmap = Map.copyOf(valueToRowBitmap);
+    this.valueSlots = valueSlots;
+    this.valueBitmaps = valueBitmaps;
     this.noConditionRows = noConditionRows;
     this.allConditionRows = allConditionRows;
     this.operator = operator;
@@ -55,39 +59,45 @@ public final class SetMembershipIndex implements ColumnIndex {
       byte[] presenceBitmap,
       Operator operator,
       int rowCount) {
-    int longCount = CandidateBitmap.longCount(rowCount);
-
     // Track rows with no condition (blank cells)
-    long[] noConditionRows = new long[longCount];
+    CompressedBitmap.Builder noConditionRows = CompressedBitmap.builder();
 
     // Track all rows with conditions (for NOT_IN complement)
-    long[] allConditionRows = new long[longCount];
+    CompressedBitmap.Builder allConditionRows = CompressedBitmap.builder();
 
-    // Map each unique value to rows containing it
-    Map<Integer, long[]> valueToRows = new HashMap<>();
+    // Map each unique value to rows containing it (rows arrive in ascending order)
+    IntSlotTable valueSlots = new IntSlotTable(16);
+    List<CompressedBitmap.Builder> rowBuilders = new ArrayList<>();
 
     for (int row = 0; row < rowCount; row++) {
       if (isPresent(presenceBitmap, row)) {
         // Row has a condition - mark in allConditionRows
-        CandidateBitmap.set(allConditionRows, row);
+        allConditionRows.add(row);
 
         // Add row to bitmap for each value in its set
         int offset = listOffsets[row];
         int length = listLengths[row] & 0xFFFF; // Convert signed short to unsigned
 
         for (int i = 0; i < length; i++) {
-          int value = allValues[offset + i];
-          long[] bitmap = valueToRows.computeIfAbsent(value, k -> new long[longCount]);
-          CandidateBitmap.set(bitmap, row);
+          int slot = valueSlots.getOrAdd(allValues[offset + i]);
+          if (slot == rowBuilders.size()) {
+            rowBuilders.add(CompressedBitmap.builder());
+          }
+          // Duplicate values within one set re-add the same row, which the builder ignores
+          rowBuilders.get(slot).add(row);
         }
       } else {
         // Row has no condition (blank) - always matches
-        CandidateBitmap.set(noConditionRows, row);
+        noConditionRows.add(row);
       }
     }
 
+    CompressedBitmap[] bitmaps = new CompressedBitmap[rowBuilders.size()];
+    for (int slot = 0; slot < bitmaps.length; slot++) {
+      bitmaps[slot] = rowBuilders.get(slot).build();
+    }
     return new SetMembershipIndex(
-        valueToRows, noConditionRows, allConditionRows, operator, rowCount);
+        valueSlots, bitmaps, noConditionRows.build(), allConditionRows.build(), operator, rowCount);
   }
 
   /**
@@ -100,43 +110,124 @@ public final class SetMembershipIndex implements ColumnIndex {
    */
   @Override
   public long[] getCandidates(int inputValue) {
-    long[] valueMatch = valueToRowBitmap.get(inputValue);
+    CompressedBitmap valueMatch = lookup(inputValue);
+    int longCount = CandidateBitmap.longCount(rowCount);
 
+    long[] result;
     if (operator == Operator.IN) {
-      // IN: return rows containing inputValue OR blank rows
-      if (valueMatch == null) {
-        // No rows contain this value - only blank rows match
-        return CandidateBitmap.copy(noConditionRows);
-      }
-      return CandidateBitmap.or(valueMatch, noConditionRows);
+      // IN: rows containing inputValue (none if no set contains it)
+      result = valueMatch == null ? new long[longCount] : valueMatch.toWords(longCount);
     } else {
-      // NOT_IN: return rows NOT containing inputValue OR blank rows
+      // NOT_IN: rows with conditions that don't contain the value
+      result = allConditionRows.toWords(longCount);
+      if (valueMatch != null) {
+        valueMatch.andNotInto(result);
+      }
+    }
+
+    // Plus blank rows
+    noConditionRows.orInto(result);
+    return result;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>For NOT_IN, allConditionRows OR noConditionRows covers every row, so the intersection
+   * reduces to removing the rows whose set contains the value.
+   */
+  @Override
+  public void intersectInto(long[] scratch, int inputValue, int fromWord, int toWord) {
+    CompressedBitmap valueMatch = lookup(inputValue);
+
+    if (operator == Operator.IN) {
       if (valueMatch == null) {
-        // Value not in any set - all condition rows match (plus blanks)
-        return CandidateBitmap.or(allConditionRows, noConditionRows);
+        // No rows contain this value - only blank rows match
+        noConditionRows.andInto(scratch, fromWord, toWord);
+      } else {
+        CompressedBitmap.andUnionInto(scratch, fromWord, toWord, valueMatch, noConditionRows);
       }
-      // Rows with conditions that don't contain the value, plus blanks
-      long[] notContaining = CandidateBitmap.andNot(allConditionRows, valueMatch);
-      return CandidateBitmap.or(notContaining, noConditionRows);
+    } else if (valueMatch != null) {
+      valueMatch.andNotInto(scratch, fromWord, toWord);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Blank rows hold no set, so IN adds them to the rows containing the value and NOT_IN
+   * subtracts those rows from every row.
+   */
+  @Override
+  public int candidateCount(int inputValue) {
+    CompressedBitmap valueMatch = lookup(inputValue);
+    int match = valueMatch == null ? 0 : valueMatch.cardinality();
+    return operator == Operator.IN ? noConditionRows.cardinality() + match : rowCount - match;
+  }
+
+  @Override
+  public boolean probe(int row, int inputValue) {
+    CompressedBitmap valueMatch = lookup(inputValue);
+    if (operator == Operator.IN) {
+      return noConditionRows.contains(row) || (valueMatch != null && valueMatch.contains(row));
     }
+    return valueMatch == null || !valueMatch.contains(row);
   }
 
   @Override
-  public long memorySizeBytes() {
-    int longCount = CandidateBitmap.longCount(rowCount);
-    long bytesPerBitmap = longCount * 8L;
+  public SetMembershipIndex toDirect() {
+    CompressedBitmap[][] direct =
+        CompressedBitmap.toDirect(
+            valueBitmaps, new CompressedBitmap[] {noConditionRows, allConditionRows});
+    return new SetMembershipIndex(
+        valueSlots, direct[0], direct[1][0], direct[1][1], operator, rowCount);
+  }
 
-    // noConditionRows bitmap
-    long size = bytesPerBitmap;
+  /** Writes this index's fields (see {@link IndexCodec}). */
+  void writeTo(IndexCodec.Output out) {
+    out.writeOperator(operator);
+    out.writeInt(rowCount);
+    out.writeInt(valueBitmaps.length);
+    for (int key : valueSlots.keysBySlot()) {
+      out.writeInt(key);
+    }
+    out.writeBitmap(noConditionRows);
+    out.writeBitmap(allConditionRows);
+    for (CompressedBitmap bitmap : valueBitmaps) {
+      out.writeBitmap(bitmap);
+    }
+  }
+
+  /** Reads an index written by {@link #writeTo}, wrapping its bitmaps in place. */
+  static SetMembershipIndex readFrom(IndexCodec.Input in) {
+    Operator operator = in.readOperator();
+    int rowCount = in.readInt();
+    int valueCount = in.readInt();
+    IntSlotTable valueSlots = new IntSlotTable(valueCount);
+    for (int slot = 0; slot < valueCount; slot++) {
+      valueSlots.getOrAdd(in.readInt());
+    }
+    CompressedBitmap noConditionRows = in.readBitmap();
+    CompressedBitmap allConditionRows = in.readBitmap();
+    CompressedBitmap[] valueBitmaps = new CompressedBitmap[valueCount];
+    for (int slot = 0; slot < valueCount; slot++) {
+      valueBitmaps[slot] = in.readBitmap();
+    }
+    return new SetMembershipIndex(
+        valueSlots, valueBitmaps, noConditionRows, allConditionRows, operator, rowCount);
+  }
 
-    // allConditionRows bitmap
-    size += bytesPerBitmap;
+  @Override
+  public long memorySizeBytes() {
+    long size = noConditionRows.memorySizeBytes() + allConditionRows.memorySizeBytes();
 
     // All value bitmaps
-    size += valueToRowBitmap.size() * bytesPerBitmap;
+    for (CompressedBitmap bitmap : valueBitmaps) {
+      size += bitmap.memorySizeBytes();
+    }
 
-    // HashMap overhead (~48 bytes per entry for key + value reference)
-    size += valueToRowBitmap.size() * 48L;
+    // Slot table plus bitmap references
+    size += valueSlots.memorySizeBytes() + valueBitmaps.length * 8L;
 
     return size;
   }
@@ -147,7 +238,13 @@ public final class SetMembershipIndex implements ColumnIndex {
    * @return count of distinct values
    */
   public int uniqueValueCount() {
-    return valueToRowBitmap.size();
+    return valueBitmaps.length;
+  }
+
+  /** Returns the rows whose set contains {@code value}, or null if none does. */
+  private CompressedBitmap lookup(int value) {
+    int slot = valueSlots.get(value);
+    return slot < 0 ? null : valueBitmaps[slot];
   }
 
   /**
@@ -0,0 +1,124 @@
+package in.systemhalted.kisoku.runtime.loader.index;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link BitmapKernel} on the Java Vector API ({@code jdk.incubator.vector}): each loop processes
+ * {@code LongVector.SPECIES_PREFERRED} lanes per step (4 words on AVX2, 8 on AVX-512) and finishes
+ * the remainder with scalar code.
+ *
+ * <p>Only loaded by {@link BitmapKernels} after it has checked that the incubator module is
+ * present, so the rest of the runtime never links against it.
+ */
+final class VectorBitmapKernel implements BitmapKernel {
+  private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+  /** Vectors OR-ed together between emptiness checks, amortizing the cross-lane reduction. */
+  private static final int EMPTY_CHECK_STRIDE = 8;
+
+  /** True if the preferred species is wide enough to beat the scalar loops. */
+  static boolean isUseful() {
+    return SPECIES.length() >= 2;
+  }
+
+  @Override
+  public void and(long[] a, long[] b, long[] dst, int len) {
+    int i = 0;
+    for (int bound = SPECIES.loopBound(len); i < bound; i += SPECIES.length()) {
+      LongVector.fromArray(SPECIES, a, i)
+          .and(LongVector.fromArray(SPECIES, b, i))
+          .intoArray(dst, i);
+    }
+    for (; i < len; i++) {
+      dst[i] = a[i] & b[i];
+    }
+  }
+
+  @Override
+  public void or(long[] a, long[] b, long[] dst, int len) {
+    int i = 0;
+    for (int bound = SPECIES.loopBound(len); i < bound; i += SPECIES.length()) {
+      LongVector.fromArray(SPECIES, a, i).or(LongVector.fromArray(SPECIES, b, i)).intoArray(dst, i);
+    }
+    for (; i < len; i++) {
+      dst[i] = a[i] | b[i];
+    }
+  }
+
+  @Override
+  public void andNot(long[] a, long[] b, long[] dst, int len) {
+    int i = 0;
+    for (int bound = SPECIES.loopBound(len); i < bound; i += SPECIES.length()) {
+      LongVector.fromArray(SPECIES, a, i)
+          .lanewise(VectorOperators.AND_NOT, LongVector.fromArray(SPECIES, b, i))
+          .intoArray(dst, i);
+    }
+    for (; i < len; i++) {
+      dst[i] = a[i] & ~b[i];
+    }
+  }
+
+  @Override
+  public void andInto(long[] dst, int from, long[] src, int len) {
+    int i = 0;
+    for (int bound = SPECIES.loopBound(len); i < bound; i += SPECIES.length()) {
+      LongVector.fromArray(SPECIES, dst, from + i)
+          .and(LongVector.fromArray(SPECIES, src, i))
+          .intoArray(dst, from + i);
+    }
+    for (; i < len; i++) {
+      dst[from + i] &= src[i];
+    }
+  }
+
+  @Override
+  public void andNotInto(long[] dst, int from, long[] src, int len) {
+    int i = 0;
+    for (int bound = SPECIES.loopBound(len); i < bound; i += SPECIES.length()) {
+      LongVector.fromArray(SPECIES, dst, from + i)
+          .lanewise(VectorOperators.AND_NOT, LongVector.fromArray(SPECIES, src, i))
+          .intoArray(dst, from + i);
+    }
+    for (; i < len; i++) {
+      dst[from + i] &= ~src[i];
+    }
+  }
+
+  @Override
+  public int cardinality(long[] a, int from, int to) {
+    LongVector counts = LongVector.zero(SPECIES);
+    int i = from;
+    for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+      counts = counts.add(LongVector.fromArray(SPECIES, a, i).lanewise(VectorOperators.BIT_COUNT));
+    }
+    long count = counts.reduceLanes(VectorOperators.ADD);
+    for (; i < to; i++) {
+      count += Long.bitCount(a[i]);
+    }
+    return (int) count;
+  }
+
+  @Override
+  public boolean isEmpty(long[] a, int from, int to) {
+    int step = SPECIES.length();
+    int bound = from + SPECIES.loopBound(to - from);
+    int i = from;
+    while (i < bound) {
+      LongVector any = LongVector.zero(SPECIES);
+      for (int end = Math.min(bound, i + EMPTY_CHECK_STRIDE * step); i < end; i += step) {
+        any = any.or(LongVector.fromArray(SPECIES, a, i));
+      }
+      if (any.reduceLanes(VectorOperators.OR) != 0L) {
+        return false;
+      }
+    }
+    for (; i < to; i++) {
+      if (a[i] != 0L) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -7,6 +7,7 @@
 module kisoku.runtime {
   requires kisoku.api;
   requires java.management; // For memory monitoring (MemoryMXBean, BufferPoolMXBean)
+  requires static jdk.incubator.vector; // Optional SIMD bitmap kernel, enabled by --add-modules
 
   provides in.systemhalted.kisoku.api.validation.RulesetValidator with
       in.systemhalted.kisoku.runtime.csv.CsvRulesetValidator;
@@ -0,0 +1,115 @@
+package in.systemhalted.kisoku.functional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import in.systemhalted.kisoku.api.DecisionTableSources;
+import in.systemhalted.kisoku.api.Kisoku;
+import in.systemhalted.kisoku.api.Schema;
+import in.systemhalted.kisoku.api.compilation.CompileOptions;
+import in.systemhalted.kisoku.api.compilation.CompiledRuleset;
+import in.systemhalted.kisoku.api.evaluation.Aggregation;
+import in.systemhalted.kisoku.api.evaluation.DecisionInput;
+import in.systemhalted.kisoku.api.evaluation.DecisionOutput;
+import in.systemhalted.kisoku.api.evaluation.EvaluationException;
+import in.systemhalted.kisoku.api.loading.LoadOptions;
+import in.systemhalted.kisoku.api.loading.LoadedRuleset;
+import in.systemhalted.kisoku.testutil.DecisionTableFixtures;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Functional tests for non-throwing, top-k, all-matches and aggregate evaluation. */
+class CollectEvaluationTest {
+  private static final List<LoadOptions> LOAD_OPTIONS =
+      List.of(
+          LoadOptions.onHeap(),
+          LoadOptions.memoryMap(),
+          LoadOptions.onHeap().withPrewarmIndexes(false));
+
+  private static final DecisionInput APAC_25 =
+      DecisionInput.of(Map.of("AGE", 25, "REGION", "APAC"));
+  private static final DecisionInput NO_MATCH =
+      DecisionInput.of(Map.of("AGE", 70, "REGION", "LATAM"));
+
+  private CompiledRuleset compileUnsortedPriorityTable(Path tempDir) throws IOException {
+    Path csv = DecisionTableFixtures.writeUnsortedPriorityTable(tempDir);
+    Schema schema = DecisionTableFixtures.priorityTableSchema();
+    return Kisoku.compiler()
+        .compile(DecisionTableSources.csv(csv), CompileOptions.production(schema));
+  }
+
+  private static List<String> ruleIds(List<DecisionOutput> outputs) {
+    return outputs.stream().map(DecisionOutput::ruleId).toList();
+  }
+
+  @Test
+  void returnsMatchesInPriorityOrder(@TempDir Path tempDir) throws IOException {
+    CompiledRuleset compiled = compileUnsortedPriorityTable(tempDir);
+
+    for (LoadOptions options : LOAD_OPTIONS) {
+      try (LoadedRuleset ruleset = Kisoku.loader().load(compiled, options)) {
+        List<DecisionOutput> all = ruleset.evaluateAll(APAC_25);
+        assertEquals(List.of("R2", "R3", "R1"), ruleIds(all));
+        assertEquals("0.02", all.get(1).outputs().get("DISCOUNT"));
+
+        assertEquals(List.of("R2"), ruleIds(ruleset.evaluateTopK(APAC_25, 1)));
+        assertEquals(List.of("R2", "R3"), ruleIds(ruleset.evaluateTopK(APAC_25, 2)));
+        assertEquals(List.of("R2", "R3", "R1"), ruleIds(ruleset.evaluateTopK(APAC_25, 10)));
+        assertEquals(ruleset.evaluate(APAC_25).ruleId(), all.get(0).ruleId());
+
+        assertEquals("R2", ruleset.tryEvaluate(APAC_25).orElseThrow().ruleId());
+        assertTrue(ruleset.tryEvaluate(NO_MATCH).isEmpty());
+        assertThrows(EvaluationException.class, () -> ruleset.evaluate(NO_MATCH));
+
+        assertTrue(ruleset.evaluateAll(NO_MATCH).isEmpty());
+        assertTrue(ruleset.evaluateTopK(NO_MATCH, 3).isEmpty());
+      }
+    }
+  }
+
+  @Test
+  void aggregatesOutputColumnOverMatches(@TempDir Path tempDir) throws IOException {
+    CompiledRuleset compiled = compileUnsortedPriorityTable(tempDir);
+
+    for (LoadOptions options : LOAD_OPTIONS) {
+      try (LoadedRuleset ruleset = Kisoku.loader().load(compiled, options)) {
+        assertEquals(
+            Optional.of(new BigDecimal("0.17")),
+            ruleset.aggregate(APAC_25, "DISCOUNT", Aggregation.SUM));
+        assertEquals(
+            Optional.of(new BigDecimal("0.02")),
+            ruleset.aggregate(APAC_25, "DISCOUNT", Aggregation.MIN));
+        assertEquals(
+            Optional.of(new BigDecimal("0.10")),
+            ruleset.aggregate(APAC_25, "DISCOUNT", Aggregation.MAX));
+        assertEquals(
+            Optional.of(BigDecimal.valueOf(3)),
+            ruleset.aggregate(APAC_25, "DISCOUNT", Aggregation.COUNT));
+
+        assertEquals(Optional.empty(), ruleset.aggregate(NO_MATCH, "DISCOUNT", Aggregation.SUM));
+        assertEquals(
+            Optional.of(BigDecimal.ZERO),
+            ruleset.aggregate(NO_MATCH, "DISCOUNT", Aggregation.COUNT));
+      }
+    }
+  }
+
+  @Test
+  void rejectsInvalidRequests(@TempDir Path tempDir) throws IOException {
+    CompiledRuleset compiled = compileUnsortedPriorityTable(tempDir);
+
+    try (LoadedRuleset ruleset = Kisoku.loader().load(compiled, LoadOptions.onHeap())) {
+      assertThrows(IllegalArgumentException.class, () -> ruleset.evaluateTopK(APAC_25, 0));
+      assertThrows(
+          EvaluationException.class,
+          () -> ruleset.aggregate(APAC_25, "REGION", Aggregation.SUM)); // Input, not output
+      assertThrows(
+          EvaluationException.class, () -> ruleset.aggregate(APAC_25, "MISSING", Aggregation.MAX));
+    }
+  }
+}
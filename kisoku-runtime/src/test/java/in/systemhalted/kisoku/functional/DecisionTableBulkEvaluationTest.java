@@ -1,6 +1,7 @@
 package in.systemhalted.kisoku.functional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import in.systemhalted.kisoku.api.DecisionTableSources;
@@ -12,6 +13,7 @@ import in.systemhalted.kisoku.api.compilation.RulesetCompiler;
 import in.systemhalted.kisoku.api.evaluation.BulkResult;
 import in.systemhalted.kisoku.api.evaluation.DecisionInput;
 import in.systemhalted.kisoku.api.evaluation.DecisionOutput;
+import in.systemhalted.kisoku.api.evaluation.EvaluationException;
 import in.systemhalted.kisoku.api.evaluation.RuleSelectionPolicy;
 import in.systemhalted.kisoku.api.loading.LoadOptions;
 import in.systemhalted.kisoku.api.loading.LoadedRuleset;
@@ -21,6 +23,7 @@ import in.systemhalted.kisoku.api.validation.ValidationResult;
 import in.systemhalted.kisoku.testutil.DecisionTableFixtures;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
@@ -64,4 +67,43 @@ class DecisionTableBulkEvaluationTest {
       assertEquals("R3", third.ruleId());
     }
   }
+
+  @Test
+  void factoredBaseMatchesMergedEvaluation(@TempDir Path tempDir) throws IOException {
+    Path csv = DecisionTableFixtures.writeUnsortedPriorityTable(tempDir);
+    Schema schema = DecisionTableFixtures.priorityTableSchema();
+    CompiledRuleset compiled =
+        compiler.compile(DecisionTableSources.csv(csv), CompileOptions.production(schema));
+
+    DecisionInput base = DecisionInput.of(Map.of("REGION", "APAC", "AGE", 30));
+    List<DecisionInput> variants =
+        List.of(
+            DecisionInput.of(Map.of()),
+            DecisionInput.of(Map.of("AGE", 25)),
+            DecisionInput.of(Map.of("AGE", 25, "REGION", "LATAM")),
+            DecisionInput.of(Map.of("AGE", 50, "REGION", "LATAM")),
+            DecisionInput.of(Map.of("REGION", "EMEA")));
+
+    for (LoadOptions options :
+        List.of(
+            LoadOptions.onHeap(),
+            LoadOptions.memoryMap(),
+            LoadOptions.onHeap().withPrewarmIndexes(false))) {
+      try (LoadedRuleset ruleset = loader.load(compiled, options)) {
+        List<DecisionOutput> results = ruleset.evaluateBulk(base, variants).results();
+        assertEquals(variants.size(), results.size());
+        for (int i = 0; i < variants.size(); i++) {
+          Map<String, Object> merged = new HashMap<>(base.values());
+          merged.putAll(variants.get(i).values());
+          DecisionOutput expected = ruleset.evaluate(DecisionInput.of(merged));
+          assertEquals(expected.ruleId(), results.get(i).ruleId(), "variant " + i);
+          assertEquals(expected.outputs(), results.get(i).outputs(), "variant " + i);
+        }
+
+        List<DecisionInput> unmatched =
+            List.of(DecisionInput.of(Map.of("AGE", 70, "REGION", "LATAM")));
+        assertThrows(EvaluationException.class, () -> ruleset.evaluateBulk(base, unmatched));
+      }
+    }
+  }
 }
@@ -20,6 +20,7 @@ import in.systemhalted.kisoku.api.validation.ValidationResult;
 import in.systemhalted.kisoku.testutil.DecisionTableFixtures;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -50,6 +51,32 @@ class DecisionTableLifecycleTest {
     }
   }
 
+  @Test
+  void selectsHighestPriorityWhenRowsAreOutOfOrder(@TempDir Path tempDir) throws IOException {
+    Path csv = DecisionTableFixtures.writeUnsortedPriorityTable(tempDir);
+    Schema schema = DecisionTableFixtures.priorityTableSchema();
+
+    CompiledRuleset compiled =
+        compiler.compile(
+            DecisionTableSources.csv(csv),
+            CompileOptions.production(schema).withRuleSelection(RuleSelectionPolicy.AUTO));
+
+    for (LoadOptions options :
+        List.of(
+            LoadOptions.onHeap(),
+            LoadOptions.memoryMap(),
+            LoadOptions.onHeap().withPrewarmIndexes(false))) {
+      try (LoadedRuleset ruleset = loader.load(compiled, options)) {
+        DecisionInput input = DecisionInput.of(Map.of("AGE", 25, "REGION", "APAC"));
+        assertEquals("R2", ruleset.evaluate(input).ruleId());
+
+        // R2 excluded: R3 (priority 20) beats R1 (priority 10)
+        input = DecisionInput.of(Map.of("AGE", 25, "REGION", "LATAM"));
+        assertEquals("R3", ruleset.evaluate(input).ruleId());
+      }
+    }
+  }
+
   @Test
   void fallsBackToFirstMatchWhenPriorityMissing(@TempDir Path tempDir) throws IOException {
     Path csv = DecisionTableFixtures.writeFirstMatchTable(tempDir);
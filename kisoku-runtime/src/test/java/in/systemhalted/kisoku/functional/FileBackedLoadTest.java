@@ -75,6 +75,47 @@ class FileBackedLoadTest {
     }
   }
 
+  @Test
+  void persistedIndexesLoadLikeRebuiltIndexes(@TempDir Path tempDir) throws IOException {
+    CompiledRuleset compiled = compileSample(tempDir);
+    CompiledRuleset persisted =
+        Kisoku.compiler()
+            .compile(
+                DecisionTableSources.csv(tempDir.resolve("sample.csv")),
+                CompileOptions.production(
+                        Schema.builder()
+                            .column("REGION", ColumnType.STRING)
+                            .column("AGE", ColumnType.INTEGER)
+                            .column("DISCOUNT", ColumnType.DECIMAL)
+                            .build())
+                    .withPersistedIndexes(true));
+    Path artifact = tempDir.resolve("indexed.kss");
+    persisted.writeTo(artifact);
+
+    List<Map<String, Object>> inputs =
+        List.of(
+            Map.of("REGION", "APAC", "AGE", 40),
+            Map.of("REGION", "US", "AGE", 50),
+            Map.of("REGION", "ANTARCTICA", "AGE", 25),
+            Map.of("REGION", "EMEA", "AGE", 10));
+
+    try (LoadedRuleset rebuilt = loader.load(compiled, LoadOptions.onHeap());
+        LoadedRuleset fromFile = loader.load(artifact, LoadOptions.memoryMap());
+        LoadedRuleset fromMemory = loader.load(persisted, LoadOptions.onHeap());
+        LoadedRuleset offHeap =
+            loader.load(persisted, LoadOptions.onHeap().withOffHeapIndexes(true))) {
+      for (Map<String, Object> values : inputs) {
+        DecisionInput input = DecisionInput.of(values);
+        DecisionOutput expected = rebuilt.evaluate(input);
+        for (LoadedRuleset ruleset : List.of(fromFile, fromMemory, offHeap)) {
+          DecisionOutput actual = ruleset.evaluate(input);
+          assertEquals(expected.ruleId(), actual.ruleId(), "ruleId mismatch for " + values);
+          assertEquals(expected.outputs(), actual.outputs(), "outputs mismatch for " + values);
+        }
+      }
+    }
+  }
+
   @Test
   void concurrentEvaluationOnMappedRulesetIsConsistent(@TempDir Path tempDir) throws Exception {
     CompiledRuleset compiled = compileSample(tempDir);
@@ -21,8 +21,11 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
@@ -176,6 +179,47 @@ class IndexedEvaluationTest {
     }
   }
 
+  @Test
+  void sparseCandidateModeMatchesLinear(@TempDir Path tempDir) throws IOException {
+    // GROUP leaves ~125 candidates (dense); CODE then cuts them to a few, switching evaluation to a
+    // sparse row list before LEVEL, which is then checked per row instead of intersected.
+    Path csv = tempDir.resolve("sparse.csv");
+    try (BufferedWriter w = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+      w.write("RULE_ID,GROUP,CODE,LEVEL,RESULT\n");
+      w.write("RULE_ID,EQ,EQ,GTE,SET\n");
+      for (int row = 0; row < 500; row++) {
+        String code = row % 25 == 0 ? "" : "C" + row % 50; // some blank CODE cells
+        w.write("R" + row + ",G" + row % 4 + "," + code + "," + row % 7 + ",V" + row + "\n");
+      }
+    }
+    Schema schema =
+        Schema.builder()
+            .column("GROUP", ColumnType.STRING)
+            .column("CODE", ColumnType.STRING)
+            .column("LEVEL", ColumnType.INTEGER)
+            .column("RESULT", ColumnType.STRING)
+            .build();
+    CompiledRuleset compiled =
+        compiler.compile(DecisionTableSources.csv(csv), CompileOptions.production(schema));
+
+    try (LoadedRuleset indexedRuleset = loader.load(compiled, LoadOptions.memoryMap());
+        LoadedRuleset linearRuleset =
+            loader.load(compiled, LoadOptions.memoryMap().withPrewarmIndexes(false))) {
+      for (int group = 0; group < 5; group++) {
+        for (int code = 0; code < 52; code += 3) {
+          for (int level = 0; level < 8; level += 2) {
+            DecisionInput input =
+                DecisionInput.of(Map.of("GROUP", "G" + group, "CODE", "C" + code, "LEVEL", level));
+            assertEquals(
+                linearRuleset.tryEvaluate(input).map(DecisionOutput::ruleId),
+                indexedRuleset.tryEvaluate(input).map(DecisionOutput::ruleId),
+                "Input: " + input.values());
+          }
+        }
+      }
+    }
+  }
+
   // ============================================================
   // Phase 2: Comparison Operator Tests (GT, GTE, LT, LTE)
   // ============================================================
@@ -251,6 +295,211 @@ class IndexedEvaluationTest {
     }
   }
 
+  @Test
+  void cumulativeComparisonIndexesMatchLinear(@TempDir Path tempDir) throws IOException {
+    Path csv = writeAllComparisonOperatorsTable(tempDir);
+    Schema schema = allComparisonOperatorsSchema();
+
+    CompiledRuleset compiled =
+        compiler.compile(DecisionTableSources.csv(csv), CompileOptions.production(schema));
+
+    List<Map<String, Object>> testInputs =
+        List.of(
+            Map.of("MIN_AGE", 20, "MAX_AGE", 50, "SCORE", 80, "LEVEL", 5),
+            Map.of("MIN_AGE", 18, "MAX_AGE", 65, "SCORE", 50, "LEVEL", 3),
+            Map.of("MIN_AGE", 25, "MAX_AGE", 30, "SCORE", 90, "LEVEL", 10),
+            Map.of("MIN_AGE", 10, "MAX_AGE", 100, "SCORE", 10, "LEVEL", 1));
+
+    try (LoadedRuleset linearRuleset =
+        loader.load(compiled, LoadOptions.onHeap().withPrewarmIndexes(false))) {
+      for (int stride : new int[] {1, 2}) {
+        try (LoadedRuleset cumulativeRuleset =
+            loader.load(compiled, LoadOptions.onHeap().withComparisonIndexStride(stride))) {
+          for (Map<String, Object> inputValues : testInputs) {
+            DecisionInput input = DecisionInput.of(inputValues);
+
+            assertEquals(
+                linearRuleset.evaluate(input).ruleId(),
+                cumulativeRuleset.evaluate(input).ruleId(),
+                "Rule ID mismatch for stride " + stride + ", input: " + inputValues);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  void offHeapIndexesMatchLinear(@TempDir Path tempDir) throws IOException {
+    Path csv = writeAllComparisonOperatorsTable(tempDir);
+    Schema schema = allComparisonOperatorsSchema();
+
+    CompiledRuleset compiled =
+        compiler.compile(DecisionTableSources.csv(csv), CompileOptions.production(schema));
+
+    List<Map<String, Object>> testInputs =
+        List.of(
+            Map.of("MIN_AGE", 20, "MAX_AGE", 50, "SCORE", 80, "LEVEL", 5),
+            Map.of("MIN_AGE", 18, "MAX_AGE", 65, "SCORE", 50, "LEVEL", 3),
+            Map.of("MIN_AGE", 25, "MAX_AGE", 30, "SCORE", 90, "LEVEL", 10),
+            Map.of("MIN_AGE", 10, "MAX_AGE", 100, "SCORE", 10, "LEVEL", 1));
+
+    try (LoadedRuleset linearRuleset =
+        loader.load(compiled, LoadOptions.onHeap().withPrewarmIndexes(false))) {
+      for (LoadOptions options :
+          List.of(
+              LoadOptions.memoryMap().withOffHeapIndexes(true),
+              LoadOptions.memoryMap().withOffHeapIndexes(true).withComparisonIndexStride(2))) {
+        try (LoadedRuleset offHeapRuleset = loader.load(compiled, options)) {
+          for (Map<String, Object> inputValues : testInputs) {
+            DecisionInput input = DecisionInput.of(inputValues);
+
+            assertEquals(
+                linearRuleset.evaluate(input).ruleId(),
+                offHeapRuleset.evaluate(input).ruleId(),
+                "Rule ID mismatch for input: " + inputValues);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  void parallelIndexBuildMatchesSequential(@TempDir Path tempDir) throws IOException {
+    Path csv = writeAllComparisonOperatorsTable(tempDir);
+    Schema schema = allComparisonOperatorsSchema();
+
+    CompiledRuleset compiled =
+        compiler.compile(DecisionTableSources.csv(csv), CompileOptions.production(schema));
+
+    List<Map<String, Object>> testInputs =
+        List.of(
+            Map.of("MIN_AGE", 20, "MAX_AGE", 50, "SCORE", 80, "LEVEL", 5),
+            Map.of("MIN_AGE", 18, "MAX_AGE", 65, "SCORE", 50, "LEVEL", 3),
+            Map.of("MIN_AGE", 25, "MAX_AGE", 30, "SCORE", 90, "LEVEL", 10),
+            Map.of("MIN_AGE", 10, "MAX_AGE", 100, "SCORE", 10, "LEVEL", 1));
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try (LoadedRuleset sequential = loader.load(compiled, LoadOptions.onHeap());
+        LoadedRuleset parallel =
+            loader.load(compiled, LoadOptions.memoryMap().withIndexBuildExecutor(executor))) {
+      assertEquals(
+          List.of("MIN_AGE", "MAX_AGE", "SCORE", "LEVEL"),
+          List.copyOf(parallel.indexBuildTimes().keySet()));
+      assertEquals(sequential.indexBuildTimes().keySet(), parallel.indexBuildTimes().keySet());
+
+      for (Map<String, Object> inputValues : testInputs) {
+        DecisionInput input = DecisionInput.of(inputValues);
+
+        assertEquals(
+            sequential.evaluate(input).ruleId(),
+            parallel.evaluate(input).ruleId(),
+            "Rule ID mismatch for input: " + inputValues);
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    try (LoadedRuleset lazy =
+        loader.load(compiled, LoadOptions.onHeap().withPrewarmIndexes(false))) {
+      assertTrue(lazy.indexBuildTimes().isEmpty());
+    }
+  }
+
+  @Test
+  void lazyIndexesServeBeforeAndAfterPublishing(@TempDir Path tempDir) throws IOException {
+    Path csv = writeAllComparisonOperatorsTable(tempDir);
+    Schema schema = allComparisonOperatorsSchema();
+
+    CompiledRuleset compiled =
+        compiler.compile(DecisionTableSources.csv(csv), CompileOptions.production(schema));
+
+    List<Map<String, Object>> testInputs =
+        List.of(
+            Map.of("MIN_AGE", 20, "MAX_AGE", 50, "SCORE", 80, "LEVEL", 5),
+            Map.of("MIN_AGE", 18, "MAX_AGE", 65, "SCORE", 50, "LEVEL", 3),
+            Map.of("MIN_AGE", 25, "MAX_AGE", 30, "SCORE", 90, "LEVEL", 10),
+            Map.of("MIN_AGE", 10, "MAX_AGE", 100, "SCORE", 10, "LEVEL", 1));
+
+    List<Runnable> pending = new ArrayList<>();
+    try (LoadedRuleset eager = loader.load(compiled, LoadOptions.onHeap());
+        LoadedRuleset background =
+            loader.load(
+                compiled,
+                LoadOptions.onHeap().withLazyIndexes(true).withIndexBuildExecutor(pending::add));
+        LoadedRuleset firstTouch =
+            loader.load(compiled, LoadOptions.memoryMap().withLazyIndexes(true))) {
+      assertTrue(background.indexBuildTimes().isEmpty());
+      assertTrue(firstTouch.indexBuildTimes().isEmpty());
+
+      for (int round = 0; round < 2; round++) {
+        for (Map<String, Object> inputValues : testInputs) {
+          DecisionInput input = DecisionInput.of(inputValues);
+          String expected = eager.evaluate(input).ruleId();
+
+          assertEquals(expected, background.evaluate(input).ruleId(), "Input: " + inputValues);
+          assertEquals(expected, firstTouch.evaluate(input).ruleId(), "Input: " + inputValues);
+        }
+        // Publish the background indexes between rounds
+        pending.forEach(Runnable::run);
+      }
+
+      assertEquals(eager.indexBuildTimes().keySet(), background.indexBuildTimes().keySet());
+      assertEquals(eager.indexBuildTimes().keySet(), firstTouch.indexBuildTimes().keySet());
+    }
+  }
+
+  @Test
+  void indexedEvaluationWithRangeOperators(@TempDir Path tempDir) throws IOException {
+    Path csv = tempDir.resolve("range.csv");
+    try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+      writer.write("RULE_ID,PRIORITY,AGE,AMOUNT,SCORE,BAND,TIER\n");
+      writer.write(
+          "RULE_ID,PRIORITY,BETWEEN_INCLUSIVE,BETWEEN_EXCLUSIVE,NOT_BETWEEN_INCLUSIVE,"
+              + "NOT_BETWEEN_EXCLUSIVE,SET\n");
+      writer.write("R1,90,(18,25),(100,500),(0,10),,A\n");
+      writer.write("R2,80,(26,40),,(50,60),(1,3),B\n");
+      writer.write("R3,70,,(0,100),,(5,9),C\n");
+      writer.write("R4,60,(18,65),(499,1000),(90,100),,D\n");
+      writer.write("R5,10,,,,,DEFAULT\n");
+    }
+    Schema schema =
+        Schema.builder()
+            .column("AGE", ColumnType.INTEGER)
+            .column("AMOUNT", ColumnType.INTEGER)
+            .column("SCORE", ColumnType.INTEGER)
+            .column("BAND", ColumnType.INTEGER)
+            .column("TIER", ColumnType.STRING)
+            .build();
+
+    ValidationResult validation = validator.validate(DecisionTableSources.csv(csv), schema);
+    assertTrue(validation.isOk(), () -> "Validation failed: " + validation.issues());
+
+    CompiledRuleset compiled =
+        compiler.compile(DecisionTableSources.csv(csv), CompileOptions.production(schema));
+
+    try (LoadedRuleset indexedRuleset = loader.load(compiled, LoadOptions.memoryMap())) {
+      try (LoadedRuleset linearRuleset =
+          loader.load(compiled, LoadOptions.memoryMap().withPrewarmIndexes(false))) {
+        for (int age : new int[] {17, 18, 25, 26, 40, 65, 66}) {
+          for (int amount : new int[] {0, 50, 100, 101, 499, 500, 1000}) {
+            for (int score : new int[] {5, 10, 11, 55, 95}) {
+              for (int band : new int[] {1, 2, 5, 7}) {
+                DecisionInput input =
+                    DecisionInput.of(
+                        Map.of("AGE", age, "AMOUNT", amount, "SCORE", score, "BAND", band));
+
+                assertEquals(
+                    linearRuleset.evaluate(input).ruleId(),
+                    indexedRuleset.evaluate(input).ruleId(),
+                    "Rule ID mismatch for input: " + input.values());
+              }
+            }
+          }
+        }
+      }
+    }
+  }
+
   @Test
   void indexedEvaluationComparisonEdgeCases(@TempDir Path tempDir) throws IOException {
     Path csv = writeComparisonEdgeCaseTable(tempDir);
@@ -416,6 +665,54 @@ class IndexedEvaluationTest {
     }
   }
 
+  @Test
+  void indexedEvaluationWithNeOperator(@TempDir Path tempDir) throws IOException {
+    Path csv = tempDir.resolve("not-equal.csv");
+    try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+      writer.write("RULE_ID,PRIORITY,CHANNEL,LEVEL,RATE\n");
+      writer.write("RULE_ID,PRIORITY,NE,NE,SET\n");
+      writer.write("R1,40,WEB,1,0.10\n");
+      writer.write("R2,30,STORE,,0.20\n");
+      writer.write("R3,20,,2,0.30\n");
+      writer.write("R4,10,,,0.00\n");
+    }
+    Schema schema =
+        Schema.builder()
+            .column("CHANNEL", ColumnType.STRING)
+            .column("LEVEL", ColumnType.INTEGER)
+            .column("RATE", ColumnType.DECIMAL)
+            .build();
+
+    ValidationResult validation = validator.validate(DecisionTableSources.csv(csv), schema);
+    assertTrue(validation.isOk(), () -> "Validation failed: " + validation.issues());
+
+    CompiledRuleset compiled =
+        compiler.compile(DecisionTableSources.csv(csv), CompileOptions.production(schema));
+
+    try (LoadedRuleset indexedRuleset = loader.load(compiled, LoadOptions.memoryMap())) {
+      try (LoadedRuleset linearRuleset =
+          loader.load(compiled, LoadOptions.memoryMap().withPrewarmIndexes(false))) {
+        for (String channel : new String[] {"WEB", "STORE", "PHONE"}) {
+          for (int level : new int[] {1, 2, 3}) {
+            DecisionInput input = DecisionInput.of(Map.of("CHANNEL", channel, "LEVEL", level));
+
+            DecisionOutput indexedResult = indexedRuleset.evaluate(input);
+            DecisionOutput linearResult = linearRuleset.evaluate(input);
+
+            assertEquals(
+                linearResult.ruleId(),
+                indexedResult.ruleId(),
+                "Rule ID mismatch for input: " + input.values());
+            assertEquals(
+                linearResult.outputs(),
+                indexedResult.outputs(),
+                "Outputs mismatch for input: " + input.values());
+          }
+        }
+      }
+    }
+  }
+
   // --- Helper methods for creating test tables ---
 
   private Schema equalityTableSchema() {
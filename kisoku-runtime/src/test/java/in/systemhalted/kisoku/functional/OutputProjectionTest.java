@@ -0,0 +1,116 @@
+package in.systemhalted.kisoku.functional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import in.systemhalted.kisoku.api.DecisionTableSources;
+import in.systemhalted.kisoku.api.Kisoku;
+import in.systemhalted.kisoku.api.compilation.CompileOptions;
+import in.systemhalted.kisoku.api.compilation.CompiledRuleset;
+import in.systemhalted.kisoku.api.evaluation.BatchResult;
+import in.systemhalted.kisoku.api.evaluation.DecisionInput;
+import in.systemhalted.kisoku.api.evaluation.DecisionOutput;
+import in.systemhalted.kisoku.api.evaluation.EvaluationException;
+import in.systemhalted.kisoku.api.evaluation.OutputProjection;
+import in.systemhalted.kisoku.api.evaluation.PreparedInput;
+import in.systemhalted.kisoku.api.evaluation.RecordBatch;
+import in.systemhalted.kisoku.api.loading.LoadOptions;
+import in.systemhalted.kisoku.api.loading.LoadedRuleset;
+import in.systemhalted.kisoku.testutil.DecisionTableFixtures;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Functional tests for evaluating with a prepared output projection. */
+class OutputProjectionTest {
+  private static final int INPUT_COLUMNS = 5;
+  private static final int OUTPUT_COLUMNS = 6;
+
+  private CompiledRuleset compileLargeTable(Path tempDir) throws IOException {
+    Path csv = DecisionTableFixtures.writeLargeTable(tempDir, 200, INPUT_COLUMNS, OUTPUT_COLUMNS);
+    return Kisoku.compiler()
+        .compile(
+            DecisionTableSources.csv(csv),
+            CompileOptions.production(
+                DecisionTableFixtures.largeTableSchema(INPUT_COLUMNS, OUTPUT_COLUMNS)));
+  }
+
+  private static Map<String, Object> project(DecisionOutput output, List<String> columns) {
+    Map<String, Object> projected = new LinkedHashMap<>();
+    for (String column : columns) {
+      projected.put(column, output.outputs().get(column));
+    }
+    return projected;
+  }
+
+  @Test
+  void projectedOutputsHoldOnlyRequestedColumns(@TempDir Path tempDir) throws IOException {
+    CompiledRuleset compiled = compileLargeTable(tempDir);
+    List<String> columns = List.of("RESULT_004", "RESULT_002");
+
+    try (LoadedRuleset ruleset = Kisoku.loader().load(compiled, LoadOptions.memoryMap())) {
+      OutputProjection projection = ruleset.outputProjection("RESULT_004", "RESULT_002");
+      assertEquals(columns, projection.columns());
+
+      List<DecisionInput> inputs = DecisionTableFixtures.createBulkVariants(20, INPUT_COLUMNS);
+      for (DecisionInput input : inputs) {
+        DecisionOutput full = ruleset.evaluate(input);
+        DecisionOutput projected = ruleset.evaluate(input, projection);
+        assertEquals(full.ruleId(), projected.ruleId());
+        assertEquals(project(full, columns), projected.outputs());
+        assertEquals(
+            projected.outputs(), ruleset.tryEvaluate(input, projection).orElseThrow().outputs());
+
+        PreparedInput prepared = ruleset.inputBinder().newInput();
+        input
+            .values()
+            .forEach((name, value) -> prepared.set(ruleset.inputBinder().slot(name), value));
+        assertEquals(projected.outputs(), ruleset.evaluate(prepared, projection).outputs());
+      }
+
+      List<DecisionOutput> bulk =
+          ruleset
+              .evaluateBulk(
+                  DecisionTableFixtures.createBaseInput(INPUT_COLUMNS), inputs, projection)
+              .results();
+      List<DecisionOutput> fullBulk =
+          ruleset
+              .evaluateBulk(DecisionTableFixtures.createBaseInput(INPUT_COLUMNS), inputs)
+              .results();
+      for (int i = 0; i < inputs.size(); i++) {
+        assertEquals(fullBulk.get(i).ruleId(), bulk.get(i).ruleId());
+        assertEquals(project(fullBulk.get(i), columns), bulk.get(i).outputs());
+      }
+
+      RecordBatch batch =
+          RecordBatch.builder(2)
+              .stringColumn("FIELD_001", new String[] {"VALUE_7", "NONE"})
+              .intColumn("FIELD_002", new int[] {7, 7})
+              .build();
+      BatchResult result = ruleset.evaluateBatch(batch);
+      assertEquals(
+          project(result.output(0).orElseThrow(), columns),
+          result.output(0, projection).orElseThrow().outputs());
+      assertTrue(result.output(1, projection).isEmpty());
+    }
+  }
+
+  @Test
+  void rejectsUnknownColumnsAndForeignProjections(@TempDir Path tempDir) throws IOException {
+    CompiledRuleset compiled = compileLargeTable(tempDir);
+
+    try (LoadedRuleset first = Kisoku.loader().load(compiled, LoadOptions.onHeap());
+        LoadedRuleset second = Kisoku.loader().load(compiled, LoadOptions.onHeap())) {
+      assertThrows(EvaluationException.class, () -> first.outputProjection("RESULT_999"));
+      assertThrows(EvaluationException.class, () -> first.outputProjection("FIELD_001"));
+
+      OutputProjection projection = first.outputProjection("RESULT_001");
+      DecisionInput input = DecisionTableFixtures.createTestInput(3, INPUT_COLUMNS);
+      assertEquals(1, first.evaluate(input, projection).outputs().size());
+      assertThrows(IllegalArgumentException.class, () -> second.evaluate(input, projection));
+    }
+  }
+}
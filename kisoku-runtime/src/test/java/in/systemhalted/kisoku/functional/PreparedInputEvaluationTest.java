@@ -0,0 +1,115 @@
+package in.systemhalted.kisoku.functional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import in.systemhalted.kisoku.api.DecisionTableSources;
+import in.systemhalted.kisoku.api.Kisoku;
+import in.systemhalted.kisoku.api.Schema;
+import in.systemhalted.kisoku.api.compilation.CompileOptions;
+import in.systemhalted.kisoku.api.compilation.CompiledRuleset;
+import in.systemhalted.kisoku.api.evaluation.DecisionInput;
+import in.systemhalted.kisoku.api.evaluation.DecisionOutput;
+import in.systemhalted.kisoku.api.evaluation.EvaluationException;
+import in.systemhalted.kisoku.api.evaluation.InputBinder;
+import in.systemhalted.kisoku.api.evaluation.PreparedInput;
+import in.systemhalted.kisoku.api.loading.LoadOptions;
+import in.systemhalted.kisoku.api.loading.LoadedRuleset;
+import in.systemhalted.kisoku.testutil.DecisionTableFixtures;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Functional tests for evaluation through a precompiled input binder. */
+class PreparedInputEvaluationTest {
+  private static final List<LoadOptions> LOAD_OPTIONS =
+      List.of(
+          LoadOptions.onHeap(),
+          LoadOptions.memoryMap(),
+          LoadOptions.onHeap().withPrewarmIndexes(false));
+
+  private CompiledRuleset compileUnsortedPriorityTable(Path tempDir) throws IOException {
+    Path csv = DecisionTableFixtures.writeUnsortedPriorityTable(tempDir);
+    Schema schema = DecisionTableFixtures.priorityTableSchema();
+    return Kisoku.compiler()
+        .compile(DecisionTableSources.csv(csv), CompileOptions.production(schema));
+  }
+
+  @Test
+  void preparedInputMatchesDecisionInput(@TempDir Path tempDir) throws IOException {
+    CompiledRuleset compiled = compileUnsortedPriorityTable(tempDir);
+    List<Integer> ages = List.of(15, 18, 25, 29, 30, 45, 65, 70);
+    List<String> regions = Arrays.asList("APAC", "EMEA", "LATAM", null);
+
+    for (LoadOptions options : LOAD_OPTIONS) {
+      try (LoadedRuleset ruleset = Kisoku.loader().load(compiled, options)) {
+        InputBinder binder = ruleset.inputBinder();
+        int age = binder.slot("AGE");
+        int region = binder.slot("REGION");
+        PreparedInput prepared = binder.newInput();
+
+        for (int value : ages) {
+          for (String regionValue : regions) {
+            Map<String, Object> values = new HashMap<>();
+            values.put("AGE", value);
+            if (regionValue != null) {
+              values.put("REGION", regionValue);
+            }
+            prepared.clear().setInt(age, value);
+            if (regionValue != null) {
+              prepared.setString(region, regionValue);
+            }
+
+            Optional<DecisionOutput> expected = ruleset.tryEvaluate(DecisionInput.of(values));
+            Optional<DecisionOutput> actual = ruleset.tryEvaluate(prepared);
+            assertEquals(
+                expected.map(DecisionOutput::ruleId),
+                actual.map(DecisionOutput::ruleId),
+                "AGE=" + value + ", REGION=" + regionValue);
+            assertEquals(
+                expected.map(DecisionOutput::outputs), actual.map(DecisionOutput::outputs));
+          }
+        }
+
+        prepared.clear().setInt(age, 25).setString(region, "APAC");
+        assertEquals("R2", ruleset.evaluate(prepared).ruleId());
+        prepared.set(age, 70).set(region, "LATAM");
+        assertThrows(EvaluationException.class, () -> ruleset.evaluate(prepared));
+      }
+    }
+  }
+
+  @Test
+  void binderExposesInputColumnSlots(@TempDir Path tempDir) throws IOException {
+    CompiledRuleset compiled = compileUnsortedPriorityTable(tempDir);
+
+    try (LoadedRuleset ruleset = Kisoku.loader().load(compiled, LoadOptions.onHeap())) {
+      InputBinder binder = ruleset.inputBinder();
+      assertEquals(List.of("AGE", "REGION"), binder.columns());
+      assertEquals(0, binder.slot("AGE"));
+      assertEquals(1, binder.slot("REGION"));
+      assertThrows(IllegalArgumentException.class, () -> binder.slot("DISCOUNT"));
+    }
+  }
+
+  @Test
+  void rejectsMismatchedTypesAndForeignInputs(@TempDir Path tempDir) throws IOException {
+    CompiledRuleset compiled = compileUnsortedPriorityTable(tempDir);
+
+    try (LoadedRuleset first = Kisoku.loader().load(compiled, LoadOptions.onHeap());
+        LoadedRuleset second = Kisoku.loader().load(compiled, LoadOptions.onHeap())) {
+      InputBinder binder = first.inputBinder();
+      PreparedInput input = binder.newInput();
+      assertThrows(EvaluationException.class, () -> input.setString(binder.slot("AGE"), "twenty"));
+      assertThrows(EvaluationException.class, () -> input.setBoolean(binder.slot("REGION"), true));
+
+      input.setInt(binder.slot("AGE"), 25).setString(binder.slot("REGION"), "APAC");
+      assertThrows(IllegalArgumentException.class, () -> second.evaluate(input));
+    }
+  }
+}
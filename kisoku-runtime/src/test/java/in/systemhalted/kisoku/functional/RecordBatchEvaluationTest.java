@@ -0,0 +1,211 @@
+package in.systemhalted.kisoku.functional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import in.systemhalted.kisoku.api.ColumnType;
+import in.systemhalted.kisoku.api.DecisionTableSources;
+import in.systemhalted.kisoku.api.Kisoku;
+import in.systemhalted.kisoku.api.Schema;
+import in.systemhalted.kisoku.api.compilation.CompileOptions;
+import in.systemhalted.kisoku.api.compilation.CompiledRuleset;
+import in.systemhalted.kisoku.api.evaluation.BatchResult;
+import in.systemhalted.kisoku.api.evaluation.DecisionInput;
+import in.systemhalted.kisoku.api.evaluation.DecisionOutput;
+import in.systemhalted.kisoku.api.evaluation.EvaluationException;
+import in.systemhalted.kisoku.api.evaluation.OutputColumn;
+import in.systemhalted.kisoku.api.evaluation.RecordBatch;
+import in.systemhalted.kisoku.api.loading.LoadOptions;
+import in.systemhalted.kisoku.api.loading.LoadedRuleset;
+import in.systemhalted.kisoku.testutil.DecisionTableFixtures;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Functional tests for columnar batch evaluation through {@link RecordBatch}. */
+class RecordBatchEvaluationTest {
+  private static final List<LoadOptions> LOAD_OPTIONS =
+      List.of(
+          LoadOptions.onHeap(),
+          LoadOptions.memoryMap(),
+          LoadOptions.onHeap().withPrewarmIndexes(false));
+
+  private static final int[] AGES = {15, 18, 25, 29, 30, 45, 65, 70, 0};
+  private static final String[] REGIONS = {"APAC", "EMEA", "LATAM", null};
+
+  private CompiledRuleset compileUnsortedPriorityTable(Path tempDir) throws IOException {
+    Path csv = DecisionTableFixtures.writeUnsortedPriorityTable(tempDir);
+    Schema schema = DecisionTableFixtures.priorityTableSchema();
+    return Kisoku.compiler()
+        .compile(DecisionTableSources.csv(csv), CompileOptions.production(schema));
+  }
+
+  private static Optional<String> describe(Optional<DecisionOutput> output) {
+    return output.map(o -> o.ruleId() + " " + o.outputs());
+  }
+
+  @Test
+  void batchMatchesSingleEvaluation(@TempDir Path tempDir) throws IOException {
+    CompiledRuleset compiled = compileUnsortedPriorityTable(tempDir);
+
+    // Every age x region combination; the last age is masked as null
+    int rows = AGES.length * REGIONS.length;
+    int[] ages = new int[rows];
+    String[] regions = new String[rows];
+    BitSet ageNulls = new BitSet();
+    List<DecisionInput> inputs = new ArrayList<>();
+    for (int row = 0; row < rows; row++) {
+      int ageIdx = row / REGIONS.length;
+      ages[row] = AGES[ageIdx];
+      regions[row] = REGIONS[row % REGIONS.length];
+      Map<String, Object> values = new HashMap<>();
+      if (ageIdx == AGES.length - 1) {
+        ageNulls.set(row);
+      } else {
+        values.put("AGE", ages[row]);
+      }
+      if (regions[row] != null) {
+        values.put("REGION", regions[row]);
+      }
+      inputs.add(DecisionInput.of(values));
+    }
+    RecordBatch batch =
+        RecordBatch.builder(rows)
+            .intColumn("AGE", ages, ageNulls)
+            .stringColumn("REGION", regions)
+            .build();
+
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    try {
+      for (LoadOptions options : LOAD_OPTIONS) {
+        try (LoadedRuleset ruleset = Kisoku.loader().load(compiled, options)) {
+          BatchResult sequential = ruleset.evaluateBatch(batch);
+          BatchResult parallel = ruleset.evaluateBatch(batch, pool, 4);
+          assertEquals(rows, sequential.size());
+          assertEquals(rows, parallel.size());
+
+          int matches = 0;
+          for (int row = 0; row < rows; row++) {
+            Optional<DecisionOutput> expected = ruleset.tryEvaluate(inputs.get(row));
+            assertEquals(expected.isPresent(), sequential.isMatched(row), "row " + row);
+            assertEquals(describe(expected), describe(sequential.output(row)), "row " + row);
+            assertEquals(describe(expected), describe(parallel.output(row)), "row " + row);
+            matches += expected.isPresent() ? 1 : 0;
+          }
+          assertEquals(matches, sequential.matchCount());
+          assertEquals(matches, parallel.matchCount());
+        }
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  void batchEvaluationBuildsFirstTouchIndexes(@TempDir Path tempDir) throws IOException {
+    CompiledRuleset compiled = compileUnsortedPriorityTable(tempDir);
+
+    try (LoadedRuleset eager = Kisoku.loader().load(compiled, LoadOptions.onHeap());
+        LoadedRuleset lazy =
+            Kisoku.loader().load(compiled, LoadOptions.onHeap().withLazyIndexes(true))) {
+      assertTrue(lazy.indexBuildTimes().isEmpty());
+
+      RecordBatch batch =
+          RecordBatch.builder(2)
+              .intColumn("AGE", new int[] {25, 70})
+              .stringColumn("REGION", new String[] {"APAC", "LATAM"})
+              .build();
+      BatchResult expected = eager.evaluateBatch(batch);
+      BatchResult actual = lazy.evaluateBatch(batch);
+
+      assertFalse(lazy.indexBuildTimes().isEmpty());
+      assertEquals(eager.indexBuildTimes().keySet(), lazy.indexBuildTimes().keySet());
+      for (int row = 0; row < batch.rowCount(); row++) {
+        assertEquals(describe(expected.output(row)), describe(actual.output(row)), "row " + row);
+      }
+    }
+  }
+
+  @Test
+  void missingColumnsAreNull(@TempDir Path tempDir) throws IOException {
+    CompiledRuleset compiled = compileUnsortedPriorityTable(tempDir);
+
+    try (LoadedRuleset ruleset = Kisoku.loader().load(compiled, LoadOptions.onHeap())) {
+      RecordBatch batch =
+          RecordBatch.builder(2)
+              .intColumn("AGE", new int[] {25, 70})
+              .stringColumn("UNUSED", new String[] {"x", "y"})
+              .build();
+      BatchResult result = ruleset.evaluateBatch(batch);
+
+      assertEquals(
+          describe(ruleset.tryEvaluate(DecisionInput.of(Map.of("AGE", 25)))),
+          describe(result.output(0)));
+      assertEquals(
+          describe(ruleset.tryEvaluate(DecisionInput.of(Map.of("AGE", 70)))),
+          describe(result.output(1)));
+    }
+  }
+
+  @Test
+  void rejectsMismatchedColumns(@TempDir Path tempDir) throws IOException {
+    CompiledRuleset compiled = compileUnsortedPriorityTable(tempDir);
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> RecordBatch.builder(2).intColumn("AGE", new int[] {1, 2, 3}));
+
+    try (LoadedRuleset ruleset = Kisoku.loader().load(compiled, LoadOptions.onHeap())) {
+      RecordBatch wrongType = RecordBatch.builder(1).intColumn("REGION", new int[] {1}).build();
+      assertThrows(EvaluationException.class, () -> ruleset.evaluateBatch(wrongType));
+
+      RecordBatch empty = RecordBatch.builder(0).build();
+      assertEquals(0, ruleset.evaluateBatch(empty).size());
+      assertThrows(
+          IllegalArgumentException.class, () -> ruleset.evaluateBatch(empty, Runnable::run, 0));
+    }
+  }
+
+  @Test
+  void outputColumnsMatchRowOutputs(@TempDir Path tempDir) throws IOException {
+    CompiledRuleset compiled = compileUnsortedPriorityTable(tempDir);
+
+    try (LoadedRuleset ruleset = Kisoku.loader().load(compiled, LoadOptions.memoryMap())) {
+      RecordBatch batch =
+          RecordBatch.builder(4)
+              .intColumn("AGE", new int[] {25, 70, 45, 19})
+              .stringColumn("REGION", new String[] {"APAC", "LATAM", null, "APAC"})
+              .build();
+      BatchResult result = ruleset.evaluateBatch(batch);
+
+      assertEquals(List.of("RULE_ID", "DISCOUNT"), result.outputColumnNames());
+      assertArrayEquals(new int[] {0, 2, 3}, result.matchedRows());
+
+      OutputColumn ruleIds = result.outputColumn("RULE_ID");
+      OutputColumn discounts = result.outputColumn("DISCOUNT");
+      assertSame(discounts, result.outputColumn("DISCOUNT"));
+      assertEquals(ColumnType.DECIMAL, discounts.type());
+      assertEquals(4, discounts.size());
+      for (int row = 0; row < batch.rowCount(); row++) {
+        Optional<DecisionOutput> output = result.output(row);
+        assertEquals(output.isEmpty(), discounts.isNull(row), "row " + row);
+        assertEquals(output.map(DecisionOutput::ruleId).orElse(null), ruleIds.value(row));
+        assertEquals(
+            output.map(o -> o.outputs().get("DISCOUNT")).orElse(null), discounts.value(row));
+      }
+      assertEquals(0, discounts.code(1));
+      assertEquals(discounts.code(0) == discounts.code(3), "R2".equals(ruleIds.value(3)));
+
+      assertThrows(EvaluationException.class, () -> result.outputColumn("AGE"));
+      assertThrows(EvaluationException.class, () -> result.outputColumn("MISSING"));
+    }
+  }
+}
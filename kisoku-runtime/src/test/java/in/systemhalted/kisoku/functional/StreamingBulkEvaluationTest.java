@@ -0,0 +1,123 @@
+package in.systemhalted.kisoku.functional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import in.systemhalted.kisoku.api.DecisionTableSources;
+import in.systemhalted.kisoku.api.Kisoku;
+import in.systemhalted.kisoku.api.Schema;
+import in.systemhalted.kisoku.api.compilation.CompileOptions;
+import in.systemhalted.kisoku.api.compilation.CompiledRuleset;
+import in.systemhalted.kisoku.api.evaluation.DecisionInput;
+import in.systemhalted.kisoku.api.evaluation.DecisionOutput;
+import in.systemhalted.kisoku.api.loading.LoadOptions;
+import in.systemhalted.kisoku.api.loading.LoadedRuleset;
+import in.systemhalted.kisoku.testutil.DecisionTableFixtures;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Functional tests for streaming bulk evaluation in bounded batches. */
+class StreamingBulkEvaluationTest {
+  private static final int[] AGES = {15, 18, 25, 29, 30, 45, 65, 70};
+  private static final String[] REGIONS = {"APAC", "EMEA", "LATAM", null};
+
+  private CompiledRuleset compileUnsortedPriorityTable(Path tempDir) throws IOException {
+    Path csv = DecisionTableFixtures.writeUnsortedPriorityTable(tempDir);
+    Schema schema = DecisionTableFixtures.priorityTableSchema();
+    return Kisoku.compiler()
+        .compile(DecisionTableSources.csv(csv), CompileOptions.production(schema));
+  }
+
+  private static List<DecisionInput> inputs() {
+    List<DecisionInput> inputs = new ArrayList<>();
+    for (int age : AGES) {
+      for (String region : REGIONS) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("AGE", age);
+        if (region != null) {
+          values.put("REGION", region);
+        }
+        inputs.add(DecisionInput.of(values));
+      }
+    }
+    return inputs;
+  }
+
+  private static Optional<String> describe(Optional<DecisionOutput> output) {
+    return output.map(o -> o.ruleId() + " " + o.outputs());
+  }
+
+  @Test
+  void streamMatchesSingleEvaluation(@TempDir Path tempDir) throws IOException {
+    CompiledRuleset compiled = compileUnsortedPriorityTable(tempDir);
+    List<DecisionInput> inputs = inputs();
+
+    for (LoadOptions options : List.of(LoadOptions.onHeap(), LoadOptions.memoryMap())) {
+      try (LoadedRuleset ruleset = Kisoku.loader().load(compiled, options)) {
+        List<Optional<String>> expected =
+            inputs.stream()
+                .map(ruleset::tryEvaluate)
+                .map(StreamingBulkEvaluationTest::describe)
+                .toList();
+
+        for (int batchSize : new int[] {1, 5, 100}) {
+          List<Optional<String>> streamed;
+          try (Stream<Optional<DecisionOutput>> results =
+              ruleset.evaluateStream(inputs.stream(), batchSize)) {
+            streamed = results.map(StreamingBulkEvaluationTest::describe).toList();
+          }
+          assertEquals(expected, streamed, "batchSize " + batchSize);
+
+          List<Optional<String>> sunk = new ArrayList<>();
+          List<Integer> batchSizes = new ArrayList<>();
+          ruleset.evaluateStream(
+              inputs.iterator(),
+              batchSize,
+              (batch, results) -> {
+                assertEquals(batch.size(), results.size());
+                batchSizes.add(batch.size());
+                for (int row = 0; row < results.size(); row++) {
+                  sunk.add(describe(results.output(row)));
+                }
+              });
+          assertEquals(expected, sunk, "batchSize " + batchSize);
+          assertTrue(batchSizes.stream().allMatch(size -> size <= batchSize));
+        }
+      }
+    }
+  }
+
+  @Test
+  void streamPullsOneBatchAtATime(@TempDir Path tempDir) throws IOException {
+    CompiledRuleset compiled = compileUnsortedPriorityTable(tempDir);
+    AtomicInteger pulled = new AtomicInteger();
+    AtomicBoolean closed = new AtomicBoolean();
+    Iterator<DecisionInput> endless =
+        Stream.generate(() -> DecisionInput.of(Map.of("AGE", 25, "REGION", "APAC")))
+            .peek(input -> pulled.incrementAndGet())
+            .iterator();
+
+    try (LoadedRuleset ruleset = Kisoku.loader().load(compiled, LoadOptions.onHeap())) {
+      Stream<DecisionInput> source = Stream.generate(endless::next).onClose(() -> closed.set(true));
+      try (Stream<Optional<DecisionOutput>> results = ruleset.evaluateStream(source, 10)) {
+        List<Optional<DecisionOutput>> first = results.limit(15).toList();
+        assertEquals(15, first.size());
+        assertEquals("R2", first.get(14).orElseThrow().ruleId());
+        assertEquals(20, pulled.get()); // Two batches, nothing more
+      }
+      assertTrue(closed.get());
+
+      assertThrows(IllegalArgumentException.class, () -> ruleset.evaluateStream(Stream.of(), 0));
+    }
+  }
+}
@@ -8,9 +8,12 @@ import in.systemhalted.kisoku.api.Kisoku;
 import in.systemhalted.kisoku.api.Schema;
 import in.systemhalted.kisoku.api.compilation.CompileOptions;
 import in.systemhalted.kisoku.api.compilation.CompiledRuleset;
+import in.systemhalted.kisoku.api.loading.LoadOptions;
 import in.systemhalted.kisoku.runtime.csv.Operator;
 import in.systemhalted.kisoku.runtime.loader.index.CandidateBitmap;
 import in.systemhalted.kisoku.runtime.loader.index.ColumnIndex;
+import in.systemhalted.kisoku.runtime.loader.index.EqualityIndex;
+import in.systemhalted.kisoku.runtime.loader.index.RangeIntervalIndex;
 import in.systemhalted.kisoku.runtime.loader.index.SetMembershipIndex;
 import java.io.BufferedWriter;
 import java.io.IOException;
@@ -105,6 +108,90 @@ class ColumnIndexBuilderTest {
     assertTrue(CandidateBitmap.isSet(unknown, 2));
   }
 
+  @Test
+  void buildsRangeIntervalIndexForBetweenColumns(@TempDir Path tempDir) throws IOException {
+    Path csv = tempDir.resolve("range.csv");
+    try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+      writer.write("RULE_ID,PRIORITY,AGE,SCORE,DISCOUNT\n");
+      writer.write("RULE_ID,PRIORITY,BETWEEN,NOT BETWEEN,SET\n");
+      writer.write("R1,30,(18,30),(0,10),0.10\n");
+      writer.write("R2,20,(31,65),,0.20\n");
+      writer.write("R3,10,,(50,60),0.05\n");
+    }
+    Schema schema =
+        Schema.builder()
+            .column("AGE", ColumnType.INTEGER)
+            .column("SCORE", ColumnType.INTEGER)
+            .column("DISCOUNT", ColumnType.DECIMAL)
+            .build();
+    CompiledRuleset compiled =
+        Kisoku.compiler().compile(DecisionTableSources.csv(csv), CompileOptions.production(schema));
+    BinaryArtifactReader reader = BinaryArtifactReader.read(ByteBuffer.wrap(compiled.bytes()));
+
+    ColumnIndex age = buildIndexFor(reader, "AGE");
+    assertInstanceOf(RangeIntervalIndex.class, age, "BETWEEN column should be indexed");
+    long[] candidates = age.getCandidates(30);
+    assertTrue(CandidateBitmap.isSet(candidates, 0), "R1 contains 30");
+    assertFalse(CandidateBitmap.isSet(candidates, 1), "R2 starts at 31");
+    assertTrue(CandidateBitmap.isSet(candidates, 2), "R3 is blank and always matches");
+
+    ColumnIndex score = buildIndexFor(reader, "SCORE");
+    assertInstanceOf(RangeIntervalIndex.class, score, "NOT_BETWEEN column should be indexed");
+    assertEquals(2, CandidateBitmap.cardinality(score.getCandidates(5)), "R1 excludes 5");
+  }
+
+  @Test
+  void buildsEqualityIndexForNeColumn(@TempDir Path tempDir) throws IOException {
+    Path csv = tempDir.resolve("not-equal.csv");
+    try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+      writer.write("RULE_ID,PRIORITY,LEVEL,DISCOUNT\n");
+      writer.write("RULE_ID,PRIORITY,NE,SET\n");
+      writer.write("R1,30,1,0.10\n");
+      writer.write("R2,20,2,0.20\n");
+      writer.write("R3,10,,0.05\n");
+    }
+    Schema schema =
+        Schema.builder()
+            .column("LEVEL", ColumnType.INTEGER)
+            .column("DISCOUNT", ColumnType.DECIMAL)
+            .build();
+    CompiledRuleset compiled =
+        Kisoku.compiler().compile(DecisionTableSources.csv(csv), CompileOptions.production(schema));
+    BinaryArtifactReader reader = BinaryArtifactReader.read(ByteBuffer.wrap(compiled.bytes()));
+
+    ColumnIndex index = buildIndexFor(reader, "LEVEL");
+    assertInstanceOf(EqualityIndex.class, index, "NE column should be indexed");
+    long[] candidates = index.getCandidates(1);
+    assertFalse(CandidateBitmap.isSet(candidates, 0), "R1 excludes 1");
+    assertTrue(CandidateBitmap.isSet(candidates, 1), "R2 only excludes 2");
+    assertTrue(CandidateBitmap.isSet(candidates, 2), "R3 is blank and always matches");
+  }
+
+  @Test
+  void offHeapOptionRelocatesIndexBitmaps(@TempDir Path tempDir) throws IOException {
+    BinaryArtifactReader reader = compileSetMembershipTable(tempDir);
+
+    for (int i = 0; i < reader.columns().size(); i++) {
+      ColumnDefinition column = reader.columns().get(i);
+      ColumnIndex heap =
+          ColumnIndexBuilder.build(reader.decoders().get(i), column, reader.rowCount());
+      ColumnIndex direct =
+          ColumnIndexBuilder.build(
+              reader.decoders().get(i),
+              column,
+              reader.rowCount(),
+              LoadOptions.onHeap().withOffHeapIndexes(true));
+      if (heap == null) {
+        assertNull(direct, "Column " + column.name() + " should not be indexed");
+        continue;
+      }
+      assertInstanceOf(heap.getClass(), direct);
+      for (int value = -1; value < 60; value++) {
+        assertArrayEquals(heap.getCandidates(value), direct.getCandidates(value), column.name());
+      }
+    }
+  }
+
   @Test
   void doesNotIndexMetadataOrOutputColumns(@TempDir Path tempDir) throws IOException {
     BinaryArtifactReader reader = compileSetMembershipTable(tempDir);
@@ -0,0 +1,105 @@
+package in.systemhalted.kisoku.runtime.loader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import in.systemhalted.kisoku.runtime.loader.index.ColumnIndex;
+import in.systemhalted.kisoku.runtime.loader.index.EqualityIndex;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link ColumnIndexSlots}. */
+class ColumnIndexSlotsTest {
+
+  private static final List<String> COLUMNS = List.of("RULE_ID", "COUNTRY", "LEVEL");
+
+  private final AtomicInteger builds = new AtomicInteger();
+
+  /** Indexes every column except the first (like RULE_ID), counting build calls. */
+  private final IntFunction<ColumnIndex> builder =
+      column -> {
+        builds.incrementAndGet();
+        return column == 0 ? null : EqualityIndex.build(new int[] {column}, new byte[] {-1}, 1);
+      };
+
+  @Test
+  void eagerBuildsEveryColumnBeforeReturning() {
+    ColumnIndexSlots sequential = ColumnIndexSlots.eager(COLUMNS, builder, null);
+    ColumnIndexSlots parallel = ColumnIndexSlots.eager(COLUMNS, builder, Runnable::run);
+
+    for (ColumnIndexSlots slots : List.of(sequential, parallel)) {
+      assertNull(slots.get(0));
+      assertNotNull(slots.get(1));
+      assertNotNull(slots.get(2));
+      assertEquals(List.of("COUNTRY", "LEVEL"), List.copyOf(slots.buildTimes().keySet()));
+    }
+    assertEquals(6, builds.get());
+  }
+
+  @Test
+  void eagerRethrowsBuildFailure() {
+    IntFunction<ColumnIndex> failing =
+        column -> {
+          throw new IllegalStateException("boom");
+        };
+
+    assertThrows(IllegalStateException.class, () -> ColumnIndexSlots.eager(COLUMNS, failing, null));
+    assertThrows(
+        IllegalStateException.class, () -> ColumnIndexSlots.eager(COLUMNS, failing, Runnable::run));
+  }
+
+  @Test
+  void lazyPublishesBackgroundBuildsAsTheyComplete() {
+    List<Runnable> tasks = new ArrayList<>();
+    ColumnIndexSlots slots = ColumnIndexSlots.lazy(COLUMNS, builder, tasks::add);
+
+    // Nothing is built on the loading thread, and lookups do not block or build
+    assertEquals(3, tasks.size());
+    assertNull(slots.get(1));
+    assertTrue(slots.buildTimes().isEmpty());
+    assertEquals(0, builds.get());
+
+    tasks.get(2).run();
+    assertNull(slots.get(1));
+    assertNotNull(slots.get(2));
+    assertEquals(List.of("LEVEL"), List.copyOf(slots.buildTimes().keySet()));
+
+    tasks.forEach(Runnable::run);
+    assertNotNull(slots.get(1));
+    assertEquals(3, builds.get()); // The re-run task found its column already built
+  }
+
+  @Test
+  void lazyWithoutExecutorBuildsOnFirstTouch() {
+    ColumnIndexSlots slots = ColumnIndexSlots.lazy(COLUMNS, builder, null);
+    assertEquals(0, builds.get());
+
+    assertNotNull(slots.get(2));
+    assertEquals(1, builds.get());
+    assertNotNull(slots.get(2));
+    assertNull(slots.get(0));
+    assertNull(slots.get(0));
+    assertEquals(2, builds.get()); // Each column is built at most once
+
+    List<ColumnIndex> snapshot = slots.snapshot();
+    assertNull(snapshot.get(1)); // Snapshots do not trigger builds
+    assertEquals(2, builds.get());
+  }
+
+  @Test
+  void lazyBuildFailureLeavesColumnUnindexed() {
+    IntFunction<ColumnIndex> failing =
+        column -> {
+          builds.incrementAndGet();
+          throw new IllegalStateException("boom");
+        };
+    ColumnIndexSlots slots = ColumnIndexSlots.lazy(COLUMNS, failing, null);
+
+    assertNull(slots.get(1));
+    assertNull(slots.get(1));
+    assertEquals(1, builds.get());
+    assertTrue(slots.buildTimes().isEmpty());
+  }
+}
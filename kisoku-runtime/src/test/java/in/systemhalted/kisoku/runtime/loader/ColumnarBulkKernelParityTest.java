@@ -36,6 +36,10 @@ class ColumnarBulkKernelParityTest {
    * A table mixing every operator family plus a blank-cell fallback rule, so every input matches.
    */
   private LoadedRulesetImpl loadMixedTable(Path dir) throws IOException {
+    return loadMixedTable(dir, LoadOptions.memoryMap());
+  }
+
+  private LoadedRulesetImpl loadMixedTable(Path dir, LoadOptions options) throws IOException {
     Path csv = dir.resolve("mixed.csv");
     try (BufferedWriter w = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
       w.write("RULE_ID,PRIORITY,REGION,AGE,SCORE,TIER,DISCOUNT\n");
@@ -56,7 +60,7 @@ class ColumnarBulkKernelParityTest {
             .build();
     CompiledRuleset compiled =
         Kisoku.compiler().compile(DecisionTableSources.csv(csv), CompileOptions.production(schema));
-    return (LoadedRulesetImpl) Kisoku.loader().load(compiled, LoadOptions.memoryMap());
+    return (LoadedRulesetImpl) Kisoku.loader().load(compiled, options);
   }
 
   private List<DecisionInput> mixedInputs() {
@@ -121,6 +125,44 @@ class ColumnarBulkKernelParityTest {
     }
   }
 
+  @Test
+  void streamPicksUpIndexesPublishedBetweenBatches(@TempDir Path tempDir) throws IOException {
+    List<Runnable> pending = new ArrayList<>();
+    LoadOptions lazy =
+        LoadOptions.memoryMap().withLazyIndexes(true).withIndexBuildExecutor(pending::add);
+    try (LoadedRulesetImpl ruleset = loadMixedTable(tempDir, lazy)) {
+      List<DecisionInput> inputs = mixedInputs();
+      List<Integer> indexedPerBatch = new ArrayList<>();
+      BatchingSpliterator stream =
+          new BatchingSpliterator(
+              inputs.iterator(),
+              () -> {
+                ColumnarBulkKernel kernel = ruleset.bulkKernel();
+                indexedPerBatch.add(kernel.indexedSlotCount());
+                return kernel;
+              },
+              ruleset::buildOutput,
+              3);
+
+      List<String> streamed = new ArrayList<>();
+      for (int i = 0; i < inputs.size(); i++) {
+        if (i == 3) {
+          // Publish the background indexes after the first batch
+          pending.forEach(Runnable::run);
+        }
+        assertTrue(
+            stream.tryAdvance(out -> streamed.add(out.map(DecisionOutput::ruleId).orElse(null))));
+      }
+      assertFalse(stream.tryAdvance(out -> fail("source is exhausted")));
+
+      assertEquals(0, indexedPerBatch.get(0));
+      assertTrue(indexedPerBatch.get(1) > 0, "later batches use the published indexes");
+      for (int i = 0; i < inputs.size(); i++) {
+        assertEquals(ruleset.evaluate(inputs.get(i)).ruleId(), streamed.get(i), "input " + i);
+      }
+    }
+  }
+
   @Test
   void parallelEvaluationMatchesSequential(@TempDir Path tempDir) throws Exception {
     try (LoadedRulesetImpl ruleset = loadMixedTable(tempDir)) {
@@ -147,6 +189,50 @@ class ColumnarBulkKernelParityTest {
     }
   }
 
+  @Test
+  void parityHoldsAcrossChunksAsLiveWindowNarrows(@TempDir Path tempDir) throws IOException {
+    // 200K rows span four 64K-row chunks. Each REGION value covers one contiguous 10K-row block,
+    // so intersecting REGION first narrows the live window to a single chunk before AGE is ANDed.
+    Path csv = tempDir.resolve("blocks.csv");
+    try (BufferedWriter w = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+      w.write("RULE_ID,REGION,AGE,DISCOUNT\n");
+      w.write("RULE_ID,EQ,BETWEEN,SET\n");
+      for (int row = 0; row < 200_000; row++) {
+        int low = row % 50;
+        w.write("R" + row + ",B" + row / 10_000 + ",(" + low + "," + (low + 5) + ")," + row + "\n");
+      }
+    }
+    Schema schema =
+        Schema.builder()
+            .column("REGION", ColumnType.STRING)
+            .column("AGE", ColumnType.INTEGER)
+            .column("DISCOUNT", ColumnType.INTEGER)
+            .build();
+    CompiledRuleset compiled =
+        Kisoku.compiler().compile(DecisionTableSources.csv(csv), CompileOptions.production(schema));
+
+    try (LoadedRulesetImpl ruleset =
+        (LoadedRulesetImpl) Kisoku.loader().load(compiled, LoadOptions.memoryMap())) {
+      List<DecisionInput> inputs = new ArrayList<>();
+      for (int block = 0; block < 20; block += 3) {
+        for (int age = 0; age < 60; age += 13) {
+          inputs.add(DecisionInput.of(Map.of("REGION", "B" + block, "AGE", age)));
+        }
+      }
+      inputs.add(DecisionInput.of(Map.of("REGION", "NONE", "AGE", 10))); // no match
+
+      ColumnarBulkKernel base = ruleset.bulkKernel();
+      for (ColumnarBulkKernel kernel : List.of(base, base.withStopThreshold(0))) {
+        DecisionOutput[] bulk = kernel.evaluate(kernel.encode(inputs));
+        for (int i = 0; i < inputs.size(); i++) {
+          String expected =
+              ruleset.tryEvaluate(inputs.get(i)).map(DecisionOutput::ruleId).orElse(null);
+          assertEquals(expected, bulk[i] == null ? null : bulk[i].ruleId(), "input " + i);
+        }
+      }
+    }
+  }
+
   @Test
   void unmatchedRowsYieldNull(@TempDir Path tempDir) throws IOException {
     // Table with NO fallback row: some inputs match nothing.
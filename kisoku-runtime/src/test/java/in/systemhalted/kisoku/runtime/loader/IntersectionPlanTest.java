@@ -0,0 +1,70 @@
+package in.systemhalted.kisoku.runtime.loader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import in.systemhalted.kisoku.runtime.csv.Operator;
+import in.systemhalted.kisoku.runtime.loader.index.EqualityIndex;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link IntersectionPlan}. */
+class IntersectionPlanTest {
+
+  private static final int ROW_COUNT = 8;
+  private static final byte[] ALL_PRESENT = {-1};
+
+  // Value 1 on rows 0-5, value 2 on rows 6-7
+  private static final int[] VALUES = {1, 1, 1, 1, 1, 1, 2, 2};
+
+  private final EqualityIndex eq = EqualityIndex.build(VALUES, ALL_PRESENT, Operator.EQ, ROW_COUNT);
+  private final EqualityIndex ne = EqualityIndex.build(VALUES, ALL_PRESENT, Operator.NE, ROW_COUNT);
+
+  @Test
+  void ordersByCandidateCountOfTheLookedUpValue() {
+    IntersectionPlan plan = new IntersectionPlan(3);
+    plan.add(0, eq, 1); // 6 candidates
+    plan.add(1, ne, 1); // 2 candidates: a rare NE selects little only for a common value
+    plan.add(2, eq, 2); // 2 candidates, added after slot 1
+
+    assertEquals(3, plan.size());
+    assertEquals(1, plan.slot(0));
+    assertSame(ne, plan.index(0));
+    assertEquals(2, plan.slot(1));
+    assertEquals(0, plan.slot(2));
+    assertFalse(plan.hasEmptyStep());
+
+    plan.clear();
+    assertFalse(plan.covers(1));
+    plan.add(0, ne, 2); // 6 candidates
+    plan.add(1, eq, 1); // 6 candidates: ties keep insertion order
+    assertEquals(0, plan.slot(0));
+    assertEquals(1, plan.slot(1));
+  }
+
+  @Test
+  void coversOnlyThePlannedSlots() {
+    IntersectionPlan plan = new IntersectionPlan(3);
+    plan.add(2, eq, 1);
+    plan.add(0, ne, 1);
+
+    assertTrue(plan.covers(0));
+    assertFalse(plan.covers(1));
+    assertTrue(plan.covers(2));
+
+    plan.clear();
+    plan.add(1, eq, 2);
+    assertFalse(plan.covers(0));
+    assertTrue(plan.covers(1));
+    assertFalse(plan.covers(2));
+  }
+
+  @Test
+  void reportsAnInputWithNoCandidates() {
+    IntersectionPlan plan = new IntersectionPlan(2);
+    assertFalse(plan.hasEmptyStep());
+
+    plan.add(0, eq, 1);
+    plan.add(1, eq, 99); // unknown value, no blank rows
+    assertTrue(plan.hasEmptyStep());
+    assertEquals(1, plan.slot(0));
+  }
+}
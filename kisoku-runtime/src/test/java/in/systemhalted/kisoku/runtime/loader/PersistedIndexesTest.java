@@ -0,0 +1,111 @@
+package in.systemhalted.kisoku.runtime.loader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import in.systemhalted.kisoku.api.ColumnType;
+import in.systemhalted.kisoku.api.DecisionTableSources;
+import in.systemhalted.kisoku.api.Kisoku;
+import in.systemhalted.kisoku.api.Schema;
+import in.systemhalted.kisoku.api.compilation.CompileOptions;
+import in.systemhalted.kisoku.runtime.loader.index.ColumnIndex;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Verifies the persisted-index artifact section round-trips every index kind. */
+class PersistedIndexesTest {
+
+  private byte[] compileMixedTable(Path dir, boolean persistIndexes) throws IOException {
+    Path csv = dir.resolve("mixed.csv");
+    try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+      // One column per index kind: equality (EQ, NE), comparison, range interval, set membership
+      writer.write("RULE_ID,PRIORITY,COUNTRY,LEVEL,SCORE,AGE,REGION,DISCOUNT\n");
+      writer.write("RULE_ID,PRIORITY,EQ,NE,GTE,BETWEEN,NOT IN,SET\n");
+      writer.write("R1,50,USA,1,10,(18,65),(APAC,EMEA),0.10\n");
+      writer.write("R2,40,UK,2,20,(21,70),(US),0.15\n");
+      writer.write("R3,30,USA,,30,,,0.05\n");
+      writer.write("R4,20,,3,,(30,40),(LATAM),0.01\n");
+      writer.write("R5,10,,,,,,0.00\n");
+    }
+
+    Schema schema =
+        Schema.builder()
+            .column("COUNTRY", ColumnType.STRING)
+            .column("LEVEL", ColumnType.INTEGER)
+            .column("SCORE", ColumnType.INTEGER)
+            .column("AGE", ColumnType.INTEGER)
+            .column("REGION", ColumnType.STRING)
+            .column("DISCOUNT", ColumnType.DECIMAL)
+            .build();
+
+    return Kisoku.compiler()
+        .compile(
+            DecisionTableSources.csv(csv),
+            CompileOptions.production(schema).withPersistedIndexes(persistIndexes))
+        .bytes();
+  }
+
+  @Test
+  void artifactsWithoutPersistedIndexesHaveNoSection(@TempDir Path tempDir) throws IOException {
+    BinaryArtifactReader reader =
+        BinaryArtifactReader.read(ByteBuffer.wrap(compileMixedTable(tempDir, false)));
+
+    assertFalse(reader.hasPersistedIndexes());
+    assertThrows(IllegalStateException.class, reader::persistedIndexes);
+  }
+
+  @Test
+  void persistedSectionIsAppendedAfterUnchangedArtifact(@TempDir Path tempDir) throws IOException {
+    byte[] plain = compileMixedTable(tempDir, false);
+    byte[] persisted = compileMixedTable(tempDir, true);
+
+    // Only the header flags differ in the shared prefix, so older readers still parse the artifact
+    assertTrue(persisted.length > plain.length);
+    byte[] prefix = Arrays.copyOf(persisted, plain.length);
+    assertEquals(0, plain[11] & BinaryArtifactReader.FLAG_PERSISTED_INDEXES);
+    assertEquals(
+        BinaryArtifactReader.FLAG_PERSISTED_INDEXES,
+        prefix[11] & BinaryArtifactReader.FLAG_PERSISTED_INDEXES);
+    prefix[11] = plain[11];
+    assertArrayEquals(plain, prefix);
+  }
+
+  @Test
+  void persistedIndexesMatchRebuiltIndexes(@TempDir Path tempDir) throws IOException {
+    BinaryArtifactReader reader =
+        BinaryArtifactReader.read(ByteBuffer.wrap(compileMixedTable(tempDir, true)));
+    assertTrue(reader.hasPersistedIndexes());
+
+    List<ColumnIndex> persisted = reader.persistedIndexes();
+    assertEquals(reader.columns().size(), persisted.size());
+
+    int indexed = 0;
+    for (int i = 0; i < reader.columns().size(); i++) {
+      ColumnDefinition column = reader.columns().get(i);
+      ColumnIndex rebuilt =
+          ColumnIndexBuilder.build(reader.decoders().get(i), column, reader.rowCount());
+      ColumnIndex loaded = persisted.get(i);
+      if (rebuilt == null) {
+        assertNull(loaded, "Column " + column.name() + " should not be persisted");
+        continue;
+      }
+      indexed++;
+      assertInstanceOf(rebuilt.getClass(), loaded, column.name());
+      // Covers raw integers and dictionary IDs of the string columns
+      for (int value = -1; value < 80; value++) {
+        assertArrayEquals(
+            rebuilt.getCandidates(value),
+            loaded.getCandidates(value),
+            column.name() + " value " + value);
+      }
+    }
+    assertEquals(5, indexed);
+  }
+}
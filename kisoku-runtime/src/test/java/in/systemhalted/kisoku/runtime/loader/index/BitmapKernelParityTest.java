@@ -0,0 +1,149 @@
+package in.systemhalted.kisoku.runtime.loader.index;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Parity tests for the SIMD {@link BitmapKernel}: every operation must give the scalar kernel's
+ * result bit for bit, across lengths that exercise the vector loop, the scalar tail and both.
+ */
+class BitmapKernelParityTest {
+  private static final int MAX_WORDS = 300;
+
+  private final BitmapKernel scalar = ScalarBitmapKernel.INSTANCE;
+  private final Random random = new Random(42);
+  private BitmapKernel vector;
+
+  @BeforeEach
+  void selectVectorKernel() {
+    vector = BitmapKernels.vectorOrNull();
+    assumeTrue(vector != null, "jdk.incubator.vector not available");
+  }
+
+  @Test
+  void surefireRunSelectsVectorKernel() {
+    assertTrue(CandidateBitmap.isVectorized());
+  }
+
+  @Test
+  void binaryOperationsMatchScalar() {
+    for (int len = 0; len <= MAX_WORDS; len++) {
+      long[] a = randomWords(len);
+      long[] b = randomWords(len);
+
+      assertArrayEquals(apply(scalar, "and", a, b), apply(vector, "and", a, b), "and " + len);
+      assertArrayEquals(apply(scalar, "or", a, b), apply(vector, "or", a, b), "or " + len);
+      assertArrayEquals(
+          apply(scalar, "andNot", a, b), apply(vector, "andNot", a, b), "andNot " + len);
+    }
+  }
+
+  @Test
+  void inPlaceOperationsMatchScalar() {
+    for (int len = 0; len <= MAX_WORDS; len++) {
+      long[] a = randomWords(len);
+      long[] b = randomWords(len);
+
+      long[] expected = a.clone();
+      scalar.and(expected, b, expected, len);
+      long[] actual = a.clone();
+      vector.and(actual, b, actual, len);
+      assertArrayEquals(expected, actual, "and in place " + len);
+    }
+  }
+
+  @Test
+  void offsetInPlaceOperationsMatchScalar() {
+    long[] dst = randomWords(MAX_WORDS);
+    for (int from = 0; from < 40; from += 3) {
+      for (int len = 0; from + len <= MAX_WORDS; len += 11) {
+        long[] src = randomWords(len);
+
+        long[] expected = dst.clone();
+        scalar.andInto(expected, from, src, len);
+        long[] actual = dst.clone();
+        vector.andInto(actual, from, src, len);
+        assertArrayEquals(expected, actual, "andInto " + from + "+" + len);
+
+        expected = dst.clone();
+        scalar.andNotInto(expected, from, src, len);
+        actual = dst.clone();
+        vector.andNotInto(actual, from, src, len);
+        assertArrayEquals(expected, actual, "andNotInto " + from + "+" + len);
+      }
+    }
+  }
+
+  @Test
+  void cardinalityAndEmptinessMatchScalar() {
+    for (int len = 0; len <= MAX_WORDS; len++) {
+      long[] words = randomWords(len);
+      assertEquals(
+          scalar.cardinality(words, 0, len), vector.cardinality(words, 0, len), "len " + len);
+      assertEquals(scalar.isEmpty(words, 0, len), vector.isEmpty(words, 0, len), "len " + len);
+
+      long[] zeros = new long[len];
+      assertTrue(vector.isEmpty(zeros, 0, len));
+      assertEquals(0, vector.cardinality(zeros, 0, len));
+      if (len > 0) {
+        // A single bit anywhere, including the scalar tail, makes the bitmap non-empty
+        int word = random.nextInt(len);
+        zeros[word] = Long.MIN_VALUE;
+        assertFalse(vector.isEmpty(zeros, 0, len), "bit in word " + word + " of " + len);
+        assertEquals(1, vector.cardinality(zeros, 0, len));
+      }
+    }
+  }
+
+  @Test
+  void rangeCountsMatchScalar() {
+    long[] words = randomWords(MAX_WORDS);
+    for (int from = 0; from < 40; from++) {
+      for (int to = from; to <= MAX_WORDS; to += 7) {
+        assertEquals(
+            scalar.cardinality(words, from, to),
+            vector.cardinality(words, from, to),
+            from + ".." + to);
+        assertEquals(scalar.isEmpty(words, from, to), vector.isEmpty(words, from, to));
+      }
+    }
+  }
+
+  @Test
+  void operationsLeaveWordsBeyondLengthUntouched() {
+    long[] a = randomWords(MAX_WORDS);
+    long[] b = randomWords(MAX_WORDS);
+    long[] dst = new long[MAX_WORDS];
+    Arrays.fill(dst, 7L);
+
+    vector.and(a, b, dst, 37);
+
+    for (int i = 37; i < MAX_WORDS; i++) {
+      assertEquals(7L, dst[i], "word " + i);
+    }
+  }
+
+  private static long[] apply(BitmapKernel kernel, String operation, long[] a, long[] b) {
+    long[] dst = new long[a.length];
+    switch (operation) {
+      case "and" -> kernel.and(a, b, dst, a.length);
+      case "or" -> kernel.or(a, b, dst, a.length);
+      case "andNot" -> kernel.andNot(a, b, dst, a.length);
+      default -> throw new IllegalArgumentException(operation);
+    }
+    return dst;
+  }
+
+  private long[] randomWords(int len) {
+    long[] words = new long[len];
+    for (int i = 0; i < len; i++) {
+      words[i] = random.nextLong();
+    }
+    return words;
+  }
+}
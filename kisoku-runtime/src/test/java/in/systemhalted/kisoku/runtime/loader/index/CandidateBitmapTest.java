@@ -2,6 +2,8 @@ package in.systemhalted.kisoku.runtime.loader.index;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 
 /** Unit tests for {@link CandidateBitmap} utility class. */
@@ -113,6 +115,27 @@ class CandidateBitmapTest {
     assertEquals(-1, CandidateBitmap.findFirst(bitmap));
   }
 
+  @Test
+  void nextSetBitIteratesSetBitsInOrder() {
+    long[] bitmap = CandidateBitmap.empty(300);
+    int[] rows = {0, 63, 64, 130, 299};
+    for (int row : rows) {
+      CandidateBitmap.set(bitmap, row);
+    }
+
+    List<Integer> visited = new ArrayList<>();
+    for (int row = CandidateBitmap.nextSetBit(bitmap, 0);
+        row >= 0;
+        row = CandidateBitmap.nextSetBit(bitmap, row + 1)) {
+      visited.add(row);
+    }
+
+    assertEquals(List.of(0, 63, 64, 130, 299), visited);
+    assertEquals(130, CandidateBitmap.nextSetBit(bitmap, 65));
+    assertEquals(-1, CandidateBitmap.nextSetBit(bitmap, 300));
+    assertEquals(-1, CandidateBitmap.nextSetBit(bitmap, 10_000));
+  }
+
   @Test
   void isEmptyDetectsEmptyAndNonEmptyBitmaps() {
     long[] empty = CandidateBitmap.empty(100);
@@ -155,6 +178,49 @@ class CandidateBitmapTest {
     assertEquals(100, CandidateBitmap.cardinality(allOnes));
   }
 
+  @Test
+  void liveWindowHelpersNarrowToNonZeroWords() {
+    long[] bitmap = CandidateBitmap.empty(640); // 10 words
+    CandidateBitmap.set(bitmap, 130); // word 2
+    CandidateBitmap.set(bitmap, 400); // word 6
+
+    assertEquals(2, CandidateBitmap.firstNonZeroWord(bitmap, 0, 10));
+    assertEquals(6, CandidateBitmap.lastNonZeroWord(bitmap, 0, 10));
+    assertEquals(2, CandidateBitmap.cardinality(bitmap, 2, 7));
+    assertEquals(1, CandidateBitmap.cardinality(bitmap, 3, 10));
+
+    // Empty ranges report past-the-end and before-the-start
+    assertEquals(6, CandidateBitmap.firstNonZeroWord(bitmap, 3, 6));
+    assertEquals(2, CandidateBitmap.lastNonZeroWord(bitmap, 3, 6));
+  }
+
+  @Test
+  void nextSetBitStopsAtWindowEnd() {
+    long[] bitmap = CandidateBitmap.empty(640);
+    CandidateBitmap.set(bitmap, 130);
+    CandidateBitmap.set(bitmap, 400);
+
+    assertEquals(130, CandidateBitmap.nextSetBit(bitmap, 0, 3));
+    assertEquals(-1, CandidateBitmap.nextSetBit(bitmap, 131, 6));
+    assertEquals(400, CandidateBitmap.nextSetBit(bitmap, 131, 7));
+  }
+
+  @Test
+  void toRowsListsSetBitsInAscendingOrder() {
+    long[] bitmap = CandidateBitmap.empty(640);
+    for (int row : new int[] {3, 63, 64, 130, 400, 639}) {
+      CandidateBitmap.set(bitmap, row);
+    }
+    int[] rows = new int[6];
+
+    assertEquals(6, CandidateBitmap.toRows(bitmap, 0, 10, rows));
+    assertArrayEquals(new int[] {3, 63, 64, 130, 400, 639}, rows);
+
+    assertEquals(2, CandidateBitmap.toRows(bitmap, 1, 3, rows));
+    assertEquals(64, rows[0]);
+    assertEquals(130, rows[1]);
+  }
+
   @Test
   void copyCreatesIndependentCopy() {
     long[] original = CandidateBitmap.allOnes(100);
@@ -1,5 +1,7 @@
 package in.systemhalted.kisoku.runtime.loader.index;
 
+import static in.systemhalted.kisoku.runtime.loader.index.IndexAssertions.assertProbesMatch;
+import static in.systemhalted.kisoku.runtime.loader.index.IndexAssertions.randomScratch;
 import static org.junit.jupiter.api.Assertions.*;
 
 import in.systemhalted.kisoku.runtime.csv.Operator;
@@ -342,12 +344,13 @@ class ComparisonIndexTest {
 
     long memSize = index.memorySizeBytes();
 
-    // Expected:
+    // Expected (bitmaps are compressed; an empty one is just its 8-byte header):
     // sortedValues: 5 * 4 = 20 bytes
-    // rowBitmaps: 5 * 2 * 8 = 80 bytes
-    // blankRowBitmap: 2 * 8 = 16 bytes
-    // Total: 116 bytes
-    assertEquals(116, memSize);
+    // rowBitmaps: 5 * 8 = 40 bytes
+    // blankRowBitmap: 8 bytes
+    // row ranks: 2 * 64 rows * 4 = 512 bytes
+    // Total: 580 bytes
+    assertEquals(580, memSize);
   }
 
   @Test
@@ -364,9 +367,10 @@ class ComparisonIndexTest {
     // Expected:
     // sortedValues: 0 * 4 = 0 bytes
     // rowBitmaps: 0 bytes (empty array)
-    // blankRowBitmap: 1 * 8 = 8 bytes
-    // Total: 8 bytes
-    assertEquals(8, memSize);
+    // blankRowBitmap: 8 bytes (empty compressed header)
+    // row ranks: 1 * 64 rows * 4 = 256 bytes
+    // Total: 264 bytes
+    assertEquals(264, memSize);
   }
 
   // ============================================================
@@ -549,6 +553,101 @@ class ComparisonIndexTest {
   // Helper Methods
   // ============================================================
 
+  private static final int LARGE_ROW_COUNT = 70_000; // spans two compressed containers
+
+  /** 97 cyclic thresholds over two containers, with every 11th row blank (stride 0: plain). */
+  private static ComparisonIndex largeIndex(Operator operator, int stride) {
+    int[] values = new int[LARGE_ROW_COUNT];
+    byte[] presence = new byte[(LARGE_ROW_COUNT + 7) / 8];
+    for (int row = 0; row < LARGE_ROW_COUNT; row++) {
+      values[row] = (row * 31) % 97;
+      if (row % 11 != 0) {
+        presence[row / 8] |= (byte) (1 << (7 - (row % 8)));
+      }
+    }
+    return stride == 0
+        ? ComparisonIndex.build(values, presence, operator, LARGE_ROW_COUNT)
+        : ComparisonIndex.build(values, presence, operator, LARGE_ROW_COUNT, stride);
+  }
+
+  @Test
+  void intersectIntoMatchesGetCandidates() {
+    for (Operator operator :
+        new Operator[] {Operator.GT, Operator.GTE, Operator.LT, Operator.LTE}) {
+      ComparisonIndex index = largeIndex(operator, 0);
+      for (int input = -1; input <= 98; input += 3) {
+        long[] expected = randomScratch(LARGE_ROW_COUNT, input);
+        CandidateBitmap.andInPlace(expected, index.getCandidates(input));
+        long[] actual = randomScratch(LARGE_ROW_COUNT, input);
+        index.intersectInto(actual, input);
+        assertArrayEquals(expected, actual, operator + " " + input);
+      }
+    }
+  }
+
+  @Test
+  void cumulativeModeMatchesPlainIndex() {
+    for (Operator operator :
+        new Operator[] {Operator.GT, Operator.GTE, Operator.LT, Operator.LTE}) {
+      ComparisonIndex plain = largeIndex(operator, 0);
+      for (int stride : new int[] {1, 3, 16, 200}) {
+        ComparisonIndex cumulative = largeIndex(operator, stride);
+        for (int input = -1; input <= 98; input++) {
+          String context = operator + " stride " + stride + " input " + input;
+          assertArrayEquals(plain.getCandidates(input), cumulative.getCandidates(input), context);
+          int count = CandidateBitmap.cardinality(plain.getCandidates(input));
+          assertEquals(count, plain.candidateCount(input), context);
+          assertEquals(count, cumulative.candidateCount(input), context);
+
+          long[] expected = randomScratch(LARGE_ROW_COUNT, input);
+          plain.intersectInto(expected, input);
+          long[] actual = randomScratch(LARGE_ROW_COUNT, input);
+          cumulative.intersectInto(actual, input);
+          assertArrayEquals(expected, actual, context);
+        }
+      }
+    }
+  }
+
+  @Test
+  void probeMatchesGetCandidates() {
+    for (Operator operator :
+        new Operator[] {Operator.GT, Operator.GTE, Operator.LT, Operator.LTE}) {
+      for (int stride : new int[] {0, 1, 16, 200}) {
+        ComparisonIndex index = largeIndex(operator, stride);
+        ComparisonIndex direct = index.toDirect();
+        for (int input = -1; input <= 98; input += 3) {
+          String context = operator + " stride " + stride + " input " + input;
+          assertProbesMatch(index, LARGE_ROW_COUNT, 5, input, context);
+          assertProbesMatch(direct, LARGE_ROW_COUNT, 5, input, context + " direct");
+        }
+      }
+    }
+  }
+
+  @Test
+  void cumulativeModeTradesMemoryForStride() {
+    int rowCount = 10_000;
+    int[] values = new int[rowCount];
+    byte[] presence = new byte[(rowCount + 7) / 8];
+    for (int row = 0; row < rowCount; row++) {
+      values[row] = row % 500;
+      presence[row / 8] |= (byte) (1 << (7 - (row % 8)));
+    }
+
+    long plain = ComparisonIndex.build(values, presence, Operator.GT, rowCount).memorySizeBytes();
+    long stride1 =
+        ComparisonIndex.build(values, presence, Operator.GT, rowCount, 1).memorySizeBytes();
+    long stride50 =
+        ComparisonIndex.build(values, presence, Operator.GT, rowCount, 50).memorySizeBytes();
+
+    assertTrue(plain < stride50, "cumulative bitmaps add memory");
+    assertTrue(stride50 < stride1, "larger stride keeps fewer cumulative bitmaps");
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> ComparisonIndex.build(values, presence, Operator.GT, rowCount, -1));
+  }
+
   /**
    * Creates a presence bitmap with MSB-first encoding.
    *
@@ -0,0 +1,260 @@
+package in.systemhalted.kisoku.runtime.loader.index;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link CompressedBitmap}. */
+class CompressedBitmapTest {
+
+  private static final int ROW_COUNT = 200_000; // spans four 64K-row containers
+
+  /**
+   * Creates a dense bitmap mixing the three container shapes: a sparse first chunk, a dense random
+   * second chunk, long runs in the third chunk and a partial fourth chunk.
+   */
+  private long[] createMixedWords(long seed) {
+    Random random = new Random(seed);
+    long[] words = new long[CandidateBitmap.longCount(ROW_COUNT)];
+    for (int i = 0; i < 300; i++) {
+      CandidateBitmap.set(words, random.nextInt(65_536));
+    }
+    for (int row = 65_536; row < 131_072; row++) {
+      if (random.nextBoolean()) {
+        CandidateBitmap.set(words, row);
+      }
+    }
+    for (int start = 131_072; start < 196_608; start += 5_000) {
+      int length = 1 + random.nextInt(3_000);
+      for (int row = start; row < start + length; row++) {
+        CandidateBitmap.set(words, row);
+      }
+    }
+    for (int row = 196_608; row < ROW_COUNT; row += 3) {
+      CandidateBitmap.set(words, row);
+    }
+    return words;
+  }
+
+  @Test
+  void fromWordsRoundTrips() {
+    long[] words = createMixedWords(1);
+
+    CompressedBitmap bitmap = CompressedBitmap.fromWords(words);
+
+    assertArrayEquals(words, bitmap.toWords(words.length));
+    assertEquals(CandidateBitmap.cardinality(words), bitmap.cardinality());
+  }
+
+  @Test
+  void fillRowsMarksExactlyTheSetRows() {
+    long[] words = createMixedWords(7);
+    int[] table = new int[ROW_COUNT];
+    Arrays.fill(table, -1);
+
+    CompressedBitmap.fromWords(words).fillRows(table, 9);
+
+    for (int row = 0; row < ROW_COUNT; row++) {
+      assertEquals(CandidateBitmap.isSet(words, row) ? 9 : -1, table[row], "row " + row);
+    }
+  }
+
+  @Test
+  void containsMatchesDenseBitmap() {
+    long[] words = createMixedWords(2);
+    CompressedBitmap bitmap = CompressedBitmap.fromWords(words);
+
+    for (int row = 0; row < ROW_COUNT; row++) {
+      assertEquals(CandidateBitmap.isSet(words, row), bitmap.contains(row), "row " + row);
+    }
+    assertFalse(bitmap.contains(-1));
+    assertFalse(bitmap.contains(Integer.MAX_VALUE));
+  }
+
+  @Test
+  void builderMatchesFromWords() {
+    long[] words = createMixedWords(3);
+    CompressedBitmap.Builder builder = CompressedBitmap.builder();
+    for (int row = 0; row < ROW_COUNT; row++) {
+      if (CandidateBitmap.isSet(words, row)) {
+        builder.add(row);
+      }
+    }
+
+    CompressedBitmap bitmap = builder.build();
+
+    assertArrayEquals(words, bitmap.toWords(words.length));
+    assertEquals(
+        CompressedBitmap.fromWords(words).memorySizeBytes(),
+        bitmap.memorySizeBytes(),
+        "both construction paths pick the same containers");
+  }
+
+  @Test
+  void builderIgnoresRepeatedRowAndRejectsDescendingRows() {
+    CompressedBitmap.Builder builder = CompressedBitmap.builder().add(3).add(3).add(7);
+
+    assertEquals(2, builder.build().cardinality());
+    assertThrows(IllegalArgumentException.class, () -> builder.add(5));
+  }
+
+  @Test
+  void setOperationsMatchDenseBitmaps() {
+    long[] a = createMixedWords(4);
+    long[] b = createMixedWords(5);
+    CompressedBitmap ca = CompressedBitmap.fromWords(a);
+    CompressedBitmap cb = CompressedBitmap.fromWords(b);
+
+    assertArrayEquals(CandidateBitmap.and(a, b), ca.and(cb).toWords(a.length));
+    assertArrayEquals(CandidateBitmap.or(a, b), ca.or(cb).toWords(a.length));
+    assertArrayEquals(CandidateBitmap.andNot(a, b), ca.andNot(cb).toWords(a.length));
+    assertArrayEquals(CandidateBitmap.andNot(b, a), cb.andNot(ca).toWords(a.length));
+  }
+
+  @Test
+  void inPlaceOperationsMatchDenseBitmaps() {
+    long[] a = createMixedWords(6);
+    long[] b = createMixedWords(7);
+    CompressedBitmap cb = CompressedBitmap.fromWords(b);
+
+    long[] and = a.clone();
+    cb.andInto(and);
+    assertArrayEquals(CandidateBitmap.and(a, b), and);
+
+    long[] or = a.clone();
+    cb.orInto(or);
+    assertArrayEquals(CandidateBitmap.or(a, b), or);
+
+    long[] andNot = a.clone();
+    cb.andNotInto(andNot);
+    assertArrayEquals(CandidateBitmap.andNot(a, b), andNot);
+  }
+
+  @Test
+  void windowedOperationsMatchFullRange() {
+    CompressedBitmap a = CompressedBitmap.fromWords(createMixedWords(9));
+    CompressedBitmap b = CompressedBitmap.fromWords(createMixedWords(10));
+    CompressedBitmap[] deltas = {a, b, CompressedBitmap.fromWords(createMixedWords(11))};
+    // Window starts inside the first chunk and ends inside the third
+    int fromWord = 700;
+    int toWord = 2_500;
+    long[] words = createMixedWords(12);
+    Arrays.fill(words, 0, fromWord, 0L);
+    Arrays.fill(words, toWord, words.length, 0L);
+
+    long[] expected = words.clone();
+    a.andInto(expected);
+    long[] actual = words.clone();
+    a.andInto(actual, fromWord, toWord);
+    assertArrayEquals(expected, actual, "andInto");
+
+    expected = words.clone();
+    a.andNotInto(expected);
+    actual = words.clone();
+    a.andNotInto(actual, fromWord, toWord);
+    assertArrayEquals(expected, actual, "andNotInto");
+
+    expected = words.clone();
+    CompressedBitmap.andUnionInto(expected, 0, expected.length, a, b);
+    actual = words.clone();
+    CompressedBitmap.andUnionInto(actual, fromWord, toWord, a, b);
+    assertArrayEquals(expected, actual, "andUnionInto");
+
+    expected = words.clone();
+    CompressedBitmap.andUnionInto(expected, 0, expected.length, a, deltas, 1, 3);
+    actual = words.clone();
+    CompressedBitmap.andUnionInto(actual, fromWord, toWord, a, deltas, 1, 3);
+    assertArrayEquals(expected, actual, "andUnionInto deltas");
+
+    expected = words.clone();
+    CompressedBitmap.andDeltaInto(expected, 0, expected.length, b, a, deltas, deltas, 1, 2);
+    actual = words.clone();
+    CompressedBitmap.andDeltaInto(actual, fromWord, toWord, b, a, deltas, deltas, 1, 2);
+    assertArrayEquals(expected, actual, "andDeltaInto");
+
+    expected = words.clone();
+    CompressedBitmap.andNotDeltaInto(expected, 0, expected.length, a, deltas, deltas, 2, 3);
+    actual = words.clone();
+    CompressedBitmap.andNotDeltaInto(actual, fromWord, toWord, a, deltas, deltas, 2, 3);
+    assertArrayEquals(expected, actual, "andNotDeltaInto");
+  }
+
+  @Test
+  void andIntoClearsWordsOutsideContainers() {
+    int rowCount = 200_000;
+    long[] words = CandidateBitmap.allOnes(rowCount);
+    CompressedBitmap bitmap = CompressedBitmap.builder().add(70_000).build();
+
+    bitmap.andInto(words);
+
+    assertEquals(1, CandidateBitmap.cardinality(words));
+    assertTrue(CandidateBitmap.isSet(words, 70_000));
+  }
+
+  @Test
+  void toDirectCopiesBitmapsOffHeap() {
+    long[] first = createMixedWords(7);
+    long[] second = createMixedWords(8);
+    CompressedBitmap[] bitmaps = {
+      CompressedBitmap.fromWords(first),
+      CompressedBitmap.empty(),
+      CompressedBitmap.fromWords(second)
+    };
+
+    CompressedBitmap[][] direct = CompressedBitmap.toDirect(bitmaps, new CompressedBitmap[0]);
+
+    assertEquals(2, direct.length);
+    assertEquals(0, direct[1].length);
+    assertTrue(direct[0][0].isDirect());
+    assertTrue(direct[0][2].isDirect());
+    assertSame(CompressedBitmap.empty(), direct[0][1]);
+    assertArrayEquals(first, direct[0][0].toWords(first.length));
+    assertArrayEquals(second, direct[0][2].toWords(second.length));
+    assertEquals(bitmaps[2].memorySizeBytes(), direct[0][2].memorySizeBytes());
+
+    long[] expected = first.clone();
+    bitmaps[2].andNotInto(expected);
+    long[] actual = first.clone();
+    direct[0][2].andNotInto(actual);
+    assertArrayEquals(expected, actual);
+  }
+
+  @Test
+  void emptyBitmapHasNoRows() {
+    CompressedBitmap empty = CompressedBitmap.empty();
+
+    assertTrue(empty.isEmpty());
+    assertEquals(0, empty.cardinality());
+    assertEquals(8, empty.memorySizeBytes());
+    assertArrayEquals(new long[4], empty.toWords(4));
+  }
+
+  @Test
+  void sparseBitmapIsMuchSmallerThanDense() {
+    int rowCount = 5_000_000;
+    CompressedBitmap.Builder builder = CompressedBitmap.builder();
+    for (int row = 0; row < rowCount; row += 50_000) {
+      builder.add(row);
+    }
+
+    CompressedBitmap bitmap = builder.build();
+
+    assertEquals(100, bitmap.cardinality());
+    // ~77 array containers of one or two rows each vs 625 KB dense
+    assertTrue(bitmap.memorySizeBytes() < 2_000, "size: " + bitmap.memorySizeBytes());
+  }
+
+  @Test
+  void consecutiveRowsCompressToRuns() {
+    long[] words = CandidateBitmap.allOnes(ROW_COUNT);
+
+    CompressedBitmap bitmap = CompressedBitmap.fromWords(words);
+
+    assertEquals(ROW_COUNT, bitmap.cardinality());
+    // four run containers of a single run each
+    assertEquals(8 + 4 * 12 + 4 * 4, bitmap.memorySizeBytes());
+    assertArrayEquals(words, bitmap.toWords(words.length));
+  }
+}
@@ -1,7 +1,10 @@
 package in.systemhalted.kisoku.runtime.loader.index;
 
+import static in.systemhalted.kisoku.runtime.loader.index.IndexAssertions.assertProbesMatch;
+import static in.systemhalted.kisoku.runtime.loader.index.IndexAssertions.randomScratch;
 import static org.junit.jupiter.api.Assertions.*;
 
+import in.systemhalted.kisoku.runtime.csv.Operator;
 import org.junit.jupiter.api.Test;
 
 /** Unit tests for {@link EqualityIndex}. */
@@ -135,9 +138,10 @@ class EqualityIndexTest {
 
     long memSize = index.memorySizeBytes();
 
-    // Should be roughly: 1 noCondition bitmap + 10 value bitmaps + HashMap overhead
+    // Should be roughly: 1 noCondition bitmap + 10 value bitmaps + slot table
     // Each bitmap: ceil(1000/64) = 16 longs = 128 bytes
-    // Expected: 11 * 128 + 10 * 48 = 1408 + 480 = 1888 bytes
+    // Each value bitmap: 100 rows as a 2-byte array container = ~220 bytes
+    // Expected: 10 * 220 + 8 + 32 * 8 + 10 * 8 = ~2550 bytes
     assertTrue(memSize > 1000, "Memory size should be reasonable: " + memSize);
     assertTrue(memSize < 10000, "Memory size should not be excessive: " + memSize);
   }
@@ -178,4 +182,80 @@ class EqualityIndexTest {
     long[] candidates = index.getCandidates(50);
     assertEquals(100, CandidateBitmap.cardinality(candidates));
   }
+
+  private static final int LARGE_ROW_COUNT = 70_000; // spans two compressed containers
+
+  /** Mixed clustered and cyclic values over two containers, with every 13th row blank. */
+  private static EqualityIndex largeIndex(Operator operator) {
+    int[] values = new int[LARGE_ROW_COUNT];
+    byte[] presence = new byte[(LARGE_ROW_COUNT + 7) / 8];
+    for (int row = 0; row < LARGE_ROW_COUNT; row++) {
+      values[row] = row % 7 == 0 ? row / 10_000 : row % 50;
+      if (row % 13 != 0) {
+        presence[row / 8] |= (byte) (1 << (7 - (row % 8)));
+      }
+    }
+    return EqualityIndex.build(values, presence, operator, LARGE_ROW_COUNT);
+  }
+
+  @Test
+  void intersectIntoMatchesGetCandidates() {
+    for (Operator operator : new Operator[] {Operator.EQ, Operator.NE}) {
+      EqualityIndex index = largeIndex(operator);
+
+      for (int input = -1; input <= 51; input++) {
+        long[] expected = randomScratch(LARGE_ROW_COUNT, input);
+        CandidateBitmap.andInPlace(expected, index.getCandidates(input));
+        long[] actual = randomScratch(LARGE_ROW_COUNT, input);
+        index.intersectInto(actual, input);
+        assertArrayEquals(expected, actual, operator + " input " + input);
+        assertEquals(
+            CandidateBitmap.cardinality(index.getCandidates(input)),
+            index.candidateCount(input),
+            operator + " count " + input);
+      }
+    }
+  }
+
+  @Test
+  void probeMatchesGetCandidates() {
+    for (Operator operator : new Operator[] {Operator.EQ, Operator.NE}) {
+      EqualityIndex index = largeIndex(operator);
+      for (int input = -1; input <= 51; input++) {
+        assertProbesMatch(index, LARGE_ROW_COUNT, 3, input, operator + " input " + input);
+      }
+    }
+  }
+
+  @Test
+  void notEqualReturnsOtherValuesAndBlanks() {
+    int rowCount = 10;
+    // Values: rows 0,2,5,9 = 100; rows 1,4 = 200; row 3 = 300; row 8 = 400
+    // Rows 6,7 are blank (no condition)
+    int[] values = {100, 200, 100, 300, 200, 100, 0, 0, 400, 100};
+    byte[] presence = createPresenceBitmap(rowCount, 0, 1, 2, 3, 4, 5, 8, 9);
+
+    EqualityIndex index = EqualityIndex.build(values, presence, Operator.NE, rowCount);
+
+    // NE 100: rows 1,3,4,8 (other values) + rows 6,7 (blank)
+    long[] candidates = index.getCandidates(100);
+    assertTrue(CandidateBitmap.isSet(candidates, 1));
+    assertTrue(CandidateBitmap.isSet(candidates, 3));
+    assertTrue(CandidateBitmap.isSet(candidates, 4));
+    assertTrue(CandidateBitmap.isSet(candidates, 8));
+    assertTrue(CandidateBitmap.isSet(candidates, 6)); // blank
+    assertTrue(CandidateBitmap.isSet(candidates, 7)); // blank
+    assertEquals(6, CandidateBitmap.cardinality(candidates));
+
+    // NE an unknown value: every row matches
+    assertEquals(rowCount, CandidateBitmap.cardinality(index.getCandidates(999)));
+  }
+
+  @Test
+  void rejectsUnsupportedOperator() {
+    byte[] presence = createPresenceBitmap(1, 0);
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> EqualityIndex.build(new int[] {1}, presence, Operator.GT, 1));
+  }
 }
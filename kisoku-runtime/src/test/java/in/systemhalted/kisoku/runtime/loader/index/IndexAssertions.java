@@ -0,0 +1,41 @@
+package in.systemhalted.kisoku.runtime.loader.index;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+/** Shared fixtures and assertions for the column index tests. */
+final class IndexAssertions {
+  private IndexAssertions() {}
+
+  /** Pseudo-random starting candidate set, so intersectInto is checked as an AND. */
+  static long[] randomScratch(int rowCount, long seed) {
+    Random random = new Random(seed);
+    long[] scratch = CandidateBitmap.allOnes(rowCount);
+    for (int i = 0; i < scratch.length; i++) {
+      scratch[i] &= random.nextLong() | random.nextLong();
+    }
+    return scratch;
+  }
+
+  /** Probes every {@code step}-th row and checks retainProbed keeps exactly the candidates. */
+  static void assertProbesMatch(
+      ColumnIndex index, int rowCount, int step, int input, String context) {
+    long[] candidates = index.getCandidates(input);
+    int[] rows = new int[(rowCount + step - 1) / step];
+    int n = 0;
+    int expectedKept = 0;
+    for (int row = 0; row < rowCount; row += step) {
+      boolean expected = CandidateBitmap.isSet(candidates, row);
+      assertEquals(expected, index.probe(row, input), context + " row " + row);
+      rows[n++] = row;
+      expectedKept += expected ? 1 : 0;
+    }
+    int kept = index.retainProbed(rows, n, input);
+    assertEquals(expectedKept, kept, context);
+    for (int i = 0; i < kept; i++) {
+      assertTrue(CandidateBitmap.isSet(candidates, rows[i]), context + " kept " + rows[i]);
+      assertTrue(i == 0 || rows[i - 1] < rows[i], context + " order");
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package in.systemhalted.kisoku.runtime.loader.index;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import in.systemhalted.kisoku.runtime.csv.Operator;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link IndexCodec}. */
+class IndexCodecTest {
+
+  private static final int ROW_COUNT = 70_000; // spans two compressed containers
+
+  private static byte[] randomPresence(Random random) {
+    byte[] presence = new byte[(ROW_COUNT + 7) / 8];
+    random.nextBytes(presence);
+    return presence;
+  }
+
+  /** Encodes at a non-zero offset of a direct buffer, as an artifact section would be mapped. */
+  private static ColumnIndex roundTrip(ColumnIndex index) {
+    byte[] encoded = IndexCodec.encode(index);
+    ByteBuffer buffer = ByteBuffer.allocateDirect(encoded.length + 13);
+    buffer.put(13, encoded);
+    return IndexCodec.decode(buffer, 13);
+  }
+
+  private static void assertSameCandidates(ColumnIndex expected, ColumnIndex actual, int maxValue) {
+    assertInstanceOf(expected.getClass(), actual);
+    for (int value = -2; value <= maxValue + 2; value++) {
+      assertArrayEquals(
+          expected.getCandidates(value), actual.getCandidates(value), "value " + value);
+    }
+  }
+
+  @Test
+  void roundTripsEqualityAndComparisonIndexes() {
+    Random random = new Random(1);
+    int[] values = new int[ROW_COUNT];
+    for (int row = 0; row < ROW_COUNT; row++) {
+      values[row] = random.nextInt(40);
+    }
+    byte[] presence = randomPresence(random);
+
+    for (Operator operator : new Operator[] {Operator.EQ, Operator.NE}) {
+      EqualityIndex index = EqualityIndex.build(values, presence, operator, ROW_COUNT);
+      assertSameCandidates(index, roundTrip(index), 40);
+    }
+    for (int stride : new int[] {0, 3}) {
+      ComparisonIndex index =
+          ComparisonIndex.build(values, presence, Operator.LTE, ROW_COUNT, stride);
+      ComparisonIndex decoded = (ComparisonIndex) roundTrip(index);
+      assertEquals(stride, decoded.cumulativeStride());
+      assertSameCandidates(index, decoded, 40);
+      for (int value = -1; value <= 41; value += 7) {
+        // The per-row rank table is derived again on decode
+        IndexAssertions.assertProbesMatch(decoded, ROW_COUNT, 1, value, "value " + value);
+      }
+    }
+  }
+
+  @Test
+  void roundTripsRangeIntervalIndex() {
+    Random random = new Random(2);
+    int[] mins = new int[ROW_COUNT];
+    int[] maxs = new int[ROW_COUNT];
+    for (int row = 0; row < ROW_COUNT; row++) {
+      mins[row] = random.nextInt(100);
+      maxs[row] = mins[row] + random.nextInt(20);
+    }
+    RangeIntervalIndex index =
+        RangeIntervalIndex.build(
+            mins, maxs, randomPresence(random), Operator.NOT_BETWEEN_EXCLUSIVE, ROW_COUNT);
+
+    assertSameCandidates(index, roundTrip(index), 120);
+  }
+
+  @Test
+  void roundTripsSetMembershipIndex() {
+    Random random = new Random(3);
+    int[] offsets = new int[ROW_COUNT];
+    short[] lengths = new short[ROW_COUNT];
+    int[] allValues = new int[ROW_COUNT * 3];
+    for (int row = 0; row < ROW_COUNT; row++) {
+      offsets[row] = row * 3;
+      lengths[row] = (short) (1 + random.nextInt(3));
+      for (int i = 0; i < 3; i++) {
+        allValues[row * 3 + i] = random.nextInt(25);
+      }
+    }
+    byte[] presence = randomPresence(random);
+
+    for (Operator operator : new Operator[] {Operator.IN, Operator.NOT_IN}) {
+      SetMembershipIndex index =
+          SetMembershipIndex.build(offsets, lengths, allValues, presence, operator, ROW_COUNT);
+      assertSameCandidates(index, roundTrip(index), 25);
+    }
+  }
+}
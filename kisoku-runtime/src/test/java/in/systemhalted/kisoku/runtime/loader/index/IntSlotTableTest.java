@@ -0,0 +1,62 @@
+package in.systemhalted.kisoku.runtime.loader.index;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link IntSlotTable}. */
+class IntSlotTableTest {
+
+  @Test
+  void assignsDenseSlotsInInsertionOrder() {
+    IntSlotTable table = new IntSlotTable(2);
+
+    assertEquals(0, table.getOrAdd(42));
+    assertEquals(1, table.getOrAdd(-7));
+    assertEquals(0, table.getOrAdd(42)); // existing key keeps its slot
+    assertEquals(2, table.getOrAdd(0));
+
+    assertEquals(3, table.size());
+    assertEquals(0, table.get(42));
+    assertEquals(1, table.get(-7));
+    assertEquals(2, table.get(0));
+    assertEquals(-1, table.get(1));
+  }
+
+  @Test
+  void handlesExtremeKeys() {
+    IntSlotTable table = new IntSlotTable(4);
+    table.getOrAdd(Integer.MIN_VALUE);
+    table.getOrAdd(Integer.MAX_VALUE);
+    table.getOrAdd(-1);
+
+    assertEquals(0, table.get(Integer.MIN_VALUE));
+    assertEquals(1, table.get(Integer.MAX_VALUE));
+    assertEquals(2, table.get(-1));
+    assertEquals(-1, table.get(Integer.MAX_VALUE - 1));
+  }
+
+  @Test
+  void matchesHashMapAcrossResizes() {
+    IntSlotTable table = new IntSlotTable(1);
+    Map<Integer, Integer> expected = new HashMap<>();
+    Random random = new Random(7);
+
+    for (int i = 0; i < 10_000; i++) {
+      // Mix sequential dictionary-style codes with random keys
+      int key = i % 3 == 0 ? random.nextInt() : i / 3;
+      int slot = table.getOrAdd(key);
+      assertEquals(expected.computeIfAbsent(key, k -> expected.size()), slot, "key " + key);
+    }
+
+    assertEquals(expected.size(), table.size());
+    expected.forEach((key, slot) -> assertEquals(slot, table.get(key), "key " + key));
+    for (int i = 0; i < 1000; i++) {
+      int key = random.nextInt();
+      assertEquals(expected.getOrDefault(key, -1), table.get(key), "key " + key);
+    }
+  }
+}
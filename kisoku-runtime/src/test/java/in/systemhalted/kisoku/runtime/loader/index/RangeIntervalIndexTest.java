@@ -0,0 +1,228 @@
+package in.systemhalted.kisoku.runtime.loader.index;
+
+import static in.systemhalted.kisoku.runtime.loader.index.IndexAssertions.assertProbesMatch;
+import static org.junit.jupiter.api.Assertions.*;
+
+import in.systemhalted.kisoku.runtime.csv.Operator;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link RangeIntervalIndex}. */
+class RangeIntervalIndexTest {
+
+  private static final Operator[] RANGE_OPERATORS = {
+    Operator.BETWEEN_INCLUSIVE,
+    Operator.BETWEEN_EXCLUSIVE,
+    Operator.NOT_BETWEEN_INCLUSIVE,
+    Operator.NOT_BETWEEN_EXCLUSIVE
+  };
+
+  /**
+   * Creates a presence bitmap with MSB-first encoding.
+   *
+   * @param rowCount total rows
+   * @param presentRows which rows have conditions (non-blank)
+   * @return the presence bitmap
+   */
+  private byte[] createPresenceBitmap(int rowCount, int... presentRows) {
+    int bitmapSize = (rowCount + 7) / 8;
+    byte[] bitmap = new byte[bitmapSize];
+
+    for (int row : presentRows) {
+      int byteIndex = row / 8;
+      int bitIndex = 7 - (row % 8); // MSB-first
+      bitmap[byteIndex] |= (1 << bitIndex);
+    }
+
+    return bitmap;
+  }
+
+  /** Reference semantics, as implemented by RangeColumnDecoder. */
+  private static boolean matches(Operator operator, int min, int max, int input) {
+    return switch (operator) {
+      case BETWEEN_INCLUSIVE -> input >= min && input <= max;
+      case BETWEEN_EXCLUSIVE -> input > min && input < max;
+      case NOT_BETWEEN_INCLUSIVE -> input < min || input > max;
+      case NOT_BETWEEN_EXCLUSIVE -> input <= min || input >= max;
+      default -> throw new IllegalArgumentException(operator.name());
+    };
+  }
+
+  // Test data: 6 rows
+  // Row 0: [10, 20]
+  // Row 1: [15, 30]
+  // Row 2: blank (no condition)
+  // Row 3: [20, 21]
+  // Row 4: [40, 50]
+  // Row 5: [25, 25]
+  private static final int[] MINS = {10, 15, 0, 20, 40, 25};
+  private static final int[] MAXS = {20, 30, 0, 21, 50, 25};
+  private static final int ROW_COUNT = 6;
+
+  private RangeIntervalIndex buildIndex(Operator operator) {
+    byte[] presence = createPresenceBitmap(ROW_COUNT, 0, 1, 3, 4, 5);
+    return RangeIntervalIndex.build(MINS, MAXS, presence, operator, ROW_COUNT);
+  }
+
+  @Test
+  void betweenInclusiveReturnsContainingRowsPlusBlanks() {
+    RangeIntervalIndex index = buildIndex(Operator.BETWEEN_INCLUSIVE);
+
+    long[] candidates = index.getCandidates(20);
+    assertTrue(CandidateBitmap.isSet(candidates, 0)); // [10, 20] includes its max
+    assertTrue(CandidateBitmap.isSet(candidates, 1));
+    assertTrue(CandidateBitmap.isSet(candidates, 2)); // blank
+    assertTrue(CandidateBitmap.isSet(candidates, 3)); // [20, 21] includes its min
+    assertFalse(CandidateBitmap.isSet(candidates, 4));
+    assertFalse(CandidateBitmap.isSet(candidates, 5));
+    assertEquals(4, CandidateBitmap.cardinality(candidates));
+  }
+
+  @Test
+  void betweenExclusiveExcludesBounds() {
+    RangeIntervalIndex index = buildIndex(Operator.BETWEEN_EXCLUSIVE);
+
+    long[] candidates = index.getCandidates(20);
+    assertFalse(CandidateBitmap.isSet(candidates, 0)); // 20 is the max
+    assertTrue(CandidateBitmap.isSet(candidates, 1));
+    assertTrue(CandidateBitmap.isSet(candidates, 2)); // blank
+    assertFalse(CandidateBitmap.isSet(candidates, 3)); // 20 is the min
+    assertEquals(2, CandidateBitmap.cardinality(candidates));
+
+    // (25, 25) is empty: never a candidate
+    assertFalse(CandidateBitmap.isSet(index.getCandidates(25), 5));
+  }
+
+  @Test
+  void notBetweenReturnsComplementPlusBlanks() {
+    RangeIntervalIndex index = buildIndex(Operator.NOT_BETWEEN_INCLUSIVE);
+
+    long[] candidates = index.getCandidates(20);
+    assertFalse(CandidateBitmap.isSet(candidates, 0));
+    assertFalse(CandidateBitmap.isSet(candidates, 1));
+    assertTrue(CandidateBitmap.isSet(candidates, 2)); // blank
+    assertFalse(CandidateBitmap.isSet(candidates, 3));
+    assertTrue(CandidateBitmap.isSet(candidates, 4));
+    assertTrue(CandidateBitmap.isSet(candidates, 5));
+    assertEquals(3, CandidateBitmap.cardinality(candidates));
+  }
+
+  @Test
+  void inputOutsideAllIntervals() {
+    assertEquals(
+        1, CandidateBitmap.cardinality(buildIndex(Operator.BETWEEN_INCLUSIVE).getCandidates(5)));
+    assertEquals(
+        1, CandidateBitmap.cardinality(buildIndex(Operator.BETWEEN_INCLUSIVE).getCandidates(99)));
+    assertEquals(
+        ROW_COUNT,
+        CandidateBitmap.cardinality(buildIndex(Operator.NOT_BETWEEN_INCLUSIVE).getCandidates(5)));
+    assertEquals(
+        ROW_COUNT,
+        CandidateBitmap.cardinality(buildIndex(Operator.NOT_BETWEEN_EXCLUSIVE).getCandidates(99)));
+  }
+
+  @Test
+  void extremeBoundsDoNotOverflow() {
+    int[] mins = {Integer.MIN_VALUE, 0, Integer.MAX_VALUE - 1};
+    int[] maxs = {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE};
+    byte[] presence = createPresenceBitmap(3, 0, 1, 2);
+
+    for (Operator operator : RANGE_OPERATORS) {
+      RangeIntervalIndex index = RangeIntervalIndex.build(mins, maxs, presence, operator, 3);
+      for (int input :
+          new int[] {Integer.MIN_VALUE, -1, 0, Integer.MAX_VALUE - 1, Integer.MAX_VALUE}) {
+        long[] candidates = index.getCandidates(input);
+        for (int row = 0; row < 3; row++) {
+          assertEquals(
+              matches(operator, mins[row], maxs[row], input),
+              CandidateBitmap.isSet(candidates, row),
+              operator + " row " + row + " input " + input);
+        }
+      }
+    }
+  }
+
+  // Large fixture: random intervals over two compressed containers, some empty (max < min), with
+  // every 17th row blank
+  private static final int LARGE_ROW_COUNT = 70_000;
+  private static final int[] LARGE_MINS = new int[LARGE_ROW_COUNT];
+  private static final int[] LARGE_MAXS = new int[LARGE_ROW_COUNT];
+  private static final byte[] LARGE_PRESENCE = new byte[(LARGE_ROW_COUNT + 7) / 8];
+
+  static {
+    Random random = new Random(42);
+    for (int row = 0; row < LARGE_ROW_COUNT; row++) {
+      LARGE_MINS[row] = random.nextInt(500);
+      LARGE_MAXS[row] = LARGE_MINS[row] + random.nextInt(60) - 5;
+      if (row % 17 != 0) {
+        LARGE_PRESENCE[row / 8] |= (byte) (1 << (7 - (row % 8)));
+      }
+    }
+  }
+
+  @Test
+  void matchesReferenceSemanticsAcrossCheckpointIntervals() {
+    for (Operator operator : RANGE_OPERATORS) {
+      for (int interval : new int[] {1, 3, RangeIntervalIndex.DEFAULT_CHECKPOINT_INTERVAL, 100}) {
+        RangeIntervalIndex index =
+            RangeIntervalIndex.build(
+                LARGE_MINS, LARGE_MAXS, LARGE_PRESENCE, operator, LARGE_ROW_COUNT, interval);
+        for (int input = -2; input < 570; input += 7) {
+          long[] expected = CandidateBitmap.empty(LARGE_ROW_COUNT);
+          for (int row = 0; row < LARGE_ROW_COUNT; row++) {
+            boolean present = (LARGE_PRESENCE[row / 8] & (1 << (7 - (row % 8)))) != 0;
+            if (!present || matches(operator, LARGE_MINS[row], LARGE_MAXS[row], input)) {
+              CandidateBitmap.set(expected, row);
+            }
+          }
+          String context = operator + " interval " + interval + " input " + input;
+          assertArrayEquals(expected, index.getCandidates(input), context);
+          assertEquals(CandidateBitmap.cardinality(expected), index.candidateCount(input), context);
+
+          long[] scratch = CandidateBitmap.allOnes(LARGE_ROW_COUNT);
+          scratch[1] = 0L; // pre-existing narrowing must be preserved
+          index.intersectInto(scratch, input);
+          expected[1] = 0L;
+          assertArrayEquals(expected, scratch, context);
+        }
+      }
+    }
+  }
+
+  @Test
+  void probeMatchesGetCandidates() {
+    for (Operator operator : RANGE_OPERATORS) {
+      for (int interval : new int[] {1, RangeIntervalIndex.DEFAULT_CHECKPOINT_INTERVAL, 100}) {
+        RangeIntervalIndex index =
+            RangeIntervalIndex.build(
+                LARGE_MINS, LARGE_MAXS, LARGE_PRESENCE, operator, LARGE_ROW_COUNT, interval);
+        for (int input = -2; input < 570; input += 13) {
+          assertProbesMatch(
+              index, LARGE_ROW_COUNT, 3, input, operator + " interval " + interval + " " + input);
+        }
+      }
+    }
+  }
+
+  @Test
+  void rejectsInvalidConfiguration() {
+    byte[] presence = createPresenceBitmap(ROW_COUNT);
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> RangeIntervalIndex.build(MINS, MAXS, presence, Operator.EQ, ROW_COUNT));
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            RangeIntervalIndex.build(
+                MINS, MAXS, presence, Operator.BETWEEN_INCLUSIVE, ROW_COUNT, 0));
+  }
+
+  @Test
+  void memoryAndSelectivityEstimates() {
+    RangeIntervalIndex index = buildIndex(Operator.BETWEEN_INCLUSIVE);
+
+    // Endpoints: 10, 15, 20, 21, 22, 25, 26, 31, 40, 51
+    assertEquals(10, index.uniqueValueCount());
+    assertTrue(index.memorySizeBytes() > 0);
+  }
+}
@@ -1,5 +1,7 @@
 package in.systemhalted.kisoku.runtime.loader.index;
 
+import static in.systemhalted.kisoku.runtime.loader.index.IndexAssertions.assertProbesMatch;
+import static in.systemhalted.kisoku.runtime.loader.index.IndexAssertions.randomScratch;
 import static org.junit.jupiter.api.Assertions.*;
 
 import in.systemhalted.kisoku.runtime.csv.Operator;
@@ -104,4 +106,53 @@ class SetMembershipIndexTest {
     long[] candidates = index.getCandidates(999);
     assertEquals(ROW_COUNT, CandidateBitmap.cardinality(candidates));
   }
+
+  private static final int LARGE_ROW_COUNT = 70_000; // spans two compressed containers
+
+  /** Two-value sets over two containers, with every 9th row blank. */
+  private static SetMembershipIndex largeIndex(Operator operator) {
+    int[] offsets = new int[LARGE_ROW_COUNT];
+    short[] lengths = new short[LARGE_ROW_COUNT];
+    int[] allValues = new int[LARGE_ROW_COUNT * 2];
+    byte[] presence = new byte[(LARGE_ROW_COUNT + 7) / 8];
+    for (int row = 0; row < LARGE_ROW_COUNT; row++) {
+      offsets[row] = row * 2;
+      lengths[row] = 2;
+      allValues[row * 2] = row % 20;
+      allValues[row * 2 + 1] = row % 33;
+      if (row % 9 != 0) {
+        presence[row / 8] |= (byte) (1 << (7 - (row % 8)));
+      }
+    }
+    return SetMembershipIndex.build(
+        offsets, lengths, allValues, presence, operator, LARGE_ROW_COUNT);
+  }
+
+  @Test
+  void intersectIntoMatchesGetCandidates() {
+    for (Operator operator : new Operator[] {Operator.IN, Operator.NOT_IN}) {
+      SetMembershipIndex index = largeIndex(operator);
+      for (int input = -1; input <= 34; input++) {
+        long[] expected = randomScratch(LARGE_ROW_COUNT, input);
+        CandidateBitmap.andInPlace(expected, index.getCandidates(input));
+        long[] actual = randomScratch(LARGE_ROW_COUNT, input);
+        index.intersectInto(actual, input);
+        assertArrayEquals(expected, actual, operator + " " + input);
+        assertEquals(
+            CandidateBitmap.cardinality(index.getCandidates(input)),
+            index.candidateCount(input),
+            operator + " count " + input);
+      }
+    }
+  }
+
+  @Test
+  void probeMatchesGetCandidates() {
+    for (Operator operator : new Operator[] {Operator.IN, Operator.NOT_IN}) {
+      SetMembershipIndex index = largeIndex(operator);
+      for (int input = -1; input <= 34; input++) {
+        assertProbesMatch(index, LARGE_ROW_COUNT, 3, input, operator + " " + input);
+      }
+    }
+  }
 }
@@ -65,6 +65,20 @@ public final class DecisionTableFixtures {
     return writeCsv(dir, "priority.csv", header, operators, rows);
   }
 
+  /** Priority table whose CSV rows are not in priority order; every rule matches APAC, age 25. */
+  public static Path writeUnsortedPriorityTable(Path dir) throws IOException {
+    List<String> header =
+        List.of("RULE_ID", "PRIORITY", "AGE", "REGION", "DISCOUNT", "TEST_EXPECTED_SEGMENT");
+    List<String> operators = List.of("RULE_ID", "PRIORITY", "BETWEEN", "IN", "SET", "SET");
+    List<List<String>> rows =
+        List.of(
+            List.of("R1", "10", "(18,29)", "(APAC)", "0.05", "SEG_A"),
+            List.of("R2", "30", "", "(APAC,EMEA)", "0.10", "SEG_B"),
+            List.of("R3", "20", "(18,65)", "", "0.02", "SEG_C"),
+            List.of("R4", "25", "(40,65)", "(APAC)", "0.20", "SEG_D"));
+    return writeCsv(dir, "unsorted-priority.csv", header, operators, rows);
+  }
+
   public static Path writeFirstMatchTable(Path dir) throws IOException {
     List<String> header = List.of("RULE_ID", "AGE", "REGION", "DISCOUNT");
     List<String> operators = List.of("RULE_ID", "BETWEEN", "IN", "SET");